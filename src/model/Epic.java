@@ -1,103 +1,167 @@
 package model;
 
+import util.EpochMinutes;
+import util.IntTrieSet;
+
 import java.time.Duration;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
 import java.util.List;
 
+// immutable, so one instance can be shared by the store, history and callers;
+// subtask changes return a new epic sharing most of the id set with this one
 public class Epic extends Task {
 
-    private final List<Integer> subtaskIds;
-    private final LocalDateTime endTime;
+    private final IntTrieSet subtaskIds;
 
-    public Epic(String name, String description) {
+    public Epic(String name, CharSequence description) {
         super(name, description, TaskStatus.NEW, Duration.ZERO, null);
-        subtaskIds = new ArrayList<>();
-        endTime = null;
+        subtaskIds = IntTrieSet.empty();
     }
 
     public Epic(
             int id,
             String name,
-            String description,
+            CharSequence description,
             TaskStatus status,
             List<Integer> subtaskIds,
             Duration duration,
             LocalDateTime startTime,
             LocalDateTime endTime
     ) {
-        super(id, name, description, status, duration, startTime);
-        this.subtaskIds = new ArrayList<>(subtaskIds);
-        this.endTime = endTime;
+        this(id, name, description, status, IntTrieSet.of(subtaskIds), duration, startTime, endTime);
+    }
+
+    public Epic(
+            int id,
+            String name,
+            CharSequence description,
+            TaskStatus status,
+            IntTrieSet subtaskIds,
+            Duration duration,
+            LocalDateTime startTime,
+            LocalDateTime endTime
+    ) {
+        this(id, name, description, status, subtaskIds,
+                EpochMinutes.of(duration), EpochMinutes.of(startTime), EpochMinutes.of(endTime));
+    }
+
+    private Epic(
+            int id,
+            String name,
+            CharSequence description,
+            TaskStatus status,
+            IntTrieSet subtaskIds,
+            long durationMinutes,
+            long startMinute,
+            long endMinute
+    ) {
+        super(id, name, description, status, durationMinutes, startMinute, endMinute);
+        this.subtaskIds = subtaskIds;
     }
 
     public static Epic copyOf(Epic epic) {
         return new Epic(epic.getId(),
                 epic.getName(),
-                epic.getDescription(),
+                epic.getRawDescription(),
                 epic.getStatus(),
-                new ArrayList<>(epic.getSubtaskIds()),
-                epic.getDuration(),
-                epic.getStartTime(),
-                epic.getEndTime());
+                epic.subtaskIds,
+                epic.getDurationMinutes(),
+                epic.getStartMinute(),
+                epic.getEndMinute());
     }
 
     public Epic withId(int id) {
         return new Epic(id,
                 this.getName(),
-                this.getDescription(),
+                this.getRawDescription(),
                 this.getStatus(),
-                this.getSubtaskIds(),
-                this.getDuration(),
-                this.getStartTime(),
-                this.getEndTime());
+                this.subtaskIds,
+                this.getDurationMinutes(),
+                this.getStartMinute(),
+                this.getEndMinute());
     }
 
     public Epic withStatus(TaskStatus status) {
         return new Epic(this.getId(),
                 this.getName(),
-                this.getDescription(),
+                this.getRawDescription(),
                 status,
-                this.getSubtaskIds(),
-                this.getDuration(),
-                this.getStartTime(),
-                this.getEndTime());
+                this.subtaskIds,
+                this.getDurationMinutes(),
+                this.getStartMinute(),
+                this.getEndMinute());
+    }
+
+    // an epic's time frame normally follows from its subtasks
+    public Epic withTime(LocalDateTime startTime, Duration duration) {
+        return withTemporal(startTime, startTime == null ? null : startTime.plus(duration), duration);
+    }
+
+    public Epic withText(String name, CharSequence description) {
+        return new Epic(this.getId(),
+                name,
+                description,
+                this.getStatus(),
+                this.subtaskIds,
+                this.getDurationMinutes(),
+                this.getStartMinute(),
+                this.getEndMinute());
     }
 
     public Epic withTemporal(LocalDateTime startTime, LocalDateTime endTime, Duration duration) {
+        return withTemporal(EpochMinutes.of(startTime), EpochMinutes.of(endTime), EpochMinutes.of(duration));
+    }
+
+    // epoch minutes, EpochMinutes.NONE for a missing start or end
+    public Epic withTemporal(long startMinute, long endMinute, long durationMinutes) {
         return new Epic(this.getId(),
                 this.getName(),
-                this.getDescription(),
+                this.getRawDescription(),
                 this.getStatus(),
-                this.getSubtaskIds(),
-                duration,
-                startTime,
-                endTime);
+                this.subtaskIds,
+                durationMinutes,
+                startMinute,
+                endMinute);
     }
 
-    // ----
+    public Epic withSubtaskIds(List<Integer> subtaskIds) {
+        return withSubtaskIds(IntTrieSet.of(subtaskIds));
+    }
+
+    public Epic withSubtaskIds(IntTrieSet subtaskIds) {
+        return new Epic(this.getId(),
+                this.getName(),
+                this.getRawDescription(),
+                this.getStatus(),
+                subtaskIds,
+                this.getDurationMinutes(),
+                this.getStartMinute(),
+                this.getEndMinute());
+    }
 
-    public void addSubtaskId(int id) {
-        if (!subtaskIds.contains(id)) {
-            subtaskIds.add(id);
-        }
+    public Epic withSubtaskId(int id) {
+        IntTrieSet linked = subtaskIds.add(id);
+        return linked == subtaskIds ? this : withSubtaskIds(linked);
     }
 
-    public void removeSubtaskId(int id) {
-        subtaskIds.remove((Integer) id);
+    public Epic withoutSubtaskId(int id) {
+        IntTrieSet unlinked = subtaskIds.remove(id);
+        return unlinked == subtaskIds ? this : withSubtaskIds(unlinked);
     }
 
-    public void removeAllSubtaskIds() {
-        subtaskIds.clear();
+    // ----
+
+    public boolean hasSubtaskId(int id) {
+        return subtaskIds.contains(id);
     }
 
+    // ascending ids, a copy
     public List<Integer> getSubtaskIds() {
-        return subtaskIds;
+        return subtaskIds.toList();
     }
 
-    @Override
-    public LocalDateTime getEndTime() {
-        return endTime;
+    public IntTrieSet getSubtaskIdSet() {
+        return subtaskIds;
     }
 
     @Override
@@ -0,0 +1,214 @@
+package model;
+
+import util.EpochMinutes;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// template of a standing task: the start time is the first occurrence, one more follows every period
+// up to and including the until time, or forever without one; occurrences are computed, never stored
+public class RecurringTask extends Task {
+
+    private final long periodMinutes;
+    private final long untilMinute;
+
+    public RecurringTask(String name, CharSequence description, Duration duration, LocalDateTime firstStart,
+                         Duration period) {
+        this(-1, name, description, TaskStatus.NEW, duration, firstStart, period, null);
+    }
+
+    public RecurringTask(
+            int id,
+            String name,
+            CharSequence description,
+            TaskStatus status,
+            Duration duration,
+            LocalDateTime firstStart,
+            Duration period,
+            LocalDateTime until
+    ) {
+        this(id, name, description, status, EpochMinutes.of(duration), EpochMinutes.of(firstStart),
+                EpochMinutes.of(period), EpochMinutes.of(until));
+    }
+
+    private RecurringTask(
+            int id,
+            String name,
+            CharSequence description,
+            TaskStatus status,
+            long durationMinutes,
+            long startMinute,
+            long periodMinutes,
+            long untilMinute
+    ) {
+        super(id, name, description, status, durationMinutes, startMinute);
+        if (startMinute == EpochMinutes.NONE) {
+            throw new IllegalArgumentException("Recurring task needs a first start");
+        } else if (periodMinutes <= 0) {
+            throw new IllegalArgumentException("Period must be positive");
+        } else if (durationMinutes > periodMinutes) {
+            throw new IllegalArgumentException("Occurrences must not overlap each other");
+        }
+        this.periodMinutes = periodMinutes;
+        this.untilMinute = untilMinute;
+    }
+
+    public static RecurringTask daily(String name, CharSequence description, Duration duration, LocalDateTime firstStart) {
+        return new RecurringTask(name, description, duration, firstStart, Duration.ofDays(1));
+    }
+
+    public static RecurringTask weekly(String name, CharSequence description, Duration duration, LocalDateTime firstStart) {
+        return new RecurringTask(name, description, duration, firstStart, Duration.ofDays(7));
+    }
+
+    public RecurringTask withId(int id) {
+        return new RecurringTask(id, getName(), getRawDescription(), getStatus(),
+                getDurationMinutes(), getStartMinute(), periodMinutes, untilMinute);
+    }
+
+    public RecurringTask withStatus(TaskStatus status) {
+        return new RecurringTask(getId(), getName(), getRawDescription(), status,
+                getDurationMinutes(), getStartMinute(), periodMinutes, untilMinute);
+    }
+
+    public RecurringTask withTime(LocalDateTime startTime, Duration duration) {
+        return new RecurringTask(getId(), getName(), getRawDescription(), getStatus(),
+                EpochMinutes.of(duration), EpochMinutes.of(startTime), periodMinutes, untilMinute);
+    }
+
+    public RecurringTask withText(String name, CharSequence description) {
+        return new RecurringTask(getId(), name, description, getStatus(),
+                getDurationMinutes(), getStartMinute(), periodMinutes, untilMinute);
+    }
+
+    // null for a rule without an end
+    public RecurringTask withUntil(LocalDateTime until) {
+        return new RecurringTask(getId(), getName(), getRawDescription(), getStatus(),
+                getDurationMinutes(), getStartMinute(), periodMinutes, EpochMinutes.of(until));
+    }
+
+    // ----
+
+    public Duration getPeriod() {
+        return Duration.ofMinutes(periodMinutes);
+    }
+
+    public long getPeriodMinutes() {
+        return periodMinutes;
+    }
+
+    public LocalDateTime getUntil() {
+        return EpochMinutes.toDateTime(untilMinute);
+    }
+
+    // occurrences as plain tasks with the template id, those overlapping [from, to) in start order
+    public List<Task> getOccurrences(LocalDateTime from, LocalDateTime to) {
+        long toMinute = EpochMinutes.of(to);
+        List<Task> occurrences = new ArrayList<>();
+        for (long k = firstEndingAfter(EpochMinutes.of(from)); exists(k) && startOf(k) < toMinute; k++) {
+            occurrences.add(new Task(getId(), getName(), getRawDescription(), getStatus(),
+                    getDuration(), EpochMinutes.toDateTime(startOf(k))));
+        }
+        return occurrences;
+    }
+
+    // whether an occurrence overlaps [startMinute, endMinute), answered without walking occurrences
+    public boolean overlaps(long startMinute, long endMinute) {
+        return overlapEnd(startMinute, endMinute) != EpochMinutes.NONE;
+    }
+
+    // end of the first occurrence overlapping [startMinute, endMinute), EpochMinutes.NONE if there is none
+    public long overlapEnd(long startMinute, long endMinute) {
+        long k = firstEndingAfter(startMinute);
+        return exists(k) && startOf(k) < endMinute ? startOf(k) + getDurationMinutes() : EpochMinutes.NONE;
+    }
+
+    // minutes of all occurrences inside [startMinute, endMinute), only the first and last can be cut
+    public long bookedMinutes(long startMinute, long endMinute) {
+        long first = firstEndingAfter(startMinute);
+        if (getDurationMinutes() == 0 || !exists(first) || startOf(first) >= endMinute) {
+            return 0;
+        }
+        long last = Math.floorDiv(endMinute - 1 - getStartMinute(), periodMinutes);
+        if (untilMinute != EpochMinutes.NONE) {
+            last = Math.min(last, Math.floorDiv(untilMinute - getStartMinute(), periodMinutes));
+        }
+        return (last - first + 1) * getDurationMinutes()
+                - Math.max(0, startMinute - startOf(first))
+                - Math.max(0, startOf(last) + getDurationMinutes() - endMinute);
+    }
+
+    @Override
+    public boolean hasTimeConflictWith(Task otherTask) {
+        if (this.equals(otherTask) || !otherTask.hasStartTime()) {
+            return false;
+        } else if (otherTask instanceof RecurringTask other) {
+            return conflictsWith(other);
+        }
+        return overlaps(otherTask.getStartMinute(), otherTask.getEndMinute());
+    }
+
+    private boolean conflictsWith(RecurringTask other) {
+        if (untilMinute == EpochMinutes.NONE && other.untilMinute == EpochMinutes.NONE) {
+            // once both rules run, occurrence starts differ by every value congruent to the offset of the
+            // first starts modulo the gcd of the periods; they overlap if such a difference d satisfies
+            // -other duration < d < this duration, d below is the smallest one above the lower bound
+            long gcd = gcd(periodMinutes, other.periodMinutes);
+            long lowest = 1 - other.getDurationMinutes();
+            long d = lowest + Math.floorMod(other.getStartMinute() - getStartMinute() - lowest, gcd);
+            return d < getDurationMinutes();
+        }
+        // a bounded rule has finitely many occurrences, those during the other rule are checked one by one
+        RecurringTask bounded = untilMinute != EpochMinutes.NONE
+                && (other.untilMinute == EpochMinutes.NONE || count() <= other.count()) ? this : other;
+        RecurringTask rest = bounded == this ? other : this;
+        for (long k = bounded.firstEndingAfter(rest.getStartMinute()); bounded.exists(k); k++) {
+            if (rest.overlaps(bounded.startOf(k), bounded.startOf(k) + bounded.getDurationMinutes())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // first occurrence that ends after the minute, or starts after it for zero durations
+    private long firstEndingAfter(long minute) {
+        return Math.max(0, Math.floorDiv(minute - getStartMinute() - getDurationMinutes(), periodMinutes) + 1);
+    }
+
+    private long startOf(long k) {
+        return getStartMinute() + k * periodMinutes;
+    }
+
+    private boolean exists(long k) {
+        return untilMinute == EpochMinutes.NONE || startOf(k) <= untilMinute;
+    }
+
+    private long count() {
+        return untilMinute < getStartMinute() ? 0 : (untilMinute - getStartMinute()) / periodMinutes + 1;
+    }
+
+    private static long gcd(long a, long b) {
+        while (b != 0) {
+            long t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
+
+    @Override
+    public String toString() {
+        return "RecurringTask{" +
+                "id=" + getId() + ", " +
+                "name='" + getName() + "', " +
+                "description='" + getDescription() + "', " +
+                "status=" + getStatus() + "', " +
+                "duration='" + getDuration() + "', " +
+                "firstStart=" + getStartTime() + "', " +
+                "period=" + getPeriod() + "', " +
+                "until=" + getUntil() +
+                '}';
+    }
+}
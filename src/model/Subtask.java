@@ -10,7 +10,7 @@ public class Subtask extends Task {
     public Subtask(
             int epicId,
             String name,
-            String description,
+            CharSequence description,
             TaskStatus status,
             Duration duration,
             LocalDateTime startTime
@@ -23,7 +23,7 @@ public class Subtask extends Task {
             int id,
             int epicId,
             String name,
-            String description,
+            CharSequence description,
             TaskStatus status,
             Duration duration,
             LocalDateTime startTime
@@ -32,15 +32,28 @@ public class Subtask extends Task {
         this.epicId = epicId;
     }
 
+    private Subtask(
+            int id,
+            int epicId,
+            String name,
+            CharSequence description,
+            TaskStatus status,
+            long durationMinutes,
+            long startMinute
+    ) {
+        super(id, name, description, status, durationMinutes, startMinute);
+        this.epicId = epicId;
+    }
+
     public static Subtask copyOf(Subtask subtask) {
         return new Subtask(
                 subtask.getId(),
                 subtask.getEpicId(),
                 subtask.getName(),
-                subtask.getDescription(),
+                subtask.getRawDescription(),
                 subtask.getStatus(),
-                subtask.getDuration(),
-                subtask.getStartTime());
+                subtask.getDurationMinutes(),
+                subtask.getStartMinute());
     }
 
     public Subtask withId(int id) {
@@ -48,10 +61,10 @@ public class Subtask extends Task {
                 id,
                 this.getEpicId(),
                 this.getName(),
-                this.getDescription(),
+                this.getRawDescription(),
                 this.getStatus(),
-                this.getDuration(),
-                this.getStartTime()
+                this.getDurationMinutes(),
+                this.getStartMinute()
         );
     }
 
@@ -60,10 +73,34 @@ public class Subtask extends Task {
                 this.getId(),
                 this.getEpicId(),
                 this.getName(),
-                this.getDescription(),
+                this.getRawDescription(),
                 status,
-                this.getDuration(),
-                this.getStartTime()
+                this.getDurationMinutes(),
+                this.getStartMinute()
+        );
+    }
+
+    public Subtask withTime(LocalDateTime startTime, Duration duration) {
+        return new Subtask(
+                this.getId(),
+                this.getEpicId(),
+                this.getName(),
+                this.getRawDescription(),
+                this.getStatus(),
+                duration,
+                startTime
+        );
+    }
+
+    public Subtask withText(String name, CharSequence description) {
+        return new Subtask(
+                this.getId(),
+                this.getEpicId(),
+                name,
+                description,
+                this.getStatus(),
+                this.getDurationMinutes(),
+                this.getStartMinute()
         );
     }
 
@@ -1,42 +1,75 @@
 package model;
 
+import util.EpochMinutes;
+import util.StringPool;
+
 import java.time.Duration;
 import java.time.LocalDateTime;
 
+// times are kept as primitive epoch minutes, LocalDateTime and Duration are only created by the getters
 public class Task {
 
+    private final int id;
     private final String name;
-    private final String description;
+    private final CharSequence description;
     private final TaskStatus status;
-    private final Duration duration;
-    private final LocalDateTime startTime;
-    private final Integer id;
+    private final long durationMinutes;
+    private final long startMinute;
+    private final long endMinute;
 
     // constructors and creation methods
 
-    public Task(int id, String name, String description, TaskStatus status, Duration duration, LocalDateTime startTime) {
+    public Task(int id, String name, CharSequence description, TaskStatus status, Duration duration, LocalDateTime startTime) {
+        this(id, name, description, status, EpochMinutes.of(duration), EpochMinutes.of(startTime));
+    }
+
+    public Task(String name, CharSequence description, TaskStatus status, Duration duration, LocalDateTime startTime) {
+        this(-1, name, description, status, duration, startTime);
+    }
+
+    protected Task(int id, String name, CharSequence description, TaskStatus status, long durationMinutes, long startMinute) {
+        this(id, name, description, status, durationMinutes, startMinute,
+                startMinute == EpochMinutes.NONE ? EpochMinutes.NONE : startMinute + durationMinutes);
+    }
+
+    // the end is given separately for epics, where it is not start plus duration
+    protected Task(int id, String name, CharSequence description, TaskStatus status,
+                   long durationMinutes, long startMinute, long endMinute) {
         this.id = id;
         this.name = name;
         this.description = description;
         this.status = status;
-        this.duration = duration;
-        this.startTime = startTime;
-    }
-
-    public Task(String name, String description, TaskStatus status, Duration duration, LocalDateTime startTime) {
-        this(-1, name, description, status, duration, startTime);
+        this.durationMinutes = durationMinutes;
+        this.startMinute = startMinute;
+        this.endMinute = endMinute;
     }
 
     public static Task copyOf(Task task) {
-        return new Task(task.id, task.name, task.description, task.status, task.duration, task.startTime);
+        return new Task(task.id, task.name, task.description, task.status, task.durationMinutes, task.startMinute);
     }
 
     public Task withId(int id) {
-        return new Task(id, this.name, this.description, this.status, this.duration, this.startTime);
+        return new Task(id, this.name, this.description, this.status, this.durationMinutes, this.startMinute);
     }
 
     public Task withStatus(TaskStatus status) {
-        return new Task(this.id, this.name, this.description, status, this.duration, this.startTime);
+        return new Task(this.id, this.name, this.description, status, this.durationMinutes, this.startMinute);
+    }
+
+    public Task withTime(LocalDateTime startTime, Duration duration) {
+        return new Task(this.id, this.name, this.description, this.status, duration, startTime);
+    }
+
+    public Task withText(String name, CharSequence description) {
+        return new Task(this.id, name, description, this.status, this.durationMinutes, this.startMinute);
+    }
+
+    // same task with its name and description taken from the pool, this task when both are pooled already;
+    // lazy descriptions stay lazy
+    public Task withTextFrom(StringPool strings) {
+        String pooledName = strings.intern(name);
+        CharSequence pooledDescription = description instanceof String string ? strings.intern(string) : description;
+        return pooledName == name && pooledDescription == description ? this : withText(pooledName, pooledDescription);
     }
 
     // ----
@@ -54,19 +87,41 @@ public class Task {
     }
 
     public String getDescription() {
+        return description == null ? null : description.toString();
+    }
+
+    // description as it was passed in, may be resolved lazily on getDescription()
+    public CharSequence getRawDescription() {
         return description;
     }
 
     public Duration getDuration() {
-        return duration;
+        return Duration.ofMinutes(durationMinutes);
     }
 
     public LocalDateTime getStartTime() {
-        return startTime;
+        return EpochMinutes.toDateTime(startMinute);
     }
 
     public LocalDateTime getEndTime() {
-        return startTime.plus(duration);
+        return EpochMinutes.toDateTime(endMinute);
+    }
+
+    public boolean hasStartTime() {
+        return startMinute != EpochMinutes.NONE;
+    }
+
+    public long getDurationMinutes() {
+        return durationMinutes;
+    }
+
+    // EpochMinutes.NONE when the task has no start time
+    public long getStartMinute() {
+        return startMinute;
+    }
+
+    public long getEndMinute() {
+        return endMinute;
     }
 
     public boolean hasTimeConflictWith(Task otherTask) {
@@ -74,12 +129,12 @@ public class Task {
             return false; // allow update existing task
         }
 
-        LocalDateTime t1s = this.getStartTime();
-        LocalDateTime t1e = this.getEndTime();
-        LocalDateTime t2s = otherTask.getStartTime();
-        LocalDateTime t2e = otherTask.getEndTime();
-
-        return (t1s.isBefore(t2e) && t1e.isAfter(t2s)) || (t1e.isAfter(t2e) && t1s.isBefore(t2e));
+        if (!this.hasStartTime() || !otherTask.hasStartTime()) {
+            return false;
+        } else if (otherTask instanceof RecurringTask recurring) {
+            return recurring.hasTimeConflictWith(this);
+        }
+        return startMinute < otherTask.endMinute && endMinute > otherTask.startMinute;
     }
 
     @Override
@@ -88,7 +143,7 @@ public class Task {
         if (o == null || getClass() != o.getClass()) return false;
 
         Task task = (Task) o;
-        return id.equals(task.id);
+        return id == task.id;
     }
 
     @Override
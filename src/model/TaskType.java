@@ -3,5 +3,15 @@ package model;
 public enum TaskType {
     TASK,
     SUBTASK,
-    EPIC
+    EPIC,
+    RECURRING;
+
+    public static TaskType of(Task task) {
+        return switch (task) {
+            case Epic e -> EPIC;
+            case Subtask s -> SUBTASK;
+            case RecurringTask r -> RECURRING;
+            default -> TASK;
+        };
+    }
 }
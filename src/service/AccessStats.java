@@ -0,0 +1,80 @@
+package service;
+
+import util.CountMinSketch;
+import util.TopKTracker;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+// read counts per task id in fixed memory: a count-min sketch for estimates and a top-K heap of the hottest ids;
+// all counts are halved at the end of every window, so a count reflects recent windows more than old ones
+public class AccessStats {
+
+    public static final int DEFAULT_SKETCH_WIDTH = 4096;
+    public static final int DEFAULT_TOP_SIZE = 64;
+    public static final Duration DEFAULT_WINDOW = Duration.ofMinutes(10);
+
+    private static final int CLOCK_CHECK_MASK = 0xFF; // the clock is read once per 256 views
+
+    private final CountMinSketch sketch;
+    private final TopKTracker top;
+    private final long windowNanos;
+    private final LongSupplier nanoTime;
+    private long windowEnd;
+    private int views = 0;
+
+    public AccessStats() {
+        this(DEFAULT_SKETCH_WIDTH, DEFAULT_TOP_SIZE, DEFAULT_WINDOW);
+    }
+
+    public AccessStats(int sketchWidth, int topSize, Duration window) {
+        this(sketchWidth, topSize, window, System::nanoTime);
+    }
+
+    AccessStats(int sketchWidth, int topSize, Duration window, LongSupplier nanoTime) {
+        this.sketch = new CountMinSketch(sketchWidth);
+        this.top = new TopKTracker(topSize);
+        this.windowNanos = window.toNanos();
+        this.nanoTime = nanoTime;
+        this.windowEnd = nanoTime.getAsLong() + windowNanos;
+    }
+
+    public void record(int id) {
+        if ((++views & CLOCK_CHECK_MASK) == 0) {
+            rollWindow();
+        }
+        top.offer(id, sketch.increment(id));
+    }
+
+    // decayed estimate, never below the decayed true count
+    public int getCount(int id) {
+        return sketch.estimate(id);
+    }
+
+    // ids of the most read tasks, the hottest first; at most the configured top size
+    public int[] getHotIds(int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("Task count must not be negative");
+        }
+        rollWindow();
+        return top.top(k);
+    }
+
+    public void forget(int id) {
+        top.remove(id);
+    }
+
+    private void rollWindow() {
+        long now = nanoTime.getAsLong();
+        if (now - windowEnd < 0) {
+            return;
+        }
+        // idle windows count too, each one halves again
+        long elapsedWindows = (now - windowEnd) / windowNanos + 1;
+        for (long i = 0; i < Math.min(elapsedWindows, 32); i++) {
+            sketch.halve();
+            top.halve();
+        }
+        windowEnd += elapsedWindows * windowNanos;
+    }
+}
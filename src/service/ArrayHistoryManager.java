@@ -0,0 +1,169 @@
+package service;
+
+import model.Task;
+import util.IntIntMap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+// history kept in parallel arrays indexed by slot, links are slot numbers and freed slots are reused,
+// so viewing a task allocates nothing once the arrays have grown to the working set
+public class ArrayHistoryManager implements HistoryManager {
+
+    private static final int NIL = -1;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final int maxSize;
+    private final Consumer<? super Task> evictionListener;
+    private final IntIntMap slotsById;
+    private Task[] tasks;
+    private int[] prev;
+    private int[] next;
+    private int head = NIL;
+    private int tail = NIL;
+    private int freeSlots = NIL; // free slots are chained through next
+    private int usedSlots = 0;
+    private int size = 0;
+    private long evictionCount = 0;
+
+    public ArrayHistoryManager() {
+        this(InMemoryHistoryManager.DEFAULT_MAX_SIZE);
+    }
+
+    public ArrayHistoryManager(int maxSize) {
+        this(maxSize, task -> {
+        });
+    }
+
+    // the listener is called with every task dropped to keep the history within maxSize
+    public ArrayHistoryManager(int maxSize, Consumer<? super Task> evictionListener) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("History size must be positive");
+        }
+        this.maxSize = maxSize;
+        this.evictionListener = evictionListener;
+        int capacity = Math.min(maxSize, INITIAL_CAPACITY);
+        tasks = new Task[capacity];
+        prev = new int[capacity];
+        next = new int[capacity];
+        slotsById = new IntIntMap(capacity, NIL);
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        List<Task> history = new ArrayList<>(size);
+        for (int slot = head; slot != NIL; slot = next[slot]) {
+            history.add(tasks[slot]);
+        }
+        return history;
+    }
+
+    @Override
+    public void add(Task task) {
+        if (task == null) {
+            return;
+        }
+        int slot = slotsById.get(task.getId());
+        if (slot != NIL) {
+            tasks[slot] = task;
+            if (slot != tail) {
+                unlink(slot);
+                linkLast(slot);
+            }
+            return;
+        }
+
+        if (size == maxSize) {
+            evictEldest();
+        }
+        slot = allocate();
+        tasks[slot] = task;
+        linkLast(slot);
+        slotsById.put(task.getId(), slot);
+    }
+
+    @Override
+    public void remove(int id) {
+        int slot = slotsById.remove(id);
+        if (slot != NIL) {
+            unlink(slot);
+            release(slot);
+        }
+    }
+
+    @Override
+    public void remove(Iterable<Integer> ids) {
+        for (int id : ids) {
+            remove(id);
+        }
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    private void evictEldest() {
+        int slot = head;
+        Task eldest = tasks[slot];
+        slotsById.remove(eldest.getId());
+        unlink(slot);
+        release(slot);
+        evictionCount++;
+        evictionListener.accept(eldest);
+    }
+
+    // ---- slots ----
+
+    private int allocate() {
+        if (freeSlots != NIL) {
+            int slot = freeSlots;
+            freeSlots = next[slot];
+            return slot;
+        }
+        if (usedSlots == tasks.length) {
+            int capacity = (int) Math.min(maxSize, tasks.length * 2L);
+            tasks = Arrays.copyOf(tasks, capacity);
+            prev = Arrays.copyOf(prev, capacity);
+            next = Arrays.copyOf(next, capacity);
+        }
+        return usedSlots++;
+    }
+
+    private void release(int slot) {
+        tasks[slot] = null;
+        next[slot] = freeSlots;
+        freeSlots = slot;
+    }
+
+    private void linkLast(int slot) {
+        prev[slot] = tail;
+        next[slot] = NIL;
+        if (tail == NIL) {
+            head = slot;
+        } else {
+            next[tail] = slot;
+        }
+        tail = slot;
+        size++;
+    }
+
+    private void unlink(int slot) {
+        if (prev[slot] == NIL) {
+            head = next[slot];
+        } else {
+            next[prev[slot]] = next[slot];
+        }
+        if (next[slot] == NIL) {
+            tail = prev[slot];
+        } else {
+            prev[next[slot]] = prev[slot];
+        }
+        size--;
+    }
+}
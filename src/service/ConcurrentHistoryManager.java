@@ -0,0 +1,165 @@
+package service;
+
+import model.Task;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+// thread-safe decorator: views are stamped and parked in striped buffers, so concurrent request threads
+// rarely meet on one lock; buffers are drained into the wrapped history in stamp order under a single lock,
+// before every read or removal and whenever a buffer fills up
+public class ConcurrentHistoryManager implements HistoryManager {
+
+    private static final int BUFFER_SIZE = 32;
+
+    private static final class Buffer {
+        final Task[] tasks = new Task[BUFFER_SIZE];
+        final long[] stamps = new long[BUFFER_SIZE];
+        int count = 0;
+    }
+
+    private final HistoryManager history;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final AtomicLong sequence = new AtomicLong();
+    private final Buffer[] buffers;
+    private final int stripeMask;
+    // drain scratch, guarded by lock
+    private final Task[] pendingTasks;
+    private final long[] pendingKeys;
+
+    public ConcurrentHistoryManager(HistoryManager history) {
+        this(history, Runtime.getRuntime().availableProcessors() * 2);
+    }
+
+    public ConcurrentHistoryManager(HistoryManager history, int stripes) {
+        if (stripes <= 0) {
+            throw new IllegalArgumentException("Stripe count must be positive");
+        }
+        this.history = history;
+        int stripeCount = 1;
+        while (stripeCount < stripes) {
+            stripeCount <<= 1;
+        }
+        this.buffers = new Buffer[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            buffers[i] = new Buffer();
+        }
+        this.stripeMask = stripeCount - 1;
+        this.pendingTasks = new Task[stripeCount * BUFFER_SIZE];
+        this.pendingKeys = new long[stripeCount * BUFFER_SIZE];
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        lock.lock();
+        try {
+            drain();
+            return history.getHistory();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void add(Task task) {
+        if (task == null) {
+            return;
+        }
+        Buffer buffer = buffers[stripeOf(Thread.currentThread())];
+        boolean full;
+        while (true) {
+            synchronized (buffer) {
+                if (buffer.count < BUFFER_SIZE) {
+                    buffer.stamps[buffer.count] = sequence.getAndIncrement();
+                    buffer.tasks[buffer.count++] = task;
+                    full = buffer.count == BUFFER_SIZE;
+                    break;
+                }
+            }
+            // another thread filled the buffer and has not drained it yet
+            lock.lock();
+            try {
+                drain();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        if (full && lock.tryLock()) {
+            try {
+                drain();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    @Override
+    public void remove(int id) {
+        lock.lock();
+        try {
+            drain();
+            history.remove(id);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void remove(Iterable<Integer> ids) {
+        lock.lock();
+        try {
+            drain();
+            history.remove(ids);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int stripeOf(Thread thread) {
+        int hash = (int) thread.threadId() * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & stripeMask;
+    }
+
+    // caller holds lock; stamps below the watermark read at the start were all taken inside their buffer's
+    // monitor, so each is visible once that buffer is visited and nothing earlier can still arrive, views
+    // stamped later stay in their buffers for the next drain and the history only ever grows by a prefix
+    private void drain() {
+        long watermark = sequence.get();
+        int count = 0;
+        long minStamp = Long.MAX_VALUE;
+        for (Buffer buffer : buffers) {
+            synchronized (buffer) {
+                int kept = 0;
+                for (int i = 0; i < buffer.count; i++) {
+                    if (buffer.stamps[i] >= watermark) {
+                        buffer.stamps[kept] = buffer.stamps[i];
+                        buffer.tasks[kept++] = buffer.tasks[i];
+                        continue;
+                    }
+                    pendingTasks[count] = buffer.tasks[i];
+                    pendingKeys[count++] = buffer.stamps[i];
+                    minStamp = Math.min(minStamp, buffer.stamps[i]);
+                }
+                Arrays.fill(buffer.tasks, kept, buffer.count, null);
+                buffer.count = kept;
+            }
+        }
+        if (count == 0) {
+            return;
+        }
+
+        // pending stamps lie within a few buffers' worth of each other, the offset fits the upper half
+        for (int i = 0; i < count; i++) {
+            pendingKeys[i] = (pendingKeys[i] - minStamp) << 32 | i;
+        }
+        Arrays.sort(pendingKeys, 0, count);
+        for (int i = 0; i < count; i++) {
+            int index = (int) pendingKeys[i];
+            history.add(pendingTasks[index]);
+        }
+        Arrays.fill(pendingTasks, 0, count, null);
+    }
+}
@@ -0,0 +1,114 @@
+package service;
+
+import model.Task;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+// all overlapping pairs of timed tasks in one sort and one sweep: tasks come in (start, id) order and meet
+// only those still running, so the work is O(n log n + k) for k pairs; the sorted tasks are cut into
+// partitions swept in parallel, each starting with the earlier tasks still running at its first start
+public class ConflictSweep {
+
+    private static final int MIN_PARTITION_SIZE = 4096;
+    private static final Comparator<Task> SWEEP_ORDER =
+            Comparator.comparingLong(Task::getStartMinute).thenComparingInt(Task::getId);
+    private static final Comparator<Task> END_ORDER = Comparator.comparingLong(Task::getEndMinute);
+
+    // first comes before second in (start, id) order
+    public record Conflict(Task first, Task second) {
+    }
+
+    private final Task[] sorted;
+    private final long[] maxEnds; // latest end among sorted[0..i]
+
+    // tasks without a start time are ignored
+    public ConflictSweep(List<? extends Task> tasks) {
+        sorted = tasks.stream().filter(Task::hasStartTime).sorted(SWEEP_ORDER).toArray(Task[]::new);
+        maxEnds = new long[sorted.length];
+        long maxEnd = Long.MIN_VALUE;
+        for (int i = 0; i < sorted.length; i++) {
+            maxEnd = Math.max(maxEnd, sorted[i].getEndMinute());
+            maxEnds[i] = maxEnd;
+        }
+    }
+
+    // pairs are produced while the stream is consumed, partition by partition
+    public Stream<Conflict> conflicts() {
+        int partitionSize = Math.max(MIN_PARTITION_SIZE,
+                sorted.length / (ForkJoinPool.getCommonPoolParallelism() * 4) + 1);
+        int partitions = (sorted.length + partitionSize - 1) / partitionSize;
+        return IntStream.range(0, partitions).parallel().boxed().flatMap(partition -> {
+            int from = partition * partitionSize;
+            Iterator<Conflict> sweep = new Sweep(from, Math.min(from + partitionSize, sorted.length));
+            return StreamSupport.stream(
+                    Spliterators.spliteratorUnknownSize(sweep, Spliterator.ORDERED | Spliterator.NONNULL), false);
+        });
+    }
+
+    // pairs whose second task lies in [from, to)
+    private class Sweep implements Iterator<Conflict> {
+
+        private final PriorityQueue<Task> running = new PriorityQueue<>(END_ORDER);
+        private final List<Conflict> pending = new ArrayList<>();
+        private final int to;
+        private int next;
+        private int pendingIndex = 0;
+
+        Sweep(int from, int to) {
+            this.to = to;
+            this.next = from;
+            // the boundary: earlier tasks ending after the first start of the partition
+            if (from < to) {
+                long firstStart = sorted[from].getStartMinute();
+                for (int i = from - 1; i >= 0 && maxEnds[i] > firstStart; i--) {
+                    if (sorted[i].getEndMinute() > firstStart) {
+                        running.add(sorted[i]);
+                    }
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (pendingIndex == pending.size() && next < to) {
+                pending.clear();
+                pendingIndex = 0;
+                advance(sorted[next++]);
+            }
+            return pendingIndex < pending.size();
+        }
+
+        @Override
+        public Conflict next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return pending.get(pendingIndex++);
+        }
+
+        private void advance(Task task) {
+            long start = task.getStartMinute();
+            while (!running.isEmpty() && running.peek().getEndMinute() <= start) {
+                running.poll();
+            }
+            // every running task overlaps, except at an equal start with a zero length task
+            for (Task other : running) {
+                if (task.getEndMinute() > other.getStartMinute()) {
+                    pending.add(new Conflict(other, task));
+                }
+            }
+            running.add(task);
+        }
+    }
+}
@@ -0,0 +1,307 @@
+package service;
+
+import model.Task;
+import model.TaskStatus;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+// "blocks / blocked by" edges between tasks with a topological order kept up to date on insert
+// (Pearce-Kelly: only nodes between the two ends of a backward edge are visited and reordered);
+// earliest starts follow from durations along the edges and are pushed forward in that order together
+// with the blocker each one comes from, blocked and ready ids are kept in sets as statuses and edges change
+public class DependencyGraph {
+
+    private static final class Node {
+        final int id;
+        final Set<Node> blockers = new LinkedHashSet<>();
+        final Set<Node> blocked = new LinkedHashSet<>();
+        int order;
+        long durationMinutes;
+        boolean done;
+        int pendingBlockers = 0;
+        long earliestStartMinutes = 0;
+        Node critical; // blocker finishing last, null without blockers
+        boolean visited = false;
+
+        Node(int id) {
+            this.id = id;
+        }
+
+        long finishMinutes() {
+            return earliestStartMinutes + durationMinutes;
+        }
+    }
+
+    private static final Comparator<Node> TOPOLOGICAL = Comparator.comparingInt(node -> node.order);
+
+    private final Map<Integer, Node> nodes = new HashMap<>();
+    private final Set<Integer> blockedIds = new LinkedHashSet<>();
+    private final Set<Integer> readyIds = new LinkedHashSet<>();
+    private int firstOrder = 0;
+    private int lastOrder = 0;
+
+    // false when the edge would close a cycle, the graph is left unchanged then
+    public boolean addEdge(Task blocker, Task blocked) {
+        if (blocker.getId() == blocked.getId()) {
+            return false;
+        }
+        Node from = nodes.get(blocker.getId());
+        Node to = nodes.get(blocked.getId());
+        if (from != null && to != null) {
+            if (from.blocked.contains(to)) {
+                return true;
+            } else if (to.order < from.order && !reorder(from, to)) {
+                return false;
+            }
+        }
+        // a new blocker goes before all nodes and a new blocked task after them, so the order holds
+        from = from != null ? from : track(blocker, --firstOrder);
+        to = to != null ? to : track(blocked, ++lastOrder);
+
+        from.blocked.add(to);
+        to.blockers.add(from);
+        if (!from.done) {
+            to.pendingBlockers++;
+        }
+        classify(to);
+        propagate(List.of(to));
+        return true;
+    }
+
+    public void removeEdge(int blockerId, int blockedId) {
+        Node from = nodes.get(blockerId);
+        Node to = nodes.get(blockedId);
+        if (from == null || to == null || !from.blocked.remove(to)) {
+            return;
+        }
+        to.blockers.remove(from);
+        if (!from.done) {
+            to.pendingBlockers--;
+        }
+        classify(to);
+        propagate(List.of(to));
+        dropIfIsolated(from);
+        dropIfIsolated(to);
+    }
+
+    // takes over duration and status of a tracked task, untracked tasks are ignored
+    public void update(Task task) {
+        Node node = nodes.get(task.getId());
+        if (node == null) {
+            return;
+        }
+        boolean done = task.getStatus() == TaskStatus.DONE;
+        if (done != node.done) {
+            node.done = done;
+            for (Node next : node.blocked) {
+                next.pendingBlockers += done ? -1 : 1;
+                classify(next);
+            }
+            classify(node);
+        }
+        if (task.getDurationMinutes() != node.durationMinutes) {
+            node.durationMinutes = task.getDurationMinutes();
+            propagate(node.blocked);
+        }
+    }
+
+    public void remove(int id) {
+        Node node = nodes.remove(id);
+        if (node == null) {
+            return;
+        }
+        blockedIds.remove(id);
+        readyIds.remove(id);
+        for (Node previous : node.blockers) {
+            previous.blocked.remove(node);
+            dropIfIsolated(previous);
+        }
+        for (Node next : node.blocked) {
+            next.blockers.remove(node);
+            if (!node.done) {
+                next.pendingBlockers--;
+                classify(next);
+            }
+        }
+        propagate(node.blocked);
+        node.blocked.forEach(this::dropIfIsolated);
+    }
+
+    public boolean contains(int id) {
+        return nodes.containsKey(id);
+    }
+
+    public List<Integer> getBlockerIds(int id) {
+        Node node = nodes.get(id);
+        return node == null ? List.of() : node.blockers.stream().map(blocker -> blocker.id).toList();
+    }
+
+    // not done tasks with an unfinished blocker
+    public Set<Integer> getBlockedIds() {
+        return Collections.unmodifiableSet(blockedIds);
+    }
+
+    // not done tasks with dependencies whose blockers are all done
+    public Set<Integer> getReadyIds() {
+        return Collections.unmodifiableSet(readyIds);
+    }
+
+    // longest chain of blocker durations before the task, 0 for untracked ones
+    public long getEarliestStartMinutes(int id) {
+        Node node = nodes.get(id);
+        return node == null ? 0 : node.earliestStartMinutes;
+    }
+
+    // the task's blockers back along the blocker finishing last each time, first to start comes first;
+    // the task ends the list, empty for untracked ones
+    public List<Integer> getCriticalChain(int id) {
+        Node node = nodes.get(id);
+        if (node == null) {
+            return List.of();
+        }
+        List<Integer> chain = new ArrayList<>();
+        for (; node != null; node = node.critical) {
+            chain.add(node.id);
+        }
+        Collections.reverse(chain);
+        return chain;
+    }
+
+    // earliest start plus duration, the duration alone for untracked tasks
+    public long getFinishMinutes(int id, long durationMinutes) {
+        Node node = nodes.get(id);
+        return node == null ? durationMinutes : node.finishMinutes();
+    }
+
+    // ----
+
+    private Node track(Task task, int order) {
+        Node node = new Node(task.getId());
+        node.order = order;
+        node.durationMinutes = task.getDurationMinutes();
+        node.done = task.getStatus() == TaskStatus.DONE;
+        nodes.put(node.id, node);
+        classify(node);
+        return node;
+    }
+
+    private void dropIfIsolated(Node node) {
+        if (node.blockers.isEmpty() && node.blocked.isEmpty()) {
+            nodes.remove(node.id);
+            blockedIds.remove(node.id);
+            readyIds.remove(node.id);
+        }
+    }
+
+    private void classify(Node node) {
+        blockedIds.remove(node.id);
+        readyIds.remove(node.id);
+        if (!node.done) {
+            (node.pendingBlockers > 0 ? blockedIds : readyIds).add(node.id);
+        }
+    }
+
+    // from -> to is about to be added while to comes first; nodes reachable from to that come before from
+    // and nodes reaching from that come after to swap into the order slots they occupy together
+    private boolean reorder(Node from, Node to) {
+        int lowerBound = to.order;
+        int upperBound = from.order;
+
+        List<Node> forward = new ArrayList<>();
+        ArrayDeque<Node> stack = new ArrayDeque<>();
+        stack.push(to);
+        to.visited = true;
+        while (!stack.isEmpty()) {
+            Node node = stack.pop();
+            forward.add(node);
+            for (Node next : node.blocked) {
+                if (next == from) {
+                    forward.forEach(visited -> visited.visited = false);
+                    stack.forEach(pending -> pending.visited = false);
+                    return false; // from is reachable from to
+                } else if (!next.visited && next.order < upperBound) {
+                    next.visited = true;
+                    stack.push(next);
+                }
+            }
+        }
+
+        List<Node> backward = new ArrayList<>();
+        stack.push(from);
+        from.visited = true;
+        while (!stack.isEmpty()) {
+            Node node = stack.pop();
+            backward.add(node);
+            for (Node previous : node.blockers) {
+                if (!previous.visited && previous.order > lowerBound) {
+                    previous.visited = true;
+                    stack.push(previous);
+                }
+            }
+        }
+
+        forward.sort(TOPOLOGICAL);
+        backward.sort(TOPOLOGICAL);
+        List<Node> moved = new ArrayList<>(backward.size() + forward.size());
+        moved.addAll(backward);
+        moved.addAll(forward);
+        int[] slots = new int[moved.size()];
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = moved.get(i).order;
+        }
+        Arrays.sort(slots);
+        for (int i = 0; i < slots.length; i++) {
+            Node node = moved.get(i);
+            node.order = slots[i];
+            node.visited = false;
+        }
+        return true;
+    }
+
+    // recomputes earliest starts and critical blockers of the given nodes and of everything after them
+    // whose start changes, each node once and in topological order
+    private void propagate(Collection<Node> changed) {
+        if (changed.isEmpty()) {
+            return;
+        }
+        PriorityQueue<Node> queue = new PriorityQueue<>(TOPOLOGICAL);
+        Set<Node> queued = Collections.newSetFromMap(new HashMap<>());
+        for (Node node : changed) {
+            if (queued.add(node)) {
+                queue.add(node);
+            }
+        }
+        while (!queue.isEmpty()) {
+            Node node = queue.poll();
+            queued.remove(node);
+            long earliestStart = 0;
+            Node critical = null;
+            for (Node previous : node.blockers) {
+                if (critical == null || previous.finishMinutes() > earliestStart) {
+                    earliestStart = previous.finishMinutes();
+                    critical = previous;
+                }
+            }
+            node.critical = critical;
+            if (earliestStart != node.earliestStartMinutes) {
+                node.earliestStartMinutes = earliestStart;
+                for (Node next : node.blocked) {
+                    if (queued.add(next)) {
+                        queue.add(next);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -6,9 +6,12 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 public class InMemoryHistoryManager implements HistoryManager {
 
+    public static final int DEFAULT_MAX_SIZE = 10_000;
+
     private static class Node<T> {
         public Node<T> prev;
         public Node<T> next;
@@ -22,9 +25,30 @@ public class InMemoryHistoryManager implements HistoryManager {
     private Node<Task> head;
     private Node<Task> tail;
     private int size = 0;
+    private long evictionCount = 0;
 
+    private final int maxSize;
+    private final Consumer<? super Task> evictionListener;
     private final Map<Integer, Node<Task>> nodesById = new HashMap<>();
 
+    public InMemoryHistoryManager() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    public InMemoryHistoryManager(int maxSize) {
+        this(maxSize, task -> {
+        });
+    }
+
+    // the listener is called with every task dropped to keep the history within maxSize
+    public InMemoryHistoryManager(int maxSize, Consumer<? super Task> evictionListener) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("History size must be positive");
+        }
+        this.maxSize = maxSize;
+        this.evictionListener = evictionListener;
+    }
+
     @Override
     public List<Task> getHistory() {
         return getTasks();
@@ -35,19 +59,29 @@ public class InMemoryHistoryManager implements HistoryManager {
         if (task == null) {
             return;
         }
-        removeNode(nodesById.get(task.getId()));
-        linkLast(task);
-        size++;
+        Node<Task> node = nodesById.get(task.getId());
+        if (node != null) {
+            // viewed again, the node moves to the tail and is reused
+            unlink(node);
+            node.data = task;
+            linkLast(node);
+            return;
+        }
+
+        if (size == maxSize) {
+            evictEldest();
+        }
+        node = new Node<>(task);
+        linkLast(node);
+        nodesById.put(task.getId(), node);
     }
 
     @Override
     public void remove(int id) {
-        Node<Task> node = nodesById.get(id);
-        if (node == null) {
-            return;
+        Node<Task> node = nodesById.remove(id);
+        if (node != null) {
+            unlink(node);
         }
-        removeNode(node);
-        nodesById.remove(id);
     }
 
     @Override
@@ -57,40 +91,51 @@ public class InMemoryHistoryManager implements HistoryManager {
         }
     }
 
-    private void linkLast(Task task) {
-        Node<Task> node = new Node<>(task);
-        if (size == 0) {
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    private void evictEldest() {
+        Node<Task> eldest = head;
+        nodesById.remove(eldest.data.getId());
+        unlink(eldest);
+        evictionCount++;
+        evictionListener.accept(eldest.data);
+    }
+
+    private void linkLast(Node<Task> node) {
+        if (tail == null) {
             head = node;
         } else {
             node.prev = tail;
             tail.next = node;
         }
         tail = node;
-        nodesById.put(task.getId(), node);
+        size++;
     }
 
-    private void removeNode(Node<Task> node) {
-        if (node == null) {
-            return;
-        }
-        if (size == 1) {
-            head = null;
-            tail = null;
-        } else if (node == head) {
+    private void unlink(Node<Task> node) {
+        if (node.prev == null) {
             head = node.next;
-            head.prev = null;
-        } else if (node == tail) {
-            tail = node.prev;
-            tail.next = null;
         } else {
             node.prev.next = node.next;
+        }
+        if (node.next == null) {
+            tail = node.prev;
+        } else {
             node.next.prev = node.prev;
         }
+        node.prev = null;
+        node.next = null;
         size--;
     }
 
     private List<Task> getTasks() {
-        List<Task> tasksList = new ArrayList<>();
+        List<Task> tasksList = new ArrayList<>(size);
         Node<Task> nextNode = head;
         while (nextNode != null) {
             tasksList.add(nextNode.data);
@@ -98,4 +143,4 @@ public class InMemoryHistoryManager implements HistoryManager {
         }
         return tasksList;
     }
-}
\ No newline at end of file
+}
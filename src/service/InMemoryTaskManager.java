@@ -1,52 +1,132 @@
 package service;
 
 import model.Epic;
+import model.RecurringTask;
 import model.Subtask;
 import model.Task;
 import model.TaskStatus;
+import model.TaskType;
 import service.exception.InMemoryTaskManagerCreateException;
 import service.exception.InMemoryTaskManagerPutException;
+import service.store.HeapTaskStore;
+import service.store.IndexedTaskStore;
+import service.store.TaskColumns;
+import service.store.TaskIndex;
+import service.store.TaskStore;
+import util.EpochMinutes;
 import util.IdGenerator;
+import util.IntTrieSet;
+import util.PresortedSet;
+import util.StringPool;
 
 import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class InMemoryTaskManager implements TaskManager {
 
+    // bounds the search for a gap when recurring tasks leave none
+    private static final int MAX_RECURRING_MOVES = 100_000;
+    private static final Comparator<Task> START_TIME_ORDER = Timeline.START_TIME_ORDER;
+
+    private record PrioritizedSnapshot(long version, Set<Task> tasks) {
+    }
+
     private final IdGenerator idGen = new IdGenerator();
-    private final Map<Integer, Task> tasks = new HashMap<>();
-    private final Map<Integer, Subtask> subtasks = new HashMap<>();
-    private final Map<Integer, Epic> epics = new HashMap<>();
+    private final TaskStore store;
     private final HistoryManager historyManager;
-    private final Set<Task> prioritizedTasks = new TreeSet<>(Comparator.comparing(Task::getStartTime));
+    private final UserHistories userHistories;
+    private final AccessStats accessStats;
+    private final StringPool strings;
+    private final DependencyGraph dependencies = new DependencyGraph();
+    private final Timeline prioritizedTasks;
+    // immutable copy of the timeline, rebuilt on read once the timeline version has moved
+    private volatile PrioritizedSnapshot prioritizedSnapshot = new PrioritizedSnapshot(-1, Set.of());
+    private final Occupancy occupancy = new Occupancy();
+    // loaded or put tasks may overlap, then the timeline is scanned instead of walked from the running
+    // task; the sweep is redone once the timeline has changed, until the overlaps are gone
+    private boolean timelineOverlaps = false;
+    private long overlapsCheckedAt = -1;
+    // templates only, their occurrences are never materialized
+    private final Map<Integer, RecurringTask> recurringTasks = new LinkedHashMap<>();
 
     public InMemoryTaskManager(HistoryManager historyManager) {
+        this(historyManager, new HeapTaskStore());
+    }
+
+    // the store may already hold tasks, epics in it must list their subtask ids
+    public InMemoryTaskManager(HistoryManager historyManager, TaskStore store) {
+        this(historyManager, store, new UserHistories(), new AccessStats());
+    }
+
+    public InMemoryTaskManager(
+            HistoryManager historyManager,
+            TaskStore store,
+            UserHistories userHistories,
+            AccessStats accessStats
+    ) {
         this.historyManager = historyManager;
+        this.store = store;
+        this.userHistories = userHistories;
+        this.accessStats = accessStats;
+        this.strings = store.getStringPool();
+        this.prioritizedTasks = new Timeline(store::get);
+
+        List<Task> timed = store instanceof IndexedTaskStore indexed ? indexedOrder(indexed.loadedIndex()) : null;
+        loadPrioritizedTasks(timed != null ? timed : scannedOrder());
+        timelineOverlaps = prioritizedTasks.hasOverlaps();
+        overlapsCheckedAt = prioritizedTasks.getVersion();
+        store.scan(TaskType.RECURRING, task -> {
+            recurringTasks.put(task.getId(), (RecurringTask) task);
+            idGen.actualizeNextId(task.getId());
+        });
+        // edges left behind by an interrupted delete, or that no longer fit the graph, are skipped
+        store.scanDependencies((blockerId, blockedId) -> {
+            Task blocker = storedTimelineTask(blockerId);
+            Task blocked = storedTimelineTask(blockedId);
+            if (blocker != null && blocked != null) {
+                dependencies.addEdge(blocker, blocked);
+            }
+        });
     }
 
     // ---- tasks ----
 
     @Override
     public List<Task> getAllTasks() {
-        return new ArrayList<>(tasks.values());
+        return scan(TaskType.TASK);
     }
 
     @Override
     public void deleteAllTasks() {
-        historyManager.remove(tasks.keySet());
-        prioritizedTasks.removeAll(tasks.values());
-        tasks.clear();
+        List<Task> tasks = getAllTasks();
+        List<Integer> ids = tasks.stream().map(Task::getId).toList();
+        store.batch(() -> ids.forEach(store::delete));
+        forgetDeleted(ids);
+        prioritizedTasks.clear(TaskType.TASK);
+        tasks.forEach(occupancy::remove);
     }
 
     @Override
     public Task getTaskById(int id) {
-        Task task = tasks.get(id);
+        Task task = storedTask(id);
         if (task == null) {
             return null;
         }
-        historyManager.add(Task.copyOf(task));
+        accessStats.record(id);
+        historyManager.add(task);
+        return task;
+    }
+
+    @Override
+    public Task getTaskById(int id, String userId) {
+        Task task = storedTask(id);
+        if (task != null) {
+            accessStats.record(id);
+        }
+        userHistories.add(userId, task);
         return task;
     }
 
@@ -57,12 +137,15 @@ public class InMemoryTaskManager implements TaskManager {
         } else if (isTaskTimeOverlapping(task)) {
             throw new InMemoryTaskManagerCreateException("Task is overlapping");
         }
+        return addTask(task);
+    }
 
+    private int addTask(Task task) {
         int id = idGen.getNewId();
-        Task taskWithId = task.withId(id);
+        Task taskWithId = pooled(task.withId(id));
 
-        tasks.put(id, taskWithId);
         addToPrioritizedTasks(taskWithId);
+        store.put(taskWithId);
 
         return id; // return id for testing convenience
     }
@@ -72,12 +155,12 @@ public class InMemoryTaskManager implements TaskManager {
             throw new InMemoryTaskManagerPutException("Task is null");
         } else if (task.getId() == 0) {
             throw new InMemoryTaskManagerPutException("No id assigned to task");
-        } else if (tasks.containsKey(task.getId())) {
+        } else if (storedTask(task.getId()) != null) {
             throw new InMemoryTaskManagerPutException("Task already exists");
         }
 
-        tasks.put(task.getId(), task);
-        addToPrioritizedTasks(task);
+        putInPrioritizedTasks(task);
+        store.put(task);
 
         idGen.actualizeNextId(task.getId());
     }
@@ -90,51 +173,69 @@ public class InMemoryTaskManager implements TaskManager {
             throw new InMemoryTaskManagerCreateException("Task is overlapping");
         }
 
-        if (tasks.containsValue(task)) {
-            tasks.put(task.getId(), task);
-            addToPrioritizedTasks(task);
+        Task stored = TaskType.of(task) == TaskType.TASK ? storedTask(task.getId()) : null;
+        if (stored != null) {
+            replaceInPrioritizedTasks(stored, task);
+            store.put(task);
+            dependencies.update(task);
         }
     }
 
     @Override
     public void deleteTask(int id) {
-        prioritizedTasks.remove(tasks.get(id));
-        tasks.remove(id);
-        historyManager.remove(id);
+        Task task = storedTask(id);
+        if (task != null) {
+            removeFromPrioritizedTasks(task);
+            store.delete(id);
+            forgetDeleted(id);
+        }
     }
 
     // ---- subtasks ----
 
     @Override
     public List<Subtask> getAllSubtasks() {
-        return new ArrayList<>(subtasks.values());
+        return scan(TaskType.SUBTASK);
     }
 
     @Override
     public void deleteAllSubtasks() {
-        List<Epic> epics = getAllEpics();
-        for (Epic epic : epics) {
-            epic.removeAllSubtaskIds();
-            updateEpicStatus(epic.getId());
-            updateEpicTemporal(epic.getId());
-        }
+        List<Subtask> subtasks = getAllSubtasks();
+        List<Integer> ids = subtasks.stream().map(Task::getId).toList();
+        store.batch(() -> {
+            for (Epic epic : getAllEpics()) {
+                refreshEpic(epic.withSubtaskIds(IntTrieSet.empty()));
+            }
+            ids.forEach(store::delete);
+        });
 
-        historyManager.remove(subtasks.keySet());
-        prioritizedTasks.removeAll(subtasks.values());
-        subtasks.clear();
+        forgetDeleted(ids);
+        prioritizedTasks.clear(TaskType.SUBTASK);
+        subtasks.forEach(occupancy::remove);
     }
 
     @Override
     public Subtask getSubtaskById(int id) {
-        Subtask subtask = subtasks.get(id);
+        Subtask subtask = storedSubtask(id);
         if (subtask != null) {
-            historyManager.add(Subtask.copyOf(subtask));
+            accessStats.record(id);
+            historyManager.add(subtask);
             return subtask;
         }
 
         return null;
     }
 
+    @Override
+    public Subtask getSubtaskById(int id, String userId) {
+        Subtask subtask = storedSubtask(id);
+        if (subtask != null) {
+            accessStats.record(id);
+        }
+        userHistories.add(userId, subtask);
+        return subtask;
+    }
+
     @Override
     public Integer createSubtask(Subtask subtask) {
         if (subtask == null) {
@@ -142,19 +243,20 @@ public class InMemoryTaskManager implements TaskManager {
         } else if (isTaskTimeOverlapping(subtask)) {
             throw new InMemoryTaskManagerCreateException("Subtask is overlapping");
         }
+        return addSubtask(subtask);
+    }
 
-        int epicId = subtask.getEpicId();
-        Epic epic = epics.get(epicId);
+    private Integer addSubtask(Subtask subtask) {
+        Epic epic = storedEpic(subtask.getEpicId());
         if (epic != null) {
             int id = idGen.getNewId();
-            Subtask subtaskWithId = subtask.withId(id);
+            Subtask subtaskWithId = pooled(subtask.withId(id));
 
-            subtasks.put(id, subtaskWithId);
             addToPrioritizedTasks(subtaskWithId);
-
-            epic.addSubtaskId(id);
-            updateEpicStatus(epicId);
-            updateEpicTemporal(epicId);
+            store.batch(() -> {
+                store.put(subtaskWithId);
+                refreshEpic(epic.withSubtaskId(id));
+            });
 
             return id;
         }
@@ -167,14 +269,18 @@ public class InMemoryTaskManager implements TaskManager {
             throw new InMemoryTaskManagerPutException("Subtask is null");
         } else if (subtask.getId() == 0) {
             throw new InMemoryTaskManagerPutException("No id assigned to subtask");
-        } else if (!epics.containsKey(subtask.getEpicId())) {
+        }
+        Epic epic = storedEpic(subtask.getEpicId());
+        if (epic == null) {
             throw new InMemoryTaskManagerPutException("No epic for subtask found");
         }
 
-        subtasks.put(subtask.getId(), subtask);
-        addToPrioritizedTasks(subtask);
+        putInPrioritizedTasks(subtask);
+        store.batch(() -> {
+            store.put(subtask);
+            store.put(epic.withSubtaskId(subtask.getId()));
+        });
 
-        epics.get(subtask.getEpicId()).addSubtaskId(subtask.getId());
         idGen.actualizeNextId(subtask.getId());
     }
 
@@ -187,27 +293,33 @@ public class InMemoryTaskManager implements TaskManager {
         }
 
         int id = subtask.getId();
-        if (subtasks.containsKey(id)) {
-            subtasks.put(id, subtask);
-            addToPrioritizedTasks(subtask);
-
-            updateEpicStatus(subtask.getEpicId());
-            updateEpicTemporal(subtask.getEpicId());
+        Subtask stored = storedSubtask(id);
+        Epic epic = storedEpic(subtask.getEpicId());
+        if (stored != null && epic != null) {
+            replaceInPrioritizedTasks(stored, subtask);
+            store.batch(() -> {
+                store.put(subtask);
+                if (stored.getEpicId() != subtask.getEpicId()) {
+                    refreshEpic(storedEpic(stored.getEpicId()).withoutSubtaskId(id));
+                    refreshEpic(epic.withSubtaskId(id));
+                } else {
+                    refreshEpic(epic);
+                }
+            });
+            dependencies.update(subtask);
         }
     }
 
     @Override
     public void deleteSubtask(int id) {
-        Subtask subtask = subtasks.get(id);
+        Subtask subtask = storedSubtask(id);
         if (subtask != null) {
-            subtasks.remove(id);
-            historyManager.remove(id);
-            prioritizedTasks.remove(subtask);
-
-            Epic epic = epics.get(subtask.getEpicId());
-            epic.removeSubtaskId(id);
-            updateEpicStatus(epic.getId());
-            updateEpicTemporal(epic.getId());
+            store.batch(() -> {
+                store.delete(id);
+                refreshEpic(storedEpic(subtask.getEpicId()).withoutSubtaskId(id));
+            });
+            forgetDeleted(id);
+            removeFromPrioritizedTasks(subtask);
         }
     }
 
@@ -215,32 +327,51 @@ public class InMemoryTaskManager implements TaskManager {
 
     @Override
     public List<Epic> getAllEpics() {
-        return new ArrayList<>(epics.values());
+        return scan(TaskType.EPIC);
     }
 
     @Override
     public void deleteAllEpics() {
-        prioritizedTasks.removeAll(subtasks.values());
-        historyManager.remove(subtasks.keySet());
-        historyManager.remove(epics.keySet());
-        subtasks.clear();
-        epics.clear();
+        List<Subtask> subtasks = getAllSubtasks();
+        List<Integer> subtaskIds = subtasks.stream().map(Task::getId).toList();
+        List<Integer> epicIds = getAllEpics().stream().map(Task::getId).toList();
+        store.batch(() -> {
+            subtaskIds.forEach(store::delete);
+            epicIds.forEach(store::delete);
+        });
+
+        prioritizedTasks.clear(TaskType.SUBTASK);
+        subtasks.forEach(occupancy::remove);
+        forgetDeleted(subtaskIds);
+        forgetDeleted(epicIds);
     }
 
     @Override
     public Epic getEpicById(int id) {
-        Epic epic = epics.get(id);
+        Epic epic = storedEpic(id);
         if (epic == null) {
             return null;
         }
-        historyManager.add(Epic.copyOf(epic));
+        accessStats.record(id);
+        historyManager.add(epic);
+        return epic;
+    }
+
+    @Override
+    public Epic getEpicById(int id, String userId) {
+        Epic epic = storedEpic(id);
+        if (epic != null) {
+            accessStats.record(id);
+        }
+        userHistories.add(userId, epic);
         return epic;
     }
 
     @Override
     public Integer createEpic(Epic epic) {
         int id = idGen.getNewId();
-        epics.put(id, Epic.copyOf(epic).withId(id));
+        // subtasks are linked by creating them
+        store.put(pooled(epic.withId(id).withSubtaskIds(IntTrieSet.empty())));
         return id;
     }
 
@@ -249,95 +380,524 @@ public class InMemoryTaskManager implements TaskManager {
             throw new InMemoryTaskManagerPutException("Epic is null");
         } else if (epic.getId() == 0) {
             throw new InMemoryTaskManagerPutException("No id assigned to epic");
-        } else if (epics.containsKey(epic.getId())) {
+        } else if (storedEpic(epic.getId()) != null) {
             throw new InMemoryTaskManagerPutException("Epic already exists");
         }
 
-        epics.put(epic.getId(), epic);
+        store.put(epic);
         idGen.actualizeNextId(epic.getId());
     }
 
     @Override
     public void updateEpic(Epic epic) {
-        int id = epic.getId();
-        if (epics.containsKey(id)) {
-            epics.put(id, Epic.copyOf(epic));
-            updateEpicStatus(id);
-            updateEpicTemporal(id);
+        Epic stored = storedEpic(epic.getId());
+        if (stored != null) {
+            refreshEpic(epic.withSubtaskIds(stored.getSubtaskIdSet()));
         }
     }
 
     @Override
     public void deleteEpic(int id) {
-        Epic epic = epics.get(id);
+        Epic epic = storedEpic(id);
         if (epic != null) {
             List<Integer> subtaskIds = epic.getSubtaskIds();
-            for (int subtaskId : subtaskIds) {
-                prioritizedTasks.remove(subtasks.get(subtaskId));
-                subtasks.remove(subtaskId);
-            }
-            historyManager.remove(subtaskIds);
-            historyManager.remove(id);
-            epics.remove(id);
+            store.batch(() -> {
+                for (int subtaskId : subtaskIds) {
+                    Subtask subtask = storedSubtask(subtaskId);
+                    if (subtask != null) {
+                        removeFromPrioritizedTasks(subtask);
+                        store.delete(subtaskId);
+                    }
+                }
+                store.delete(id);
+            });
+            forgetDeleted(subtaskIds);
+            forgetDeleted(id);
         }
     }
 
     @Override
     public List<Subtask> getEpicSubtasks(int epicId) {
-        return subtasks.values().stream()
-                .filter(subtask -> subtask.getEpicId() == epicId)
-                .collect(Collectors.toList());
+        Epic epic = storedEpic(epicId);
+        return epic == null ? new ArrayList<>() : subtasksOf(epic);
     }
 
-    private void updateEpicStatus(int epicId) {
-        Epic epic = epics.get(epicId);
-        List<Subtask> epicSubtasks = getEpicSubtasks(epicId);
+    private List<Subtask> subtasksOf(Epic epic) {
+        List<Subtask> epicSubtasks = new ArrayList<>(epic.getSubtaskIdSet().size());
+        epic.getSubtaskIdSet().forEach(subtaskId -> {
+            Subtask subtask = storedSubtask(subtaskId);
+            if (subtask != null && subtask.getEpicId() == epic.getId()) {
+                epicSubtasks.add(subtask);
+            }
+        });
+        return epicSubtasks;
+    }
 
-        TaskStatus currentStatus = TaskStatus.NEW;
-        if (!epicSubtasks.isEmpty()) {
-            boolean allNew = true;
-            boolean allDone = true;
+    // status and time frame of an epic follow from its subtasks, computed in one pass; a store keeping
+    // columns is read field by field, no subtask is decoded
+    private void refreshEpic(Epic epic) {
+        EpicRollup rollup = new EpicRollup();
+        if (store instanceof TaskColumns columns) {
+            epic.getSubtaskIdSet().forEach(subtaskId -> {
+                if (columns.getType(subtaskId) == TaskType.SUBTASK && columns.getEpicId(subtaskId) == epic.getId()) {
+                    rollup.add(columns.getStatus(subtaskId), columns.getDurationMinutes(subtaskId),
+                            columns.getStartMinute(subtaskId), columns.getEndMinute(subtaskId));
+                }
+            });
+        } else {
+            for (Subtask subtask : subtasksOf(epic)) {
+                rollup.add(subtask.getStatus(), subtask.getDurationMinutes(),
+                        subtask.getStartMinute(), subtask.getEndMinute());
+            }
+        }
+        store.put(epic.withStatus(rollup.status())
+                .withTemporal(rollup.startMinute, rollup.endMinute, rollup.durationMinutes));
+    }
 
-            for (Subtask subtask : epicSubtasks) {
-                TaskStatus subtaskStatus = subtask.getStatus();
-                if (allNew && subtaskStatus != TaskStatus.NEW) allNew = false;
-                if (allDone && subtaskStatus != TaskStatus.DONE) allDone = false;
-                if (!allNew && !allDone) break;
+    private static class EpicRollup {
+        int count = 0;
+        boolean allNew = true;
+        boolean allDone = true;
+        long startMinute = EpochMinutes.NONE;
+        long endMinute = EpochMinutes.NONE;
+        long durationMinutes = 0;
+
+        void add(TaskStatus status, long duration, long start, long end) {
+            count++;
+            if (status != TaskStatus.NEW) allNew = false;
+            if (status != TaskStatus.DONE) allDone = false;
+
+            durationMinutes += duration;
+            if (start != EpochMinutes.NONE) {
+                if (startMinute == EpochMinutes.NONE || start < startMinute) {
+                    startMinute = start;
+                }
+                if (endMinute == EpochMinutes.NONE || end > endMinute) {
+                    endMinute = end;
+                }
             }
+        }
 
-            if (allDone) {
-                currentStatus = TaskStatus.DONE;
-            } else if (!allNew) {
-                currentStatus = TaskStatus.IN_PROGRESS;
+        TaskStatus status() {
+            if (count == 0 || allNew) {
+                return TaskStatus.NEW;
             }
+            return allDone ? TaskStatus.DONE : TaskStatus.IN_PROGRESS;
         }
+    }
 
-        epics.put(epicId, epic.withStatus(currentStatus));
+    // ---- recurring tasks ----
+
+    @Override
+    public List<RecurringTask> getAllRecurringTasks() {
+        return new ArrayList<>(recurringTasks.values());
     }
 
-    private void updateEpicTemporal(int epicId) {
-        Epic epic = epics.get(epicId);
-        List<Subtask> epicSubtasks = getEpicSubtasks(epicId);
+    @Override
+    public RecurringTask getRecurringTaskById(int id) {
+        RecurringTask task = recurringTasks.get(id);
+        if (task == null) {
+            return null;
+        }
+        accessStats.record(id);
+        historyManager.add(task);
+        return task;
+    }
 
-        // find min start time
-        Optional<LocalDateTime> startTime = epicSubtasks.stream()
-                .map(Task::getStartTime)
-                .min(LocalDateTime::compareTo);
+    @Override
+    public Integer createRecurringTask(RecurringTask task) {
+        if (task == null) {
+            throw new InMemoryTaskManagerCreateException("Recurring task is null");
+        } else if (isTaskTimeOverlapping(task)) {
+            throw new InMemoryTaskManagerCreateException("Recurring task is overlapping");
+        }
 
-        // find max end time
-        Optional<LocalDateTime> endTime = epicSubtasks.stream()
-                .map(Task::getEndTime)
-                .max(LocalDateTime::compareTo);
+        int id = idGen.getNewId();
+        RecurringTask taskWithId = pooled(task.withId(id));
 
-        // calculate duration sum
-        Duration duration = epicSubtasks.stream()
-                .map(Subtask::getDuration)
-                .reduce(Duration.ZERO, Duration::plus);
+        store.put(taskWithId);
+        recurringTasks.put(id, taskWithId);
 
-        epics.put(epicId, epic.withTemporal(
-                startTime.orElse(null),
-                endTime.orElse(null),
-                duration));
+        return id;
+    }
+
+    @Override
+    public void updateRecurringTask(RecurringTask task) {
+        if (task == null) {
+            throw new InMemoryTaskManagerCreateException("Recurring task is null");
+        } else if (isTaskTimeOverlapping(task)) {
+            throw new InMemoryTaskManagerCreateException("Recurring task is overlapping");
+        }
+
+        if (recurringTasks.containsKey(task.getId())) {
+            store.put(task);
+            recurringTasks.put(task.getId(), task);
+        }
+    }
+
+    @Override
+    public void deleteRecurringTask(int id) {
+        if (recurringTasks.remove(id) != null) {
+            store.delete(id);
+            forgetDeleted(id);
+        }
+    }
+
+    // timeline tasks are found in the tree, occurrences are expanded for the window only
+    @Override
+    public List<Task> getPrioritizedTasks(LocalDateTime from, LocalDateTime to) {
+        if (from == null || to == null) {
+            throw new IllegalArgumentException("Window bounds must not be null");
+        }
+        List<Task> window = new ArrayList<>();
+        long fromMinute = EpochMinutes.of(from);
+        if (timelineMayOverlap()) {
+            prioritizedTasks.anyStartingBefore(fromMinute, 0, (start, id, end) -> {
+                if (end > fromMinute) {
+                    window.add(store.get(id));
+                }
+                return false;
+            });
+        } else {
+            Task running = prioritizedTasks.runningAt(fromMinute);
+            if (running != null) {
+                window.add(running);
+            }
+        }
+        prioritizedTasks.startingBetween(fromMinute, EpochMinutes.of(to)).forEach(window::add);
+        for (RecurringTask template : recurringTasks.values()) {
+            window.addAll(template.getOccurrences(from, to));
+        }
+        window.sort(START_TIME_ORDER);
+        return window;
+    }
+
+    // ---- occupancy ----
+
+    // booked time of tasks, subtasks and recurring occurrences on days [from, to)
+    @Override
+    public Duration getBookedTime(LocalDate from, LocalDate to) {
+        if (from == null || to == null) {
+            throw new IllegalArgumentException("Day bounds must not be null");
+        }
+        long minutes = occupancy.getMinutes(from.toEpochDay(), to.toEpochDay());
+        long fromMinute = from.toEpochDay() * Occupancy.MINUTES_PER_DAY;
+        long toMinute = to.toEpochDay() * Occupancy.MINUTES_PER_DAY;
+        for (RecurringTask template : recurringTasks.values()) {
+            minutes += template.bookedMinutes(fromMinute, toMinute);
+        }
+        return Duration.ofMinutes(minutes);
+    }
+
+    @Override
+    public List<Duration> getBookedTime(LocalDate from, int bucketDays, int buckets) {
+        if (bucketDays <= 0 || buckets < 0) {
+            throw new IllegalArgumentException("Bucket days must be positive and buckets not negative");
+        }
+        List<Duration> booked = new ArrayList<>(buckets);
+        for (int i = 0; i < buckets; i++) {
+            booked.add(getBookedTime(from.plusDays((long) i * bucketDays), from.plusDays((long) (i + 1) * bucketDays)));
+        }
+        return booked;
+    }
+
+    // ---- dependencies ----
+
+    @Override
+    public void addDependency(int blockerId, int blockedId) {
+        Task blocker = storedTimelineTask(blockerId);
+        Task blocked = storedTimelineTask(blockedId);
+        if (blocker == null || blocked == null) {
+            throw new InMemoryTaskManagerCreateException("Dependency needs an existing task or subtask at both ends");
+        } else if (!dependencies.addEdge(blocker, blocked)) {
+            throw new InMemoryTaskManagerCreateException("Dependency would create a cycle");
+        }
+        store.putDependency(blockerId, blockedId);
+    }
+
+    @Override
+    public void removeDependency(int blockerId, int blockedId) {
+        dependencies.removeEdge(blockerId, blockedId);
+        store.deleteDependency(blockerId, blockedId);
+    }
+
+    @Override
+    public List<Task> getBlockers(int id) {
+        return tasksOf(dependencies.getBlockerIds(id));
+    }
+
+    @Override
+    public List<Task> getBlockedTasks() {
+        return tasksOf(dependencies.getBlockedIds());
+    }
+
+    @Override
+    public List<Task> getReadyTasks() {
+        return tasksOf(dependencies.getReadyIds());
+    }
+
+    @Override
+    public Duration getEarliestStart(int id) {
+        return Duration.ofMinutes(dependencies.getEarliestStartMinutes(id));
+    }
+
+    // earliest finish of the last subtask, subtasks without dependencies start right away
+    @Override
+    public Duration getCriticalPath(int epicId) {
+        Subtask last = lastFinishingSubtask(epicId);
+        return last == null ? Duration.ZERO
+                : Duration.ofMinutes(dependencies.getFinishMinutes(last.getId(), last.getDurationMinutes()));
+    }
+
+    @Override
+    public List<Task> getCriticalChain(int epicId) {
+        Subtask last = lastFinishingSubtask(epicId);
+        if (last == null) {
+            return List.of();
+        }
+        return dependencies.contains(last.getId())
+                ? tasksOf(dependencies.getCriticalChain(last.getId()))
+                : List.of(last);
+    }
+
+    // finishes come from the graph, which keeps them along with each critical blocker as edges change
+    private Subtask lastFinishingSubtask(int epicId) {
+        Epic epic = storedEpic(epicId);
+        if (epic == null) {
+            return null;
+        }
+        Subtask[] last = {null};
+        long[] latest = {0};
+        epic.getSubtaskIdSet().forEach(subtaskId -> {
+            Subtask subtask = storedSubtask(subtaskId);
+            if (subtask != null) {
+                long finish = dependencies.getFinishMinutes(subtaskId, subtask.getDurationMinutes());
+                if (last[0] == null || finish > latest[0]) {
+                    last[0] = subtask;
+                    latest[0] = finish;
+                }
+            }
+        });
+        return last[0];
+    }
+
+    private Task storedTimelineTask(int id) {
+        Task task = storedTask(id);
+        return task != null ? task : storedSubtask(id);
+    }
+
+    private List<Task> tasksOf(Collection<Integer> ids) {
+        List<Task> result = new ArrayList<>(ids.size());
+        for (int id : ids) {
+            Task task = store.get(id);
+            if (task != null) {
+                result.add(task);
+            }
+        }
+        return result;
+    }
+
+    // ---- scheduling ----
+
+    @Override
+    public Integer scheduleEarliest(Task task, LocalDateTime notBefore, Duration duration) {
+        if (task == null) {
+            throw new InMemoryTaskManagerCreateException("Task is null");
+        }
+        checkSchedulable(task, notBefore, duration);
+        long start = earliestGap(EpochMinutes.of(notBefore), duration.toMinutes());
+        return addScheduled(task.withTime(EpochMinutes.toDateTime(start), duration));
+    }
+
+    // one sweep over the timeline: each task goes into the first gap after the previous one placed
+    @Override
+    public List<Integer> scheduleAllEarliest(List<? extends Task> tasks, LocalDateTime notBefore) {
+        if (tasks == null) {
+            throw new InMemoryTaskManagerCreateException("Tasks are null");
+        }
+        for (Task task : tasks) {
+            if (task == null) {
+                throw new InMemoryTaskManagerCreateException("Task is null");
+            }
+            checkSchedulable(task, notBefore, task.getDuration());
+        }
+
+        List<Integer> ids = new ArrayList<>(tasks.size());
+        long from = EpochMinutes.of(notBefore);
+        for (Task task : tasks) {
+            long start = earliestGap(from, task.getDurationMinutes());
+            ids.add(addScheduled(task.withTime(EpochMinutes.toDateTime(start), task.getDuration())));
+            from = start + task.getDurationMinutes();
+        }
+        return ids;
+    }
+
+    // everything is checked before anything is placed, a batch is scheduled whole or not at all
+    private void checkSchedulable(Task task, LocalDateTime notBefore, Duration duration) {
+        if (TaskType.of(task) == TaskType.EPIC) {
+            throw new InMemoryTaskManagerCreateException("Epic time follows from its subtasks");
+        } else if (task instanceof Subtask subtask && storedEpic(subtask.getEpicId()) == null) {
+            throw new InMemoryTaskManagerCreateException("No epic for subtask found");
+        } else if (notBefore == null) {
+            throw new IllegalArgumentException("Earliest start is null");
+        } else if (duration == null || duration.isNegative()) {
+            throw new IllegalArgumentException("Duration must not be negative");
+        }
+    }
+
+    // the gap is known to be free, so the linear overlap check of create is skipped
+    private Integer addScheduled(Task task) {
+        return task instanceof Subtask subtask ? addSubtask(subtask) : addTask(task);
+    }
+
+    // first start at or after from where the duration overlaps no task and no recurring occurrence
+    private long earliestGap(long from, long durationMinutes) {
+        long start = timelineGap(from, durationMinutes);
+        for (int moves = 0; moves < MAX_RECURRING_MOVES; ) {
+            long blockedUntil = EpochMinutes.NONE;
+            for (RecurringTask template : recurringTasks.values()) {
+                long end = template.overlapEnd(start, start + durationMinutes);
+                if (end != EpochMinutes.NONE && end > blockedUntil) {
+                    blockedUntil = end;
+                }
+            }
+            if (blockedUntil == EpochMinutes.NONE) {
+                return start;
+            }
+            start = timelineGap(blockedUntil, durationMinutes);
+            moves++;
+        }
+        throw new InMemoryTaskManagerCreateException("No free gap found between recurring tasks");
+    }
+
+    // visits the task running at from and then only tasks until the first gap that fits
+    private long timelineGap(long from, long durationMinutes) {
+        long[] start = {Math.max(from, runningEnd(from))};
+        prioritizedTasks.anyStartingFrom(from, (nextStart, id, nextEnd) -> {
+            if (nextStart >= start[0] + durationMinutes) {
+                return true;
+            }
+            start[0] = Math.max(start[0], nextEnd);
+            return false;
+        });
+        return start[0];
+    }
+
+    private long runningEnd(long minute) {
+        if (!timelineMayOverlap()) {
+            return prioritizedTasks.runningEnd(minute);
+        }
+        long[] running = {EpochMinutes.NONE};
+        prioritizedTasks.anyStartingBefore(minute, 0, (start, id, end) -> {
+            running[0] = Math.max(running[0], end);
+            return false;
+        });
+        return running[0] > minute ? running[0] : EpochMinutes.NONE;
+    }
+
+    // ---- conflicts ----
+
+    // read from the store rather than the tree, so imported tasks sharing a start time are seen too
+    @Override
+    public Stream<ConflictSweep.Conflict> findAllConflicts() {
+        List<Task> timed = new ArrayList<>(store.size(TaskType.TASK) + store.size(TaskType.SUBTASK));
+        store.scan(TaskType.TASK, timed::add);
+        store.scan(TaskType.SUBTASK, timed::add);
+        return new ConflictSweep(timed).conflicts();
+    }
+
+    // ---- bulk reschedule ----
+
+    @Override
+    public void shiftEpic(int epicId, Duration offset) {
+        Epic epic = storedEpic(epicId);
+        if (epic != null) {
+            shift(subtasksOf(epic).stream().filter(Task::hasStartTime).map(Task.class::cast).toList(), offset);
+        }
+    }
+
+    @Override
+    public void shiftRange(LocalDateTime from, LocalDateTime to, Duration offset) {
+        if (from == null || to == null) {
+            throw new IllegalArgumentException("Range bounds must not be null");
+        }
+        long fromMinute = EpochMinutes.of(from);
+        long toMinute = EpochMinutes.of(to);
+        List<Task> moved = new ArrayList<>();
+        prioritizedTasks.startingBetween(fromMinute, toMinute).forEach(moved::add);
+        shift(moved, offset);
+    }
+
+    // the moved tasks keep their relative order, so they are only checked against the rest of the timeline:
+    // they leave the tree first and come back unchanged when a shifted one overlaps, store writes go in one batch
+    private void shift(List<Task> moved, Duration offset) {
+        if (offset == null) {
+            throw new IllegalArgumentException("Offset is null");
+        }
+        long offsetMinutes = EpochMinutes.of(offset);
+        if (moved.isEmpty() || offsetMinutes == 0) {
+            return;
+        }
+        List<Task> shifted = new ArrayList<>(moved.size());
+        for (Task task : moved) {
+            shifted.add(task.withTime(EpochMinutes.toDateTime(task.getStartMinute() + offsetMinutes), task.getDuration()));
+        }
+
+        moved.forEach(this::removeFromPrioritizedTasks);
+        for (Task task : shifted) {
+            if (overlapsTimeline(task) || recurringTasks.values().stream().anyMatch(task::hasTimeConflictWith)) {
+                moved.forEach(this::addToPrioritizedTasks);
+                throw new InMemoryTaskManagerCreateException("Shifted task is overlapping, id: " + task.getId());
+            }
+        }
+
+        Set<Integer> epicIds = new LinkedHashSet<>();
+        for (Task task : shifted) {
+            if (task instanceof Subtask subtask) {
+                epicIds.add(subtask.getEpicId());
+            }
+        }
+        shifted.forEach(this::addToPrioritizedTasks);
+        store.batch(() -> {
+            shifted.forEach(store::put);
+            epicIds.forEach(epicId -> refreshEpic(storedEpic(epicId)));
+        });
+    }
+
+    // only the task running at the start and those starting before the end can overlap
+    private boolean overlapsTimeline(Task task) {
+        if (!task.hasStartTime()) {
+            return false;
+        } else if (task instanceof RecurringTask recurring) {
+            return recurringOverlapsTimeline(recurring);
+        }
+        // an older version of the task itself does not count, the one before it may still overlap
+        long start = task.getStartMinute();
+        long end = task.getEndMinute();
+        Timeline.EntryTest overlapping = (otherStart, id, otherEnd) -> start < otherEnd && end > otherStart;
+        return timelineMayOverlap()
+                ? prioritizedTasks.anyStartingBefore(end, task.getId(), overlapping)
+                : prioritizedTasks.anyCandidate(start, end, task.getId(), overlapping);
+    }
+
+    // any occurrence may hit a task, so every task from the one running at the first start up to the end
+    // of the last occurrence is checked; each check is O(1) without walking occurrences
+    private boolean recurringOverlapsTimeline(RecurringTask recurring) {
+        long until = EpochMinutes.of(recurring.getUntil());
+        long lastEnd = until == EpochMinutes.NONE ? Long.MAX_VALUE : until + recurring.getDurationMinutes();
+        Timeline.EntryTest overlapping = (start, id, end) -> recurring.overlaps(start, end);
+        return timelineMayOverlap()
+                ? prioritizedTasks.anyStartingBefore(lastEnd, recurring.getId(), overlapping)
+                : prioritizedTasks.anyCandidate(recurring.getStartMinute(), lastEnd, recurring.getId(), overlapping);
+    }
+
+    // the candidate walks assume no two timeline tasks overlap
+    private boolean timelineMayOverlap() {
+        if (timelineOverlaps && overlapsCheckedAt != prioritizedTasks.getVersion()) {
+            timelineOverlaps = prioritizedTasks.hasOverlaps();
+            overlapsCheckedAt = prioritizedTasks.getVersion();
+        }
+        return timelineOverlaps;
     }
 
     // ----
@@ -347,18 +907,180 @@ public class InMemoryTaskManager implements TaskManager {
         return historyManager.getHistory();
     }
 
+    @Override
+    public List<Task> getHistory(String userId) {
+        return userHistories.getHistory(userId);
+    }
+
+    @Override
+    public List<Task> getHotTasks(int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("Task count must not be negative");
+        }
+        List<Task> hot = new ArrayList<>();
+        for (int id : accessStats.getHotIds(k)) {
+            Task task = store.get(id);
+            if (task != null) {
+                hot.add(task);
+            }
+        }
+        return hot;
+    }
+
+    public AccessStats getAccessStats() {
+        return accessStats;
+    }
+
+    // the same instance until the timeline changes, safe to keep and iterate from other threads
     @Override
     public Set<Task> getPrioritizedTasks() {
-        return prioritizedTasks;
+        PrioritizedSnapshot snapshot = prioritizedSnapshot;
+        if (snapshot.version() != prioritizedTasks.getVersion()) {
+            List<Task> sorted = List.of(prioritizedTasks.toArray(new Task[0]));
+            snapshot = new PrioritizedSnapshot(prioritizedTasks.getVersion(),
+                    new PresortedSet<>(sorted, START_TIME_ORDER));
+            prioritizedSnapshot = snapshot;
+        }
+        return snapshot.tasks();
+    }
+
+    @Override
+    public long getPrioritizedVersion() {
+        return prioritizedTasks.getVersion();
+    }
+
+    protected TaskStore getStore() {
+        return store;
+    }
+
+    // stored task of any type, without recording a view
+    protected Task findById(int id) {
+        return store.get(id);
+    }
+
+    // views, read counts and dependencies of deleted tasks
+    private void forgetDeleted(int id) {
+        historyManager.remove(id);
+        userHistories.remove(id);
+        accessStats.forget(id);
+        dependencies.remove(id);
+    }
+
+    private void forgetDeleted(List<Integer> ids) {
+        historyManager.remove(ids);
+        userHistories.remove(ids);
+        ids.forEach(accessStats::forget);
+        ids.forEach(dependencies::remove);
+    }
+
+    // new tasks share equal names and descriptions when the store has a string pool
+    @SuppressWarnings("unchecked")
+    private <T extends Task> T pooled(T task) {
+        return strings == null ? task : (T) task.withTextFrom(strings);
+    }
+
+    private Task storedTask(int id) {
+        Task task = store.get(id);
+        return task != null && TaskType.of(task) == TaskType.TASK ? task : null;
+    }
+
+    private Subtask storedSubtask(int id) {
+        return store.get(id) instanceof Subtask subtask ? subtask : null;
+    }
+
+    private Epic storedEpic(int id) {
+        return store.get(id) instanceof Epic epic ? epic : null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T extends Task> List<T> scan(TaskType type) {
+        List<T> result = new ArrayList<>(store.size(type));
+        store.scan(type, task -> result.add((T) task));
+        return result;
+    }
+
+    private List<Task> scannedOrder() {
+        List<Task> timed = new ArrayList<>();
+        for (TaskType type : TaskType.values()) {
+            store.scan(type, task -> {
+                if (type != TaskType.EPIC && type != TaskType.RECURRING && task.hasStartTime()) {
+                    timed.add(task);
+                }
+                idGen.actualizeNextId(task.getId());
+            });
+        }
+        timed.sort(START_TIME_ORDER);
+        return timed;
+    }
+
+    private List<Task> indexedOrder(TaskIndex index) {
+        if (index == null) {
+            return null;
+        }
+        int[] order = index.getStartTimeOrder();
+        List<Task> timed = new ArrayList<>(order.length);
+        for (int id : order) {
+            Task task = store.get(id);
+            if (task == null || !task.hasStartTime()) {
+                return null; // index does not match the contents, rebuild it
+            }
+            timed.add(task);
+        }
+        idGen.actualizeNextId(index.getMaxId());
+        return timed;
     }
 
+    // the tree is built from sorted tasks in one pass; an index saved before ids broke ties may list
+    // tasks sharing a start time in any order, it is sorted again then
+    private void loadPrioritizedTasks(List<Task> sorted) {
+        for (int i = 1; i < sorted.size(); i++) {
+            if (START_TIME_ORDER.compare(sorted.get(i - 1), sorted.get(i)) >= 0) {
+                sorted.sort(START_TIME_ORDER);
+                break;
+            }
+        }
+        prioritizedTasks.load(sorted);
+        sorted.forEach(occupancy::add);
+    }
+
+    // occupancy is booked first, the only step that allocates, and the store is written after the
+    // indexes, so a failure leaves nothing half applied
     private void addToPrioritizedTasks(Task task) {
-        if (task.getStartTime() != null) {
-            prioritizedTasks.add(task);
+        if (task.hasStartTime()) {
+            occupancy.add(task);
+            prioritizedTasks.put(task);
+        }
+    }
+
+    // puts are not rejected, they only mark the overlaps they bring; once overlaps are known the check is
+    // skipped, since adding a task never removes one
+    private void putInPrioritizedTasks(Task task) {
+        boolean overlaps = timelineOverlaps || overlapsTimeline(task);
+        addToPrioritizedTasks(task);
+        if (overlaps) {
+            timelineOverlaps = true;
+            overlapsCheckedAt = prioritizedTasks.getVersion();
+        }
+    }
+
+    private void replaceInPrioritizedTasks(Task stored, Task task) {
+        if (task.hasStartTime()) {
+            occupancy.add(task);
+        }
+        removeFromPrioritizedTasks(stored);
+        if (task.hasStartTime()) {
+            prioritizedTasks.put(task);
+        }
+    }
+
+    private void removeFromPrioritizedTasks(Task task) {
+        if (task.hasStartTime()) {
+            prioritizedTasks.delete(task);
+            occupancy.remove(task);
         }
     }
 
     private boolean isTaskTimeOverlapping(Task task) {
-        return prioritizedTasks.stream().anyMatch(task::hasTimeConflictWith);
+        return overlapsTimeline(task) || recurringTasks.values().stream().anyMatch(task::hasTimeConflictWith);
     }
 }
@@ -0,0 +1,183 @@
+package service;
+
+import model.Task;
+import service.exception.ManagerLoadException;
+import service.exception.ManagerSaveException;
+import util.AtomicFiles;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.SequencedSet;
+import java.util.function.IntFunction;
+
+// keeps history order in an append-only journal of viewed and removed ids
+public class JournaledHistoryManager implements HistoryManager {
+
+    private static final byte ADD = '+';
+    private static final byte REMOVE = '-';
+    private static final int RECORD_SIZE = 1 + Integer.BYTES;
+    private static final int MIN_COMPACTION_RECORDS = 1024;
+
+    private final HistoryManager history;
+    private final Path path;
+    private final ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+    private FileChannel channel;
+    private boolean restored = false;
+    private long records = 0;
+    private long nextCompaction = MIN_COMPACTION_RECORDS;
+
+    public JournaledHistoryManager(HistoryManager history, Path path) {
+        this.history = history;
+        this.path = path;
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        return history.getHistory();
+    }
+
+    @Override
+    public void add(Task task) {
+        if (task == null) {
+            return;
+        }
+        history.add(task);
+        record.clear();
+        record.put(ADD).putInt(task.getId()).flip();
+        append(record, 1);
+    }
+
+    @Override
+    public void remove(int id) {
+        history.remove(id);
+        record.clear();
+        record.put(REMOVE).putInt(id).flip();
+        append(record, 1);
+    }
+
+    @Override
+    public void remove(Iterable<Integer> ids) {
+        history.remove(ids);
+
+        int count = 0;
+        for (int ignored : ids) {
+            count++;
+        }
+        if (count == 0) {
+            return;
+        }
+        ByteBuffer batch = ByteBuffer.allocate(count * RECORD_SIZE);
+        for (int id : ids) {
+            batch.put(REMOVE).putInt(id);
+        }
+        append(batch.flip(), count);
+    }
+
+    // replays the journal into the wrapped history, tasks are looked up without going through the manager
+    public void restore(IntFunction<Task> tasksById) {
+        if (!Files.exists(path)) {
+            restored = true;
+            return;
+        }
+
+        SequencedSet<Integer> order = new LinkedHashSet<>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            while (true) {
+                byte op;
+                int id;
+                try {
+                    op = in.readByte();
+                    id = in.readInt();
+                } catch (EOFException e) {
+                    break; // incomplete trailing record is dropped
+                }
+                order.remove(id);
+                if (op == ADD) {
+                    order.addLast(id);
+                }
+            }
+        } catch (IOException e) {
+            throw new ManagerLoadException(e.getMessage(), e);
+        }
+
+        for (int id : order) {
+            Task task = tasksById.apply(id);
+            if (task != null) {
+                history.add(task);
+            }
+        }
+        restored = true;
+        compact();
+    }
+
+    public void compact() {
+        closeChannel();
+        try {
+            Path tempFile = AtomicFiles.createTempSibling(path);
+            List<Task> tasks = history.getHistory();
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+                for (Task task : tasks) {
+                    out.writeByte(ADD);
+                    out.writeInt(task.getId());
+                }
+            }
+            AtomicFiles.replace(tempFile, path);
+            records = tasks.size();
+            nextCompaction = Math.max(MIN_COMPACTION_RECORDS, 2 * records);
+        } catch (IOException e) {
+            throw new ManagerSaveException(e.getMessage(), e);
+        }
+    }
+
+    private void append(ByteBuffer buffer, int count) {
+        try {
+            if (channel == null) {
+                openChannel();
+            }
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            throw new ManagerSaveException(e.getMessage(), e);
+        }
+
+        records += count;
+        if (records >= nextCompaction) {
+            compact();
+        }
+    }
+
+    private void openChannel() throws IOException {
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        if (!restored) {
+            // journal of a previous run does not describe this manager's history
+            Files.deleteIfExists(path);
+            restored = true;
+        }
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private void closeChannel() {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new ManagerSaveException(e.getMessage(), e);
+        } finally {
+            channel = null;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package service;
+
+import model.Task;
+import util.FenwickTree;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+// booked minutes per day of the timeline; a task adds its minutes to every day it touches, days in
+// the middle of a long task at once, so changes and sums over any run of days are O(log days) within
+// a chunk of days; chunks exist only where tasks are booked, so far apart dates cost two small trees
+// instead of one spanning every day between them
+public class Occupancy {
+
+    static final long MINUTES_PER_DAY = 24 * 60;
+    static final int CHUNK_DAYS = 4096;
+
+    private static class Chunk {
+        final FenwickTree days = new FenwickTree(CHUNK_DAYS);
+        long total = 0;
+    }
+
+    private final TreeMap<Long, Chunk> chunks = new TreeMap<>(); // by epoch day / CHUNK_DAYS
+
+    public void add(Task task) {
+        book(task, 1);
+    }
+
+    public void remove(Task task) {
+        book(task, -1);
+    }
+
+    // booked minutes on days [fromDay, toDay), days counted from 1970-01-01; whole chunks add their totals
+    public long getMinutes(long fromDay, long toDay) {
+        if (toDay <= fromDay) {
+            return 0;
+        }
+        long minutes = 0;
+        long lastDay = toDay - 1;
+        for (Map.Entry<Long, Chunk> entry : chunks.subMap(chunkOf(fromDay), true, chunkOf(lastDay), true).entrySet()) {
+            long firstDayOfChunk = entry.getKey() * CHUNK_DAYS;
+            int from = (int) Math.max(fromDay - firstDayOfChunk, 0);
+            int to = (int) Math.min(toDay - firstDayOfChunk, CHUNK_DAYS);
+            Chunk chunk = entry.getValue();
+            minutes += from == 0 && to == CHUNK_DAYS ? chunk.total : chunk.days.sum(from, to);
+        }
+        return minutes;
+    }
+
+    // ----
+
+    private void book(Task task, int sign) {
+        long start = task.getStartMinute();
+        long end = task.getEndMinute();
+        if (!task.hasStartTime() || end <= start) {
+            return;
+        }
+        long startDay = Math.floorDiv(start, MINUTES_PER_DAY);
+        long lastDay = Math.floorDiv(end - 1, MINUTES_PER_DAY);
+        if (startDay == lastDay) {
+            add(startDay, startDay + 1, sign * (end - start));
+            return;
+        }
+        add(startDay, startDay + 1, sign * ((startDay + 1) * MINUTES_PER_DAY - start));
+        add(startDay + 1, lastDay, sign * MINUTES_PER_DAY);
+        add(lastDay, lastDay + 1, sign * (end - lastDay * MINUTES_PER_DAY));
+    }
+
+    // adds the minutes to every day in [fromDay, toDay), chunk by chunk; a chunk left empty is dropped
+    private void add(long fromDay, long toDay, long minutes) {
+        for (long day = fromDay; day < toDay; ) {
+            long chunkIndex = chunkOf(day);
+            long firstDayOfChunk = chunkIndex * CHUNK_DAYS;
+            long chunkEnd = Math.min(toDay, firstDayOfChunk + CHUNK_DAYS);
+            Chunk chunk = chunks.computeIfAbsent(chunkIndex, index -> new Chunk());
+            chunk.days.add((int) (day - firstDayOfChunk), (int) (chunkEnd - firstDayOfChunk), minutes);
+            chunk.total += minutes * (chunkEnd - day);
+            if (chunk.total == 0) {
+                chunks.remove(chunkIndex);
+            }
+            day = chunkEnd;
+        }
+    }
+
+    private static long chunkOf(long day) {
+        return Math.floorDiv(day, CHUNK_DAYS);
+    }
+}
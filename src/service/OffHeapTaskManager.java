@@ -0,0 +1,25 @@
+package service;
+
+import service.store.OffHeapTaskStore;
+
+// task manager over native memory: tasks are decoded only when read, the heap keeps primitive indexes
+// by id, recurring templates and the bounded history of viewed copies; close() frees the native memory,
+// the manager must not be used afterwards
+public class OffHeapTaskManager extends InMemoryTaskManager implements AutoCloseable {
+
+    private final OffHeapTaskStore store;
+
+    public OffHeapTaskManager(HistoryManager history) {
+        this(history, new OffHeapTaskStore());
+    }
+
+    private OffHeapTaskManager(HistoryManager history, OffHeapTaskStore store) {
+        super(history, store);
+        this.store = store;
+    }
+
+    @Override
+    public void close() {
+        store.close();
+    }
+}
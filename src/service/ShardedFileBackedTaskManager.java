@@ -0,0 +1,62 @@
+package service;
+
+import service.exception.ManagerLoadException;
+import service.store.ShardedFileTaskStore;
+import service.store.StorageOptions;
+
+import java.nio.file.Path;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+// task manager over a directory of shard files, only shards touched by a change are rewritten
+public class ShardedFileBackedTaskManager extends InMemoryTaskManager implements TaskManager {
+
+    private static final String HISTORY = "history";
+
+    private final JournaledHistoryManager historyJournal;
+
+    public ShardedFileBackedTaskManager(HistoryManager history, Path directory, int shardCount) {
+        this(history, directory, shardCount, ForkJoinPool.commonPool(), StorageOptions.DEFAULT);
+    }
+
+    public ShardedFileBackedTaskManager(
+            HistoryManager history,
+            Path directory,
+            int shardCount,
+            Executor executor,
+            StorageOptions options
+    ) {
+        this(new JournaledHistoryManager(history, historyPathFor(directory)),
+                new ShardedFileTaskStore(directory, shardCount, executor, options));
+    }
+
+    private ShardedFileBackedTaskManager(JournaledHistoryManager historyJournal, ShardedFileTaskStore store) {
+        super(historyJournal, store);
+        this.historyJournal = historyJournal;
+    }
+
+    private static Path historyPathFor(Path directory) {
+        if (directory == null) {
+            throw new ManagerLoadException("Directory is null");
+        }
+        return directory.resolve(HISTORY);
+    }
+
+    public static ShardedFileBackedTaskManager loadFromDirectory(HistoryManager history, Path directory, int shardCount) {
+        return loadFromDirectory(history, directory, shardCount, ForkJoinPool.commonPool(), StorageOptions.DEFAULT);
+    }
+
+    public static ShardedFileBackedTaskManager loadFromDirectory(
+            HistoryManager history,
+            Path directory,
+            int shardCount,
+            Executor executor,
+            StorageOptions options
+    ) {
+        ShardedFileBackedTaskManager tm = new ShardedFileBackedTaskManager(
+                new JournaledHistoryManager(history, historyPathFor(directory)),
+                ShardedFileTaskStore.open(directory, shardCount, executor, options));
+        tm.historyJournal.restore(tm::findById);
+        return tm;
+    }
+}
@@ -1,11 +1,16 @@
 package service;
 
 import model.Epic;
+import model.RecurringTask;
 import model.Subtask;
 import model.Task;
 
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Set;
+import java.util.stream.Stream;
 
 public interface TaskManager {
     List<Task> getAllTasks();
@@ -14,6 +19,9 @@ public interface TaskManager {
 
     Task getTaskById(int id);
 
+    // view recorded in the history of the given user or session only
+    Task getTaskById(int id, String userId);
+
     Integer createTask(Task task);
 
     void updateTask(Task task);
@@ -26,6 +34,8 @@ public interface TaskManager {
 
     Subtask getSubtaskById(int id);
 
+    Subtask getSubtaskById(int id, String userId);
+
     Integer createSubtask(Subtask subtask);
 
     void updateSubtask(Subtask subtask);
@@ -38,6 +48,8 @@ public interface TaskManager {
 
     Epic getEpicById(int id);
 
+    Epic getEpicById(int id, String userId);
+
     Integer createEpic(Epic epic);
 
     void updateEpic(Epic epic);
@@ -46,7 +58,72 @@ public interface TaskManager {
 
     List<Subtask> getEpicSubtasks(int epicId);
 
+    List<RecurringTask> getAllRecurringTasks();
+
+    RecurringTask getRecurringTaskById(int id);
+
+    Integer createRecurringTask(RecurringTask task);
+
+    void updateRecurringTask(RecurringTask task);
+
+    void deleteRecurringTask(int id);
+
     List<Task> getHistory();
 
+    List<Task> getHistory(String userId);
+
+    // most read tasks of any type, the hottest first; k must not be negative
+    List<Task> getHotTasks(int k);
+
+    // booked time on days [from, to), tasks running over midnight count on both days
+    Duration getBookedTime(LocalDate from, LocalDate to);
+
+    // booked time of consecutive buckets of bucketDays days each, e.g. 7 for weeks starting at from
+    List<Duration> getBookedTime(LocalDate from, int bucketDays, int buckets);
+
+    // blocker has to be done before blocked, both are tasks or subtasks; edges closing a cycle are rejected
+    void addDependency(int blockerId, int blockedId);
+
+    void removeDependency(int blockerId, int blockedId);
+
+    List<Task> getBlockers(int id);
+
+    // not done tasks and subtasks waiting for an unfinished blocker
+    List<Task> getBlockedTasks();
+
+    // not done tasks and subtasks with dependencies whose blockers are all done
+    List<Task> getReadyTasks();
+
+    // longest chain of blocker durations before the task can start
+    Duration getEarliestStart(int id);
+
+    // time from the start until the last subtask of the epic can finish, following dependencies
+    Duration getCriticalPath(int epicId);
+
+    // tasks along that path in order, ending with the epic's last subtask to finish
+    List<Task> getCriticalChain(int epicId);
+
+    // immutable, in start order
     Set<Task> getPrioritizedTasks();
+
+    // grows with every change of the prioritized tasks, e.g. to tell whether a cached copy is current
+    long getPrioritizedVersion();
+
+    // tasks, subtasks and occurrences of recurring tasks overlapping [from, to), in start order
+    List<Task> getPrioritizedTasks(LocalDateTime from, LocalDateTime to);
+
+    // creates the task or subtask with the given duration in the first free gap starting at notBefore or later
+    Integer scheduleEarliest(Task task, LocalDateTime notBefore, Duration duration);
+
+    // places tasks in list order, each after the previous one, with their own durations
+    List<Integer> scheduleAllEarliest(List<? extends Task> tasks, LocalDateTime notBefore);
+
+    // every overlapping pair of timed tasks and subtasks, produced lazily and in parallel
+    Stream<ConflictSweep.Conflict> findAllConflicts();
+
+    // moves all timed subtasks of the epic by the offset, rejected as a whole if any would overlap
+    void shiftEpic(int epicId, Duration offset);
+
+    // moves tasks and subtasks starting in [from, to) by the offset, rejected as a whole if any would overlap
+    void shiftRange(LocalDateTime from, LocalDateTime to, Duration offset);
 }
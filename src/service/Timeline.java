@@ -0,0 +1,292 @@
+package service;
+
+import model.Task;
+import model.TaskType;
+import util.EpochMinutes;
+import util.TimeIndex;
+
+import java.util.AbstractSet;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.IntFunction;
+
+// timed tasks as primitive (start, id) keys with their end, one index per task type so a type is dropped
+// at once; overlap checks and gap searches run over the keys alone and allocate nothing, reads that
+// return tasks resolve the ids through the store; the set itself is a read-only view in (start, id) order
+public class Timeline extends AbstractSet<Task> {
+
+    // ids break ties, so tasks sharing a start time are all kept and each is removed exactly
+    public static final Comparator<Task> START_TIME_ORDER =
+            Comparator.comparingLong(Task::getStartMinute).thenComparingInt(Task::getId);
+
+    // looks at one entry, true stops the walk
+    @FunctionalInterface
+    public interface EntryTest {
+        boolean test(long startMinute, int id, long endMinute);
+    }
+
+    private final Map<TaskType, TimeIndex> partitions = new EnumMap<>(TaskType.class);
+    private final IntFunction<Task> tasks;
+    private long version = 0;
+
+    // the ids of all entries must resolve to their tasks whenever the timeline is read as tasks
+    public Timeline(IntFunction<Task> tasks) {
+        this.tasks = tasks;
+    }
+
+    // tasks without a start time are ignored, an entry with the same key is replaced
+    public void put(Task task) {
+        if (task.hasStartTime()) {
+            TimeIndex partition = partitions.computeIfAbsent(TaskType.of(task), type -> new TimeIndex());
+            partition.remove(task.getStartMinute(), task.getId());
+            partition.add(task.getStartMinute(), task.getId(), task.getEndMinute());
+            version++;
+        }
+    }
+
+    public void delete(Task task) {
+        TimeIndex partition = partitions.get(TaskType.of(task));
+        if (partition != null && task.hasStartTime() && partition.remove(task.getStartMinute(), task.getId())) {
+            version++;
+        }
+    }
+
+    public void clear(TaskType type) {
+        if (partitions.remove(type) != null) {
+            version++;
+        }
+    }
+
+    // tasks in start order, appended to empty partitions in linear time
+    public void load(List<Task> sorted) {
+        for (Task task : sorted) {
+            if (task.hasStartTime()) {
+                TimeIndex partition = partitions.computeIfAbsent(TaskType.of(task), type -> new TimeIndex());
+                long last = partition.last();
+                if (last == TimeIndex.NONE || TimeIndex.compare(task.getStartMinute(), task.getId(),
+                        partition.startAt(last), partition.idAt(last)) > 0) {
+                    partition.append(task.getStartMinute(), task.getId(), task.getEndMinute());
+                } else {
+                    partition.add(task.getStartMinute(), task.getId(), task.getEndMinute());
+                }
+            }
+        }
+        version++;
+    }
+
+    // grows with every change of the contents
+    public long getVersion() {
+        return version;
+    }
+
+    @Override
+    public Iterator<Task> iterator() {
+        return tasksOf(new Merge(Long.MIN_VALUE, Long.MAX_VALUE));
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        if (!(o instanceof Task task) || !task.hasStartTime()) {
+            return false;
+        }
+        TimeIndex partition = partitions.get(TaskType.of(task));
+        return partition != null && partition.contains(task.getStartMinute(), task.getId());
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (TimeIndex partition : partitions.values()) {
+            size += partition.size();
+        }
+        return size;
+    }
+
+    // tasks starting at or after the minute
+    public Iterable<Task> startingFrom(long minute) {
+        return () -> tasksOf(new Merge(minute, Long.MAX_VALUE));
+    }
+
+    // tasks starting in [from, to)
+    public Iterable<Task> startingBetween(long from, long to) {
+        return () -> tasksOf(new Merge(from, to));
+    }
+
+    // ---- primitive walks ----
+
+    // the task running at the minute, started before it, null if there is none
+    public Task runningAt(long minute) {
+        for (TimeIndex partition : partitions.values()) {
+            long running = runningBefore(partition, minute, 0);
+            if (running != TimeIndex.NONE && partition.endAt(running) > minute) {
+                return tasks.apply(partition.idAt(running));
+            }
+        }
+        return null;
+    }
+
+    // end of the task running at the minute, EpochMinutes.NONE if there is none
+    public long runningEnd(long minute) {
+        long end = EpochMinutes.NONE;
+        for (TimeIndex partition : partitions.values()) {
+            long running = runningBefore(partition, minute, 0);
+            if (running != TimeIndex.NONE && partition.endAt(running) > minute) {
+                end = Math.max(end, partition.endAt(running));
+            }
+        }
+        return end;
+    }
+
+    // visits the entries that can overlap [from, to) while the timeline holds no overlaps: the one of
+    // positive length running before from and those starting in [from, to); the ignored id is skipped
+    public boolean anyCandidate(long from, long to, int ignoredId, EntryTest test) {
+        for (TimeIndex partition : partitions.values()) {
+            long running = runningBefore(partition, from, ignoredId);
+            if (running != TimeIndex.NONE
+                    && test.test(partition.startAt(running), partition.idAt(running), partition.endAt(running))) {
+                return true;
+            }
+            for (long p = partition.ceiling(from, Integer.MIN_VALUE);
+                 p != TimeIndex.NONE && partition.startAt(p) < to; p = partition.next(p)) {
+                if (partition.idAt(p) != ignoredId && test.test(partition.startAt(p), partition.idAt(p),
+                        partition.endAt(p))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    // visits entries starting at or after the minute in (start, id) order across all types
+    public boolean anyStartingFrom(long minute, EntryTest test) {
+        Merge merge = new Merge(minute, Long.MAX_VALUE);
+        for (int i = merge.smallest(); i >= 0; i = merge.smallest()) {
+            TimeIndex partition = merge.indexes[i];
+            long p = merge.positions[i];
+            if (test.test(partition.startAt(p), partition.idAt(p), partition.endAt(p))) {
+                return true;
+            }
+            merge.advance(i);
+        }
+        return false;
+    }
+
+    // visits every entry starting before the minute, whatever the timeline holds
+    public boolean anyStartingBefore(long to, int ignoredId, EntryTest test) {
+        for (TimeIndex partition : partitions.values()) {
+            for (long p = partition.first();
+                 p != TimeIndex.NONE && partition.startAt(p) < to; p = partition.next(p)) {
+                if (partition.idAt(p) != ignoredId && test.test(partition.startAt(p), partition.idAt(p),
+                        partition.endAt(p))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    // whether two entries overlap anywhere, one sweep in (start, id) order: an entry overlaps one that
+    // started earlier and ends after its start, and one of the same start if both have positive length
+    public boolean hasOverlaps() {
+        long endBefore = Long.MIN_VALUE; // latest end of the entries starting before the current start
+        long groupStart = EpochMinutes.NONE;
+        long groupEnd = Long.MIN_VALUE;
+        boolean groupPositive = false;
+        Merge merge = new Merge(Long.MIN_VALUE, Long.MAX_VALUE);
+        for (int i = merge.smallest(); i >= 0; i = merge.smallest()) {
+            long start = merge.indexes[i].startAt(merge.positions[i]);
+            long end = merge.indexes[i].endAt(merge.positions[i]);
+            if (start != groupStart) {
+                endBefore = Math.max(endBefore, groupEnd);
+                groupStart = start;
+                groupEnd = Long.MIN_VALUE;
+                groupPositive = false;
+            }
+            boolean positive = end > start;
+            if (start < endBefore || positive && groupPositive) {
+                return true;
+            }
+            groupEnd = Math.max(groupEnd, end);
+            groupPositive |= positive;
+            merge.advance(i);
+        }
+        return false;
+    }
+
+    // ----
+
+    // last entry of positive length starting before the minute, other than the ignored id; entries of
+    // positive length do not overlap, so no earlier one can still be running, zero length ones are skipped
+    private static long runningBefore(TimeIndex partition, long minute, int ignoredId) {
+        for (long p = partition.lower(minute, Integer.MIN_VALUE); p != TimeIndex.NONE; p = partition.previous(p)) {
+            if (partition.idAt(p) != ignoredId && partition.endAt(p) > partition.startAt(p)) {
+                return p;
+            }
+        }
+        return TimeIndex.NONE;
+    }
+
+    private Iterator<Task> tasksOf(Merge merge) {
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return merge.smallest() >= 0;
+            }
+
+            @Override
+            public Task next() {
+                int i = merge.smallest();
+                if (i < 0) {
+                    throw new NoSuchElementException();
+                }
+                int id = merge.indexes[i].idAt(merge.positions[i]);
+                merge.advance(i);
+                return tasks.apply(id);
+            }
+        };
+    }
+
+    // positions in every partition between the bounds, the smallest key is picked by a linear scan over
+    // a few partitions; positions are only valid while the timeline is unchanged
+    private final class Merge {
+
+        final TimeIndex[] indexes;
+        final long[] positions;
+        final long to;
+
+        Merge(long from, long to) {
+            this.indexes = partitions.values().toArray(new TimeIndex[0]);
+            this.positions = new long[indexes.length];
+            this.to = to;
+            for (int i = 0; i < indexes.length; i++) {
+                positions[i] = bounded(indexes[i], indexes[i].ceiling(from, Integer.MIN_VALUE));
+            }
+        }
+
+        // partition holding the smallest key, -1 when all are done
+        int smallest() {
+            int smallest = -1;
+            for (int i = 0; i < indexes.length; i++) {
+                if (positions[i] != TimeIndex.NONE && (smallest < 0 || TimeIndex.compare(
+                        indexes[i].startAt(positions[i]), indexes[i].idAt(positions[i]),
+                        indexes[smallest].startAt(positions[smallest]),
+                        indexes[smallest].idAt(positions[smallest])) < 0)) {
+                    smallest = i;
+                }
+            }
+            return smallest;
+        }
+
+        void advance(int i) {
+            positions[i] = bounded(indexes[i], indexes[i].next(positions[i]));
+        }
+
+        private long bounded(TimeIndex index, long position) {
+            return position != TimeIndex.NONE && index.startAt(position) < to ? position : TimeIndex.NONE;
+        }
+    }
+}
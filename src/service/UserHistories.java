@@ -0,0 +1,182 @@
+package service;
+
+import model.Task;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+// view history partitioned by user or session id; partitions are created on first view,
+// dropped after maxIdle without views or when maxPartitions is exceeded, least recently used first;
+// a reverse index from task id to the partitions that viewed it keeps deletions away from other users
+public class UserHistories {
+
+    public static final int DEFAULT_PARTITION_SIZE = 100;
+    public static final int DEFAULT_MAX_PARTITIONS = 10_000;
+    public static final Duration DEFAULT_MAX_IDLE = Duration.ofMinutes(30);
+
+    private static final int MIN_RESYNC_SIZE = 16;
+
+    private static class Partition {
+        final HistoryManager history;
+        long lastAccess;
+        // ids indexed for this partition, a superset of its history since the history evicts on its own
+        Set<Integer> ids = new HashSet<>();
+        int resyncSize = MIN_RESYNC_SIZE;
+
+        Partition(HistoryManager history) {
+            this.history = history;
+        }
+    }
+
+    private final Supplier<? extends HistoryManager> historyFactory;
+    private final int maxPartitions;
+    private final long maxIdleNanos;
+    private final LongSupplier nanoTime;
+    // access order, the least recently used partition comes first
+    private final LinkedHashMap<String, Partition> partitions = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<Integer, Set<Partition>> holders = new HashMap<>();
+
+    public UserHistories() {
+        this(() -> new ArrayHistoryManager(DEFAULT_PARTITION_SIZE), DEFAULT_MAX_PARTITIONS, DEFAULT_MAX_IDLE);
+    }
+
+    // every partition is made by the factory, so its memory is capped by the history size limit
+    public UserHistories(Supplier<? extends HistoryManager> historyFactory, int maxPartitions, Duration maxIdle) {
+        this(historyFactory, maxPartitions, maxIdle, System::nanoTime);
+    }
+
+    UserHistories(
+            Supplier<? extends HistoryManager> historyFactory,
+            int maxPartitions,
+            Duration maxIdle,
+            LongSupplier nanoTime
+    ) {
+        if (maxPartitions <= 0) {
+            throw new IllegalArgumentException("Partition count must be positive");
+        }
+        this.historyFactory = historyFactory;
+        this.maxPartitions = maxPartitions;
+        this.maxIdleNanos = maxIdle.toNanos();
+        this.nanoTime = nanoTime;
+    }
+
+    public synchronized void add(String userId, Task task) {
+        Objects.requireNonNull(userId, "User id is null");
+        if (task == null) {
+            return;
+        }
+        long now = nanoTime.getAsLong();
+        evictIdle(now);
+
+        Partition partition = partitions.get(userId);
+        if (partition == null) {
+            if (partitions.size() == maxPartitions) {
+                Iterator<Partition> eldest = partitions.values().iterator();
+                unindex(eldest.next());
+                eldest.remove();
+            }
+            partition = new Partition(historyFactory.get());
+            partitions.put(userId, partition);
+        }
+        partition.lastAccess = now;
+        partition.history.add(task);
+        index(partition, task.getId());
+    }
+
+    public synchronized List<Task> getHistory(String userId) {
+        Objects.requireNonNull(userId, "User id is null");
+        long now = nanoTime.getAsLong();
+        evictIdle(now);
+        Partition partition = partitions.get(userId);
+        if (partition == null) {
+            return new ArrayList<>();
+        }
+        partition.lastAccess = now; // keeps the access order sorted by last access
+        return partition.history.getHistory();
+    }
+
+    // deleted ids are dropped only from the partitions that viewed them
+    public synchronized void remove(int id) {
+        Set<Partition> viewers = holders.remove(id);
+        if (viewers != null) {
+            for (Partition partition : viewers) {
+                partition.ids.remove(id);
+                partition.history.remove(id);
+            }
+        }
+    }
+
+    public synchronized void remove(Iterable<Integer> ids) {
+        Map<Partition, List<Integer>> removals = new HashMap<>();
+        for (Integer id : ids) {
+            Set<Partition> viewers = holders.remove(id);
+            if (viewers != null) {
+                for (Partition partition : viewers) {
+                    partition.ids.remove(id);
+                    removals.computeIfAbsent(partition, p -> new ArrayList<>()).add(id);
+                }
+            }
+        }
+        removals.forEach((partition, removed) -> partition.history.remove(removed));
+    }
+
+    public synchronized int size() {
+        return partitions.size();
+    }
+
+    private void evictIdle(long now) {
+        Iterator<Map.Entry<String, Partition>> eldest = partitions.entrySet().iterator();
+        while (eldest.hasNext()) {
+            Partition partition = eldest.next().getValue();
+            if (now - partition.lastAccess <= maxIdleNanos) {
+                break;
+            }
+            unindex(partition);
+            eldest.remove();
+        }
+    }
+
+    // ---- reverse index ----
+
+    // ids the history has evicted are dropped once the index doubles past the history, O(1) amortized
+    private void index(Partition partition, int id) {
+        if (!partition.ids.add(id)) {
+            return;
+        }
+        holders.computeIfAbsent(id, k -> new HashSet<>()).add(partition);
+        if (partition.ids.size() >= partition.resyncSize) {
+            Set<Integer> live = new HashSet<>();
+            partition.history.getHistory().forEach(task -> live.add(task.getId()));
+            for (Integer indexed : partition.ids) {
+                if (!live.contains(indexed)) {
+                    unindex(partition, indexed);
+                }
+            }
+            partition.ids = live;
+            partition.resyncSize = Math.max(MIN_RESYNC_SIZE, live.size() * 2);
+        }
+    }
+
+    private void unindex(Partition partition) {
+        for (Integer id : partition.ids) {
+            unindex(partition, id);
+        }
+    }
+
+    private void unindex(Partition partition, int id) {
+        Set<Partition> viewers = holders.get(id);
+        if (viewers != null && viewers.remove(partition) && viewers.isEmpty()) {
+            holders.remove(id);
+        }
+    }
+}
@@ -0,0 +1,325 @@
+package service.store;
+
+import model.Epic;
+import model.Task;
+import model.TaskType;
+import service.exception.ManagerLoadException;
+import service.exception.ManagerSaveException;
+import util.AtomicFiles;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// whole board in one CSV snapshot, rewritten after every committed change
+public class CsvFileTaskStore extends HeapTaskStore implements IndexedTaskStore {
+
+    private final Path path;
+    private final StorageOptions options;
+    private final DescriptionFile descriptions;
+    private boolean dirty = false;
+    private TaskIndex loadedIndex;
+
+    // starts empty, an existing file is replaced on first change
+    public CsvFileTaskStore(Path path, StorageOptions options) {
+        super(options.getStringPool());
+        this.path = path;
+        this.options = options;
+        this.descriptions = options.isLazyDescriptions() && path != null
+                ? new DescriptionFile(path, options.getDescriptionCacheSize())
+                : null;
+    }
+
+    public static CsvFileTaskStore open(Path path, StorageOptions options) {
+        CsvFileTaskStore store = new CsvFileTaskStore(path, options);
+        store.load();
+        return store;
+    }
+
+    @Override
+    public void put(Task task) {
+        dirty = true;
+        loadedIndex = null;
+        super.put(task);
+    }
+
+    @Override
+    public void delete(int id) {
+        dirty = true;
+        loadedIndex = null;
+        super.delete(id);
+    }
+
+    @Override
+    public void putDependency(int blockerId, int blockedId) {
+        dirty = true;
+        super.putDependency(blockerId, blockedId);
+    }
+
+    @Override
+    public void deleteDependency(int blockerId, int blockedId) {
+        dirty = true;
+        super.deleteDependency(blockerId, blockedId);
+    }
+
+    @Override
+    public TaskIndex loadedIndex() {
+        return loadedIndex;
+    }
+
+    // also writes the startup index, which ordinary commits only invalidate
+    @Override
+    public void snapshot() {
+        save(true);
+        dirty = false;
+    }
+
+    @Override
+    protected void commit() {
+        if (dirty) {
+            save(false);
+            dirty = false;
+        }
+    }
+
+    // ---- save ----
+
+    private void save(boolean withIndex) {
+        if (path == null) {
+            throw new ManagerSaveException("Path is null");
+        }
+
+        Path tempFile;
+        try {
+            tempFile = AtomicFiles.createTempSibling(path);
+        } catch (IOException e) {
+            throw new ManagerSaveException(e.getMessage(), e);
+        }
+
+        try {
+            write(tempFile);
+            if (descriptions != null) {
+                descriptions.pinNotRelocated();
+                descriptions.close();
+            }
+            Files.deleteIfExists(IndexFile.pathFor(path));
+            AtomicFiles.replace(tempFile, path);
+            if (descriptions != null) {
+                descriptions.commitRewrite();
+            }
+            if (withIndex) {
+                writeIndex();
+            }
+        } catch (IOException e) {
+            throw new ManagerSaveException(e.getMessage(), e);
+        } finally {
+            try {
+                Files.deleteIfExists(tempFile);
+            } catch (IOException ignored) {
+                // temp file is left behind, next save creates another one
+            }
+        }
+    }
+
+    private void write(Path file) throws IOException {
+        List<Task> allTasks = new ArrayList<>();
+        scan(TaskType.TASK, allTasks::add);
+        scan(TaskType.RECURRING, allTasks::add);
+        scan(TaskType.EPIC, allTasks::add);
+        scan(TaskType.SUBTASK, allTasks::add);
+        List<String> dependencies = new ArrayList<>();
+        scanDependencies((blockerId, blockedId) ->
+                dependencies.add(SnapshotFormat.dependencyToString(blockerId, blockedId)));
+
+        if (descriptions == null) {
+            try (BufferedWriter out = SnapshotFormat.openWriter(file, options)) {
+                for (Task task : allTasks) {
+                    out.write(SnapshotFormat.taskToString(task));
+                }
+                for (String dependency : dependencies) {
+                    out.write(dependency);
+                }
+            }
+            return;
+        }
+
+        // lazy descriptions are never compressed; unchanged ones are copied from the old file as bytes
+        descriptions.beginRewrite();
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file))) {
+            long position = 0;
+            for (Task task : allTasks) {
+                // description is the fifth column, right after the fourth comma
+                String line = SnapshotFormat.taskToString(task, "");
+                int descriptionStart = nthIndexOf(line, ',', 4) + 1;
+                byte[] head = line.substring(0, descriptionStart).getBytes(SnapshotFormat.CHARSET);
+                byte[] tail = line.substring(descriptionStart).getBytes(SnapshotFormat.CHARSET);
+                out.write(head);
+                position += head.length;
+                descriptions.relocate(task.getRawDescription(), position);
+                position += descriptions.write(task.getRawDescription(), out);
+                out.write(tail);
+                position += tail.length;
+            }
+            for (String dependency : dependencies) {
+                out.write(dependency.getBytes(SnapshotFormat.CHARSET));
+            }
+        }
+    }
+
+    private void writeIndex() throws IOException {
+        int[] maxId = {0};
+        List<Task> timed = new ArrayList<>();
+        Map<Integer, List<Integer>> adjacency = new HashMap<>();
+        for (TaskType type : TaskType.values()) {
+            scan(type, task -> {
+                maxId[0] = Math.max(maxId[0], task.getId());
+                if (task instanceof Epic epic) {
+                    adjacency.put(epic.getId(), epic.getSubtaskIds());
+                } else if (task.hasStartTime() && TaskType.of(task) != TaskType.RECURRING) {
+                    timed.add(task);
+                }
+            });
+        }
+        timed.sort(Comparator.comparingLong(Task::getStartMinute).thenComparingInt(Task::getId));
+
+        int[] order = new int[timed.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = timed.get(i).getId();
+        }
+        IndexFile.write(path, new TaskIndex(maxId[0], order), adjacency);
+    }
+
+    // ---- load ----
+
+    private void load() {
+        if (path == null) {
+            throw new ManagerLoadException("Path is null");
+        } else if (!Files.exists(path)) {
+            return;
+        }
+
+        try {
+            // offsets are meaningless inside a compressed stream, such snapshot is loaded eagerly
+            if (descriptions != null && !SnapshotFormat.isCompressed(path)) {
+                loadWithLazyDescriptions();
+            } else {
+                loadEagerly();
+            }
+        } catch (IOException e) {
+            throw new ManagerLoadException(e.getMessage(), e);
+        }
+
+        IndexFile.Loaded index = IndexFile.read(path);
+        if (index != null && index.adjacency.keySet().stream().allMatch(id -> get(id) instanceof Epic)) {
+            index.adjacency.forEach(this::linkSubtasks);
+            loadedIndex = index.index;
+        } else {
+            linkSubtasks();
+        }
+    }
+
+    private void loadEagerly() throws IOException {
+        try (BufferedReader in = SnapshotFormat.openReader(path, options)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (SnapshotFormat.isDependency(line)) {
+                    SnapshotFormat.readDependency(line, this::putLoadedDependency);
+                } else {
+                    putLoaded(SnapshotFormat.stringToTask(line));
+                }
+            }
+        }
+    }
+
+    // lines are split on raw bytes to know the file offset of every description
+    private void loadWithLazyDescriptions() throws IOException {
+        try (InputStream in = Files.newInputStream(path)) {
+            byte[] chunk = new byte[64 * 1024];
+            byte[] line = new byte[256];
+            int lineLength = 0;
+            long lineOffset = 0;
+            long position = 0;
+
+            int read;
+            while ((read = in.read(chunk)) != -1) {
+                for (int i = 0; i < read; i++, position++) {
+                    if (chunk[i] == '\n') {
+                        loadLine(line, lineLength, lineOffset);
+                        lineLength = 0;
+                        lineOffset = position + 1;
+                    } else {
+                        if (lineLength == line.length) {
+                            line = Arrays.copyOf(line, line.length * 2);
+                        }
+                        line[lineLength++] = chunk[i];
+                    }
+                }
+            }
+            if (lineLength > 0) {
+                loadLine(line, lineLength, lineOffset);
+            }
+        }
+    }
+
+    private void loadLine(byte[] line, int length, long lineOffset) {
+        if (length > 0 && line[0] == SnapshotFormat.DEPENDENCY) {
+            String dependency = new String(line, 0, length, SnapshotFormat.CHARSET).strip();
+            SnapshotFormat.readDependency(dependency, this::putLoadedDependency);
+        } else {
+            putLoaded(bytesToTask(line, length, lineOffset));
+        }
+    }
+
+    private Task bytesToTask(byte[] line, int length, long lineOffset) {
+        if (length > 0 && line[length - 1] == '\r') {
+            length--;
+        }
+
+        int descriptionStart = -1;
+        int descriptionEnd = -1;
+        int commas = 0;
+        for (int i = 0; i < length && descriptionEnd < 0; i++) {
+            if (line[i] == ',') {
+                commas++;
+                if (commas == 4) {
+                    descriptionStart = i + 1;
+                } else if (commas == 5) {
+                    descriptionEnd = i;
+                }
+            }
+        }
+        if (descriptionEnd < 0) {
+            return SnapshotFormat.stringToTask(new String(line, 0, length, SnapshotFormat.CHARSET));
+        }
+
+        // decode the line without the description bytes, the column itself stays on disk
+        int descriptionLength = descriptionEnd - descriptionStart;
+        System.arraycopy(line, descriptionEnd, line, descriptionStart, length - descriptionEnd);
+        String[] parts = new String(line, 0, length - descriptionLength, SnapshotFormat.CHARSET).split(",");
+        CharSequence description = descriptionLength == 0
+                ? ""
+                : descriptions.reference(lineOffset + descriptionStart, descriptionLength);
+        return SnapshotFormat.partsToTask(parts, description);
+    }
+
+    // ----
+
+    private static int nthIndexOf(String string, char c, int n) {
+        int index = -1;
+        for (int i = 0; i < n; i++) {
+            index = string.indexOf(c, index + 1);
+        }
+        return index;
+    }
+}
@@ -0,0 +1,147 @@
+package service.store;
+
+import service.exception.ManagerLoadException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// description column of a snapshot file, read on demand by byte offset through a small LRU cache
+class DescriptionFile {
+
+    private final Path path;
+    private final Map<LazyDescription, String> cache;
+    private final List<LazyDescription> references = new ArrayList<>();
+    private FileChannel channel;
+    private int generation = 0;
+    private int diskReads = 0;
+    private ByteBuffer copyBuffer;
+
+    DescriptionFile(Path path, int cacheSize) {
+        this.path = path;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<LazyDescription, String> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    LazyDescription reference(long offset, int length) {
+        LazyDescription description = new LazyDescription(this, offset, length, generation);
+        references.add(description);
+        return description;
+    }
+
+    String read(LazyDescription description) {
+        String text = cache.get(description);
+        if (text == null) {
+            text = readFromDisk(description);
+            cache.put(description, text);
+        }
+        return text;
+    }
+
+    // descriptions decoded from the file so far
+    int diskReads() {
+        return diskReads;
+    }
+
+    private String readFromDisk(LazyDescription description) {
+        ByteBuffer buffer = ByteBuffer.allocate(description.getByteLength());
+        try {
+            readFully(buffer, description.getOffset());
+        } catch (IOException e) {
+            throw new ManagerLoadException(e.getMessage(), e);
+        }
+        diskReads++;
+        return new String(buffer.array(), StandardCharsets.UTF_8);
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        if (channel == null) {
+            channel = FileChannel.open(path, StandardOpenOption.READ);
+        }
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new ManagerLoadException("Unexpected end of file while reading description");
+            }
+            position += read;
+        }
+    }
+
+    // ---- file rewrite ----
+
+    int beginRewrite() {
+        return ++generation;
+    }
+
+    // writes the description as UTF-8, returns the byte count; one still in the old file is copied from
+    // it by offset and length without being decoded
+    int write(CharSequence description, OutputStream out) throws IOException {
+        if (!(description instanceof LazyDescription lazy) || lazy.getFile() != this || lazy.isPinned()) {
+            byte[] bytes = String.valueOf(description).getBytes(StandardCharsets.UTF_8);
+            out.write(bytes);
+            return bytes.length;
+        }
+        if (copyBuffer == null) {
+            copyBuffer = ByteBuffer.allocate(8 * 1024);
+        }
+        long position = lazy.getOffset();
+        int remaining = lazy.getByteLength();
+        while (remaining > 0) {
+            copyBuffer.clear().limit(Math.min(remaining, copyBuffer.capacity()));
+            readFully(copyBuffer, position);
+            out.write(copyBuffer.array(), 0, copyBuffer.limit());
+            position += copyBuffer.limit();
+            remaining -= copyBuffer.limit();
+        }
+        return lazy.getByteLength();
+    }
+
+    // remember where the description will be located after the file is replaced
+    void relocate(CharSequence description, long newOffset) {
+        if (description instanceof LazyDescription lazy && lazy.getFile() == this && !lazy.isPinned()) {
+            lazy.relocate(newOffset, generation);
+        }
+    }
+
+    // descriptions that were not written to the new file must be read before the old file is gone
+    void pinNotRelocated() {
+        references.removeIf(description -> {
+            if (description.isPinned()) {
+                return true;
+            } else if (description.getGeneration() != generation) {
+                description.pin(read(description));
+                return true;
+            }
+            return false;
+        });
+    }
+
+    void commitRewrite() {
+        references.forEach(LazyDescription::commitRelocation);
+    }
+
+    void close() {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new ManagerLoadException(e.getMessage(), e);
+        } finally {
+            channel = null;
+        }
+    }
+}
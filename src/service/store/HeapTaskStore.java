@@ -0,0 +1,220 @@
+package service.store;
+
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import model.TaskType;
+import service.exception.ManagerLoadException;
+import util.StringPool;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+public class HeapTaskStore implements TaskStore {
+
+    private final Map<Integer, Task> tasks = new HashMap<>();
+    private final Map<Integer, Task> subtasks = new HashMap<>();
+    private final Map<Integer, Task> epics = new HashMap<>();
+    private final Map<Integer, Task> recurringTasks = new HashMap<>();
+    // dependency edges by either end, so those of a deleted task are found at once
+    private final Map<Integer, Set<Integer>> blockedByBlocker = new LinkedHashMap<>();
+    private final Map<Integer, Set<Integer>> blockersByBlocked = new HashMap<>();
+    private final StringPool strings;
+    private int batchDepth = 0;
+
+    public HeapTaskStore() {
+        this(null);
+    }
+
+    // loaded tasks share equal names and descriptions through the pool, null for no pooling
+    public HeapTaskStore(StringPool strings) {
+        this.strings = strings;
+    }
+
+    @Override
+    public Task get(int id) {
+        Task task = tasks.get(id);
+        if (task == null) {
+            task = subtasks.get(id);
+        }
+        if (task == null) {
+            task = epics.get(id);
+        }
+        if (task == null) {
+            task = recurringTasks.get(id);
+        }
+        return task;
+    }
+
+    @Override
+    public void put(Task task) {
+        putTask(task);
+        changed();
+    }
+
+    @Override
+    public void delete(int id) {
+        deleteLoaded(id);
+        changed();
+    }
+
+    @Override
+    public void putDependency(int blockerId, int blockedId) {
+        putLoadedDependency(blockerId, blockedId);
+        changed();
+    }
+
+    @Override
+    public void deleteDependency(int blockerId, int blockedId) {
+        deleteLoadedDependency(blockerId, blockedId);
+        changed();
+    }
+
+    @Override
+    public void scanDependencies(DependencyAction action) {
+        blockedByBlocker.forEach((blockerId, blocked) ->
+                blocked.forEach(blockedId -> action.accept(blockerId, blockedId)));
+    }
+
+    @Override
+    public void batch(Runnable mutations) {
+        batchDepth++;
+        try {
+            mutations.run();
+        } finally {
+            if (--batchDepth == 0) {
+                commit();
+            }
+        }
+    }
+
+    @Override
+    public void scan(TaskType type, Consumer<? super Task> action) {
+        mapOf(type).values().forEach(action);
+    }
+
+    @Override
+    public int size(TaskType type) {
+        return mapOf(type).size();
+    }
+
+    @Override
+    public void snapshot() {
+    }
+
+    @Override
+    public StringPool getStringPool() {
+        return strings;
+    }
+
+    // persistent stores write accumulated changes here, once per batch
+    protected void commit() {
+    }
+
+    // changes contents without committing, used while loading
+    protected void putLoaded(Task task) {
+        putTask(strings == null ? task : task.withTextFrom(strings));
+    }
+
+    private void putTask(Task task) {
+        int id = task.getId();
+        Map<Integer, Task> target = mapOf(TaskType.of(task));
+        if (target.put(id, task) == null) {
+            // the id may still be stored under another type
+            if (target != tasks) {
+                tasks.remove(id);
+            }
+            if (target != subtasks) {
+                subtasks.remove(id);
+            }
+            if (target != epics) {
+                epics.remove(id);
+            }
+            if (target != recurringTasks) {
+                recurringTasks.remove(id);
+            }
+        }
+    }
+
+    protected void deleteLoaded(int id) {
+        if (tasks.remove(id) == null && subtasks.remove(id) == null && epics.remove(id) == null) {
+            recurringTasks.remove(id);
+        }
+        Set<Integer> blocked = blockedByBlocker.remove(id);
+        if (blocked != null) {
+            blocked.forEach(blockedId -> removeFrom(blockersByBlocked, blockedId, id));
+        }
+        Set<Integer> blockers = blockersByBlocked.remove(id);
+        if (blockers != null) {
+            blockers.forEach(blockerId -> removeFrom(blockedByBlocker, blockerId, id));
+        }
+    }
+
+    protected void putLoadedDependency(int blockerId, int blockedId) {
+        blockedByBlocker.computeIfAbsent(blockerId, key -> new LinkedHashSet<>()).add(blockedId);
+        blockersByBlocked.computeIfAbsent(blockedId, key -> new LinkedHashSet<>()).add(blockerId);
+    }
+
+    protected void deleteLoadedDependency(int blockerId, int blockedId) {
+        if (blockedByBlocker.getOrDefault(blockerId, Set.of()).contains(blockedId)) {
+            removeFrom(blockedByBlocker, blockerId, blockedId);
+            removeFrom(blockersByBlocked, blockedId, blockerId);
+        }
+    }
+
+    protected void forEachBlocked(int blockerId, IntConsumer action) {
+        blockedByBlocker.getOrDefault(blockerId, Set.of()).forEach(action::accept);
+    }
+
+    protected void forEachBlocker(int blockedId, IntConsumer action) {
+        blockersByBlocked.getOrDefault(blockedId, Set.of()).forEach(action::accept);
+    }
+
+    private static void removeFrom(Map<Integer, Set<Integer>> edges, int key, int value) {
+        Set<Integer> values = edges.get(key);
+        values.remove(value);
+        if (values.isEmpty()) {
+            edges.remove(key);
+        }
+    }
+
+    // snapshot files do not keep epic subtask ids, they are restored from subtasks
+    protected void linkSubtasks() {
+        Map<Integer, List<Integer>> adjacency = new HashMap<>();
+        for (Task task : subtasks.values()) {
+            Subtask subtask = (Subtask) task;
+            if (!(epics.get(subtask.getEpicId()) instanceof Epic)) {
+                throw new ManagerLoadException("No epic for subtask found, subtask id: " + subtask.getId());
+            }
+            adjacency.computeIfAbsent(subtask.getEpicId(), epicId -> new ArrayList<>()).add(subtask.getId());
+        }
+        adjacency.forEach(this::linkSubtasks);
+    }
+
+    // trusted adjacency, e.g. from a saved index
+    protected void linkSubtasks(int epicId, List<Integer> subtaskIds) {
+        epics.put(epicId, ((Epic) epics.get(epicId)).withSubtaskIds(subtaskIds));
+    }
+
+    private void changed() {
+        if (batchDepth == 0) {
+            commit();
+        }
+    }
+
+    private Map<Integer, Task> mapOf(TaskType type) {
+        return switch (type) {
+            case TASK -> tasks;
+            case SUBTASK -> subtasks;
+            case EPIC -> epics;
+            case RECURRING -> recurringTasks;
+        };
+    }
+}
@@ -0,0 +1,104 @@
+package service.store;
+
+import util.AtomicFiles;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// binary sidecar of a snapshot: id high-water mark, start time order and epic -> subtask adjacency;
+// it names the size and modification time of the snapshot it was written for and is ignored for any other,
+// a save removes it before the snapshot is replaced
+final class IndexFile {
+
+    private static final int MAGIC = 0x4B424931; // "KBI1"
+
+    private IndexFile() {
+    }
+
+    static Path pathFor(Path snapshot) {
+        return snapshot.resolveSibling(snapshot.getFileName() + ".idx");
+    }
+
+    static void write(Path snapshot, TaskIndex index, Map<Integer, List<Integer>> adjacency) throws IOException {
+        Path target = pathFor(snapshot);
+        Path tempFile = AtomicFiles.createTempSibling(target);
+        try {
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(tempFile), 64 * 1024))) {
+                out.writeInt(MAGIC);
+                out.writeLong(Files.size(snapshot));
+                out.writeLong(Files.getLastModifiedTime(snapshot).toMillis());
+                out.writeInt(index.getMaxId());
+                out.writeInt(index.getStartTimeOrder().length);
+                for (int id : index.getStartTimeOrder()) {
+                    out.writeInt(id);
+                }
+                out.writeInt(adjacency.size());
+                for (Map.Entry<Integer, List<Integer>> entry : adjacency.entrySet()) {
+                    out.writeInt(entry.getKey());
+                    out.writeInt(entry.getValue().size());
+                    for (int subtaskId : entry.getValue()) {
+                        out.writeInt(subtaskId);
+                    }
+                }
+            }
+            AtomicFiles.replace(tempFile, target);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    // null if there is no index for this very snapshot
+    static Loaded read(Path snapshot) {
+        Path file = pathFor(snapshot);
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 64 * 1024))) {
+            if (in.readInt() != MAGIC
+                    || in.readLong() != Files.size(snapshot)
+                    || in.readLong() != Files.getLastModifiedTime(snapshot).toMillis()) {
+                return null;
+            }
+            int maxId = in.readInt();
+            int[] order = new int[in.readInt()];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = in.readInt();
+            }
+            int epicCount = in.readInt();
+            Map<Integer, List<Integer>> adjacency = new HashMap<>(epicCount * 4 / 3 + 1);
+            for (int i = 0; i < epicCount; i++) {
+                int epicId = in.readInt();
+                int count = in.readInt();
+                List<Integer> subtaskIds = new ArrayList<>(count);
+                for (int j = 0; j < count; j++) {
+                    subtaskIds.add(in.readInt());
+                }
+                adjacency.put(epicId, subtaskIds);
+            }
+            return new Loaded(new TaskIndex(maxId, order), adjacency);
+        } catch (IOException | RuntimeException e) {
+            return null; // a damaged index only costs a full rebuild
+        }
+    }
+
+    static final class Loaded {
+
+        final TaskIndex index;
+        final Map<Integer, List<Integer>> adjacency;
+
+        private Loaded(TaskIndex index, Map<Integer, List<Integer>> adjacency) {
+            this.index = index;
+            this.adjacency = adjacency;
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package service.store;
+
+// store that can hand over a saved index of its contents instead of a full scan
+public interface IndexedTaskStore extends TaskStore {
+
+    // index of the contents as they were opened, null if it was missing or out of date
+    TaskIndex loadedIndex();
+}
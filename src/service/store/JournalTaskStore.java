@@ -0,0 +1,178 @@
+package service.store;
+
+import model.Task;
+import model.TaskType;
+import service.exception.ManagerLoadException;
+import service.exception.ManagerSaveException;
+import util.AtomicFiles;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+// CSV snapshot plus an append-only journal of changes since it was written,
+// a change costs one appended line instead of a full rewrite
+public class JournalTaskStore extends HeapTaskStore {
+
+    private static final char PUT = '+';
+    private static final char DELETE = '-';
+    private static final char PUT_DEPENDENCY = SnapshotFormat.DEPENDENCY;
+    private static final char DELETE_DEPENDENCY = '<';
+    private static final int MIN_COMPACTION_RECORDS = 1024;
+
+    private final Path snapshotPath;
+    private final Path journalPath;
+    private final StorageOptions options;
+    private BufferedWriter journal;
+    private long records = 0;
+
+    private JournalTaskStore(Path path, StorageOptions options) {
+        super(options.getStringPool());
+        if (path == null) {
+            throw new ManagerLoadException("Path is null");
+        } else if (options.isLazyDescriptions()) {
+            throw new IllegalArgumentException("Lazy descriptions are not supported by journal storage");
+        }
+        this.snapshotPath = path;
+        this.journalPath = path.resolveSibling(path.getFileName() + ".journal");
+        this.options = options;
+    }
+
+    public static JournalTaskStore open(Path path, StorageOptions options) {
+        JournalTaskStore store = new JournalTaskStore(path, options);
+        store.load();
+        return store;
+    }
+
+    @Override
+    public void put(Task task) {
+        append(PUT + SnapshotFormat.taskToString(task));
+        super.put(task);
+    }
+
+    @Override
+    public void delete(int id) {
+        append(DELETE + String.valueOf(id) + SnapshotFormat.LINE_SEPARATOR);
+        super.delete(id);
+    }
+
+    @Override
+    public void putDependency(int blockerId, int blockedId) {
+        append(SnapshotFormat.dependencyToString(blockerId, blockedId));
+        super.putDependency(blockerId, blockedId);
+    }
+
+    @Override
+    public void deleteDependency(int blockerId, int blockedId) {
+        append(DELETE_DEPENDENCY + String.valueOf(blockerId) + "," + blockedId + SnapshotFormat.LINE_SEPARATOR);
+        super.deleteDependency(blockerId, blockedId);
+    }
+
+    @Override
+    public void snapshot() {
+        try {
+            closeJournal();
+            Path tempFile = AtomicFiles.createTempSibling(snapshotPath);
+            try (BufferedWriter out = SnapshotFormat.openWriter(tempFile, options)) {
+                for (TaskType type : new TaskType[]{TaskType.TASK, TaskType.RECURRING, TaskType.EPIC, TaskType.SUBTASK}) {
+                    List<Task> tasks = new ArrayList<>();
+                    scan(type, tasks::add);
+                    for (Task task : tasks) {
+                        out.write(SnapshotFormat.taskToString(task));
+                    }
+                }
+                List<String> dependencies = new ArrayList<>();
+                scanDependencies((blockerId, blockedId) ->
+                        dependencies.add(SnapshotFormat.dependencyToString(blockerId, blockedId)));
+                for (String dependency : dependencies) {
+                    out.write(dependency);
+                }
+            }
+            AtomicFiles.replace(tempFile, snapshotPath);
+            // a crash before this point replays the whole journal over the new snapshot, which is harmless
+            Files.deleteIfExists(journalPath);
+            records = 0;
+        } catch (IOException e) {
+            throw new ManagerSaveException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    protected void commit() {
+        if (journal == null) {
+            return;
+        }
+        try {
+            journal.flush();
+        } catch (IOException e) {
+            throw new ManagerSaveException(e.getMessage(), e);
+        }
+        if (records >= Math.max(MIN_COMPACTION_RECORDS, liveSize())) {
+            snapshot();
+        }
+    }
+
+    private void append(String record) {
+        try {
+            if (journal == null) {
+                Files.createDirectories(journalPath.toAbsolutePath().getParent());
+                journal = Files.newBufferedWriter(journalPath, SnapshotFormat.CHARSET,
+                        StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            }
+            journal.write(record);
+            records++;
+        } catch (IOException e) {
+            throw new ManagerSaveException(e.getMessage(), e);
+        }
+    }
+
+    private void closeJournal() throws IOException {
+        if (journal != null) {
+            journal.close();
+            journal = null;
+        }
+    }
+
+    private int liveSize() {
+        return size(TaskType.TASK) + size(TaskType.SUBTASK) + size(TaskType.EPIC) + size(TaskType.RECURRING);
+    }
+
+    // ---- load ----
+
+    private void load() {
+        try {
+            if (Files.exists(snapshotPath)) {
+                SnapshotFormat.readAll(snapshotPath, options, this::putLoaded, this::putLoadedDependency);
+            }
+            if (Files.exists(journalPath)) {
+                replay(Files.readString(journalPath, SnapshotFormat.CHARSET));
+            }
+        } catch (IOException e) {
+            throw new ManagerLoadException(e.getMessage(), e);
+        }
+        linkSubtasks();
+    }
+
+    private void replay(String journal) {
+        String[] lines = journal.split(SnapshotFormat.LINE_SEPARATOR, -1);
+        // the last element is empty, or a record cut off by a crash
+        for (int i = 0; i < lines.length - 1; i++) {
+            String line = lines[i];
+            if (line.isEmpty()) {
+                continue;
+            }
+            switch (line.charAt(0)) {
+                case PUT -> putLoaded(SnapshotFormat.stringToTask(line.substring(1)));
+                case DELETE -> deleteLoaded(Integer.parseInt(line.substring(1)));
+                case PUT_DEPENDENCY -> SnapshotFormat.readDependency(line, this::putLoadedDependency);
+                case DELETE_DEPENDENCY -> SnapshotFormat.readDependency(line, this::deleteLoadedDependency);
+                default -> throw new ManagerLoadException("Unknown journal record: " + line);
+            }
+            records++;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package service.store;
+
+final class LazyDescription implements CharSequence {
+
+    private final DescriptionFile file;
+    private final int length; // in bytes
+    private long offset;
+    private long pendingOffset;
+    private int generation;
+    private String pinned;
+
+    LazyDescription(DescriptionFile file, long offset, int length, int generation) {
+        this.file = file;
+        this.offset = offset;
+        this.length = length;
+        this.generation = generation;
+    }
+
+    DescriptionFile getFile() {
+        return file;
+    }
+
+    long getOffset() {
+        return offset;
+    }
+
+    int getByteLength() {
+        return length;
+    }
+
+    boolean isPinned() {
+        return pinned != null;
+    }
+
+    void pin(String text) {
+        pinned = text;
+    }
+
+    void relocate(long newOffset, int newGeneration) {
+        pendingOffset = newOffset;
+        generation = newGeneration;
+    }
+
+    int getGeneration() {
+        return generation;
+    }
+
+    void commitRelocation() {
+        offset = pendingOffset;
+    }
+
+    // ----
+
+    @Override
+    public int length() {
+        return toString().length();
+    }
+
+    @Override
+    public char charAt(int index) {
+        return toString().charAt(index);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return toString().subSequence(start, end);
+    }
+
+    @Override
+    public String toString() {
+        return pinned != null ? pinned : file.read(this);
+    }
+}
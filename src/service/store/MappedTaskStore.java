@@ -0,0 +1,365 @@
+package service.store;
+
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import model.TaskType;
+import service.exception.ManagerLoadException;
+import service.exception.ManagerSaveException;
+import util.AtomicFiles;
+import util.IntTrieSet;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+// tasks kept as records in a memory-mapped file, only an id -> offset index stays on heap;
+// a change appends a new record and marks the previous one dead, so writes go to the page cache
+// instead of rewriting a snapshot
+public class MappedTaskStore implements TaskStore {
+
+    // header: int magic, int end of written records
+    private static final int MAGIC = 0x4B424D31; // "KBM1"
+    private static final int HEADER_SIZE = 8;
+    private static final int END_OFFSET = 4;
+    private static final int INITIAL_CAPACITY = 64 * 1024;
+    private static final int MIN_COMPACTION_BYTES = 1024 * 1024;
+
+    // record: int length, byte live, byte type, int id, int csv length, csv bytes,
+    // epics only: int subtask count, subtask ids;
+    // a dependency is a bare header of type DEPENDENCY, the blocker as id and the blocked id for csv length
+    private static final int LIVE_OFFSET = 4;
+    private static final int RECORD_HEADER_SIZE = 14;
+
+    private static final TaskType[] TYPES = TaskType.values();
+    private static final byte DEPENDENCY = (byte) TYPES.length;
+
+    private final Path path;
+    private final Map<TaskType, Map<Integer, Integer>> offsets = new HashMap<>();
+    // blocker << 32 | blocked -> offset
+    private final Map<Long, Integer> dependencyOffsets = new HashMap<>();
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int end;
+    private long deadBytes = 0;
+    private int batchDepth = 0;
+
+    private MappedTaskStore(Path path) {
+        if (path == null) {
+            throw new ManagerLoadException("Path is null");
+        }
+        this.path = path;
+        for (TaskType type : TYPES) {
+            offsets.put(type, new HashMap<>());
+        }
+    }
+
+    public static MappedTaskStore open(Path path) {
+        MappedTaskStore store = new MappedTaskStore(path);
+        try {
+            store.load();
+        } catch (IOException e) {
+            throw new ManagerLoadException(e.getMessage(), e);
+        }
+        return store;
+    }
+
+    @Override
+    public Task get(int id) {
+        for (TaskType type : TYPES) {
+            Integer offset = offsets.get(type).get(id);
+            if (offset != null) {
+                return read(offset);
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void put(Task task) {
+        byte[] csv = csvOf(task);
+        IntTrieSet subtaskIds = task instanceof Epic epic ? epic.getSubtaskIdSet() : IntTrieSet.empty();
+        int length = RECORD_HEADER_SIZE + csv.length + (task instanceof Epic ? 4 + 4 * subtaskIds.size() : 0);
+        ensureCapacity(end + length);
+
+        int offset = end;
+        buffer.putInt(offset, length);
+        buffer.put(offset + LIVE_OFFSET, (byte) 1);
+        buffer.put(offset + 5, (byte) TaskType.of(task).ordinal());
+        buffer.putInt(offset + 6, task.getId());
+        buffer.putInt(offset + 10, csv.length);
+        buffer.put(offset + RECORD_HEADER_SIZE, csv);
+        if (task instanceof Epic) {
+            int position = offset + RECORD_HEADER_SIZE + csv.length;
+            buffer.putInt(position, subtaskIds.size());
+            int[] subtaskIdArray = subtaskIds.toArray();
+            for (int i = 0; i < subtaskIdArray.length; i++) {
+                buffer.putInt(position + 4 * (i + 1), subtaskIdArray[i]);
+            }
+        }
+        end += length;
+        // the new record is reachable before the old one is retired, a crash in between
+        // leaves two live records and load keeps the later one
+        buffer.putInt(END_OFFSET, end);
+
+        retire(task.getId());
+        offsets.get(TaskType.of(task)).put(task.getId(), offset);
+        changed();
+    }
+
+    @Override
+    public void delete(int id) {
+        retire(id);
+        // edges are not indexed by task, deletes are rare next to reads
+        dependencyOffsets.entrySet().removeIf(edge -> {
+            boolean touches = (int) (edge.getKey() >>> 32) == id || edge.getKey().intValue() == id;
+            if (touches) {
+                kill(edge.getValue());
+            }
+            return touches;
+        });
+        changed();
+    }
+
+    @Override
+    public void putDependency(int blockerId, int blockedId) {
+        long edge = edge(blockerId, blockedId);
+        if (!dependencyOffsets.containsKey(edge)) {
+            ensureCapacity(end + RECORD_HEADER_SIZE);
+            int offset = end;
+            buffer.putInt(offset, RECORD_HEADER_SIZE);
+            buffer.put(offset + LIVE_OFFSET, (byte) 1);
+            buffer.put(offset + 5, DEPENDENCY);
+            buffer.putInt(offset + 6, blockerId);
+            buffer.putInt(offset + 10, blockedId);
+            end += RECORD_HEADER_SIZE;
+            buffer.putInt(END_OFFSET, end);
+            dependencyOffsets.put(edge, offset);
+        }
+        changed();
+    }
+
+    @Override
+    public void deleteDependency(int blockerId, int blockedId) {
+        Integer offset = dependencyOffsets.remove(edge(blockerId, blockedId));
+        if (offset != null) {
+            kill(offset);
+        }
+        changed();
+    }
+
+    @Override
+    public void scanDependencies(DependencyAction action) {
+        for (long edge : new ArrayList<>(dependencyOffsets.keySet())) {
+            action.accept((int) (edge >>> 32), (int) edge);
+        }
+    }
+
+    @Override
+    public void batch(Runnable mutations) {
+        batchDepth++;
+        try {
+            mutations.run();
+        } finally {
+            if (--batchDepth == 0) {
+                commit();
+            }
+        }
+    }
+
+    @Override
+    public void scan(TaskType type, Consumer<? super Task> action) {
+        for (int offset : new ArrayList<>(offsets.get(type).values())) {
+            action.accept(read(offset));
+        }
+    }
+
+    @Override
+    public int size(TaskType type) {
+        return offsets.get(type).size();
+    }
+
+    // rewrites live records into a fresh file and flushes it to disk
+    @Override
+    public void snapshot() {
+        try {
+            compact();
+            buffer.force();
+        } catch (IOException e) {
+            throw new ManagerSaveException(e.getMessage(), e);
+        }
+    }
+
+    private void changed() {
+        if (batchDepth == 0) {
+            commit();
+        }
+    }
+
+    private void commit() {
+        if (deadBytes >= Math.max(MIN_COMPACTION_BYTES, end - HEADER_SIZE - deadBytes)) {
+            snapshot();
+        }
+    }
+
+    private void retire(int id) {
+        for (TaskType type : TYPES) {
+            Integer offset = offsets.get(type).remove(id);
+            if (offset != null) {
+                kill(offset);
+            }
+        }
+    }
+
+    private void kill(int offset) {
+        buffer.put(offset + LIVE_OFFSET, (byte) 0);
+        deadBytes += buffer.getInt(offset);
+    }
+
+    private static long edge(int blockerId, int blockedId) {
+        return (long) blockerId << 32 | (blockedId & 0xFFFFFFFFL);
+    }
+
+    private Task read(int offset) {
+        int csvLength = buffer.getInt(offset + 10);
+        byte[] csv = new byte[csvLength];
+        buffer.get(offset + RECORD_HEADER_SIZE, csv);
+        Task task = SnapshotFormat.stringToTask(new String(csv, SnapshotFormat.CHARSET));
+        if (task instanceof Epic epic) {
+            int position = offset + RECORD_HEADER_SIZE + csvLength;
+            int count = buffer.getInt(position);
+            IntTrieSet.Builder subtaskIds = new IntTrieSet.Builder();
+            for (int i = 0; i < count; i++) {
+                position += 4;
+                subtaskIds.add(buffer.getInt(position));
+            }
+            return epic.withSubtaskIds(subtaskIds.build());
+        }
+        return task;
+    }
+
+    private static byte[] csvOf(Task task) {
+        String line = SnapshotFormat.taskToString(task);
+        return line.substring(0, line.length() - SnapshotFormat.LINE_SEPARATOR.length()).getBytes(SnapshotFormat.CHARSET);
+    }
+
+    // ---- file ----
+
+    private void ensureCapacity(long required) {
+        if (required <= buffer.capacity()) {
+            return;
+        }
+        long capacity = buffer.capacity();
+        while (capacity < required) {
+            capacity *= 2;
+        }
+        if (capacity > Integer.MAX_VALUE) {
+            throw new ManagerSaveException("Task file is too large: " + path);
+        }
+        try {
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        } catch (IOException e) {
+            throw new ManagerSaveException(e.getMessage(), e);
+        }
+    }
+
+    private void map(Path file, int minCapacity) throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long capacity = Math.max(Math.max(channel.size(), minCapacity), INITIAL_CAPACITY);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+    }
+
+    private void compact() throws IOException {
+        List<Integer> live = new ArrayList<>();
+        for (TaskType type : TYPES) {
+            live.addAll(offsets.get(type).values());
+        }
+        live.addAll(dependencyOffsets.values());
+        live.sort(null); // keeps the write order of records
+
+        int liveBytes = 0;
+        for (int offset : live) {
+            liveBytes += buffer.getInt(offset);
+        }
+
+        Path tempFile = AtomicFiles.createTempSibling(path);
+        try (FileChannel out = FileChannel.open(tempFile, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer target = out.map(FileChannel.MapMode.READ_WRITE, 0,
+                    Math.max(INITIAL_CAPACITY, Integer.highestOneBit(HEADER_SIZE + liveBytes) * 2L));
+            target.putInt(0, MAGIC);
+            int position = HEADER_SIZE;
+            for (int offset : live) {
+                int length = buffer.getInt(offset);
+                target.put(position, buffer, offset, length);
+                position += length;
+            }
+            target.putInt(END_OFFSET, position);
+            target.force();
+        }
+        AtomicFiles.replace(tempFile, path);
+
+        for (TaskType type : TYPES) {
+            offsets.get(type).clear();
+        }
+        dependencyOffsets.clear();
+        deadBytes = 0;
+        map(path, 0);
+        index();
+    }
+
+    private void load() throws IOException {
+        boolean exists = Files.exists(path);
+        if (exists && Files.size(path) < HEADER_SIZE) {
+            throw new ManagerLoadException("Task file is truncated: " + path);
+        }
+        if (!exists) {
+            Files.createDirectories(path.toAbsolutePath().getParent());
+        }
+        map(path, INITIAL_CAPACITY);
+        if (!exists) {
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(END_OFFSET, HEADER_SIZE);
+        } else if (buffer.getInt(0) != MAGIC) {
+            throw new ManagerLoadException("Not a task file: " + path);
+        }
+        index();
+    }
+
+    private void index() {
+        end = buffer.getInt(END_OFFSET);
+        if (end < HEADER_SIZE || end > buffer.capacity()) {
+            throw new ManagerLoadException("Task file is corrupted: " + path);
+        }
+        for (int offset = HEADER_SIZE; offset < end; offset += buffer.getInt(offset)) {
+            int length = buffer.getInt(offset);
+            if (length < RECORD_HEADER_SIZE || offset + length > end) {
+                throw new ManagerLoadException("Task file is corrupted at offset " + offset + ": " + path);
+            }
+            if (buffer.get(offset + LIVE_OFFSET) == 0) {
+                deadBytes += length;
+                continue;
+            }
+            int id = buffer.getInt(offset + 6);
+            if (buffer.get(offset + 5) == DEPENDENCY) {
+                Integer replaced = dependencyOffsets.put(edge(id, buffer.getInt(offset + 10)), offset);
+                if (replaced != null) {
+                    kill(replaced);
+                }
+                continue;
+            }
+            retire(id);
+            offsets.get(TYPES[buffer.get(offset + 5)]).put(id, offset);
+        }
+    }
+}
@@ -0,0 +1,421 @@
+package service.store;
+
+import model.Epic;
+import model.RecurringTask;
+import model.Subtask;
+import model.Task;
+import model.TaskStatus;
+import model.TaskType;
+import util.EpochMinutes;
+import util.IntIntMap;
+import util.IntTrieSet;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+import static java.lang.foreign.ValueLayout.JAVA_BYTE;
+import static java.lang.foreign.ValueLayout.JAVA_INT;
+import static java.lang.foreign.ValueLayout.JAVA_LONG;
+
+// tasks kept outside the garbage collected heap: every field is a column of native memory indexed by slot,
+// names and descriptions are UTF-8 in a byte arena and epic subtask ids in an int arena; the heap holds
+// only the id -> slot map and free slots. get() and scan() decode whole tasks, the TaskColumns getters
+// read single fields in place; arena space of replaced text and subtask lists is reclaimed once it
+// outweighs the live part. Columns, text and subtask ids each live in their own Arena, which is closed
+// as soon as its memory is copied into a larger or compacted one, and by close()
+public class OffHeapTaskStore implements TaskStore, TaskColumns, AutoCloseable {
+
+    private static final int INITIAL_SLOTS = 1024;
+    private static final int INITIAL_ARENA_BYTES = 64 * 1024;
+    private static final int NO_TEXT = -1; // length of a null string
+    private static final TaskType[] TYPES = TaskType.values();
+    private static final TaskStatus[] STATUSES = TaskStatus.values();
+
+    // columns: byte type (-1 for a free slot), byte status, int id, long start, long duration,
+    // long end (epic end, recurring until), long link (subtask epic id, recurring period),
+    // int name offset and length, int description offset and length, int subtask ids offset and count
+    private Arena columnArena;
+    private MemorySegment types;
+    private MemorySegment statuses;
+    private MemorySegment ids;
+    private MemorySegment starts;
+    private MemorySegment durations;
+    private MemorySegment ends;
+    private MemorySegment links;
+    private MemorySegment names;
+    private MemorySegment descriptions;
+    private MemorySegment children;
+
+    private Arena textArena;
+    private MemorySegment text;
+    private long textEnd = 0;
+    private long deadTextBytes = 0;
+    private Arena subtaskIdArena;
+    private MemorySegment subtaskIds;
+    private long subtaskIdsEnd = 0;
+    private long deadSubtaskIdBytes = 0;
+
+    private final IntIntMap slots = new IntIntMap(INITIAL_SLOTS, -1);
+    private final int[] sizes = new int[TYPES.length];
+    private int[] freeSlots = new int[16];
+    private int freeCount = 0;
+    private int usedSlots = 0;
+    private int capacity = 0;
+
+    public OffHeapTaskStore() {
+        growSlots(INITIAL_SLOTS);
+        textArena = Arena.ofShared();
+        text = textArena.allocate(INITIAL_ARENA_BYTES, Long.BYTES);
+        subtaskIdArena = Arena.ofShared();
+        subtaskIds = subtaskIdArena.allocate(INITIAL_ARENA_BYTES, Long.BYTES);
+    }
+
+    @Override
+    public Task get(int id) {
+        int slot = slots.get(id);
+        return slot < 0 ? null : read(slot);
+    }
+
+    @Override
+    public void put(Task task) {
+        int slot = slots.get(task.getId());
+        if (slot < 0) {
+            slot = allocateSlot();
+            slots.put(task.getId(), slot);
+        } else {
+            release(slot);
+        }
+        write(slot, task);
+    }
+
+    @Override
+    public void delete(int id) {
+        int slot = slots.remove(id);
+        if (slot >= 0) {
+            release(slot);
+            types.set(JAVA_BYTE, slot, (byte) -1);
+            if (freeCount == freeSlots.length) {
+                freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+            }
+            freeSlots[freeCount++] = slot;
+        }
+    }
+
+    // nothing outlives the process, so there is nothing to persist together
+    @Override
+    public void batch(Runnable mutations) {
+        mutations.run();
+    }
+
+    @Override
+    public void scan(TaskType type, Consumer<? super Task> action) {
+        byte ordinal = (byte) type.ordinal();
+        for (int slot = 0; slot < usedSlots; slot++) {
+            if (types.get(JAVA_BYTE, slot) == ordinal) {
+                action.accept(read(slot));
+            }
+        }
+    }
+
+    @Override
+    public int size(TaskType type) {
+        return sizes[type.ordinal()];
+    }
+
+    // moves live text and subtask lists to the start of fresh arenas
+    @Override
+    public void snapshot() {
+        compact();
+    }
+
+    // frees all native memory, the store must not be used afterwards
+    @Override
+    public void close() {
+        columnArena.close();
+        textArena.close();
+        subtaskIdArena.close();
+    }
+
+    // ---- columns ----
+
+    @Override
+    public TaskType getType(int id) {
+        int slot = slots.get(id);
+        return slot < 0 ? null : TYPES[types.get(JAVA_BYTE, slot)];
+    }
+
+    @Override
+    public TaskStatus getStatus(int id) {
+        return STATUSES[statuses.get(JAVA_BYTE, slotOf(id))];
+    }
+
+    @Override
+    public long getStartMinute(int id) {
+        return starts.getAtIndex(JAVA_LONG, slotOf(id));
+    }
+
+    @Override
+    public long getDurationMinutes(int id) {
+        return durations.getAtIndex(JAVA_LONG, slotOf(id));
+    }
+
+    @Override
+    public long getEndMinute(int id) {
+        int slot = slotOf(id);
+        long start = starts.getAtIndex(JAVA_LONG, slot);
+        if (types.get(JAVA_BYTE, slot) == TaskType.EPIC.ordinal()) {
+            return ends.getAtIndex(JAVA_LONG, slot);
+        }
+        return start == EpochMinutes.NONE ? EpochMinutes.NONE : start + durations.getAtIndex(JAVA_LONG, slot);
+    }
+
+    @Override
+    public int getEpicId(int id) {
+        int slot = slotOf(id);
+        return types.get(JAVA_BYTE, slot) == TaskType.SUBTASK.ordinal() ? (int) links.getAtIndex(JAVA_LONG, slot) : 0;
+    }
+
+    @Override
+    public void forEachSubtaskId(int id, IntConsumer action) {
+        forEachSubtaskIdAt(slotOf(id), action);
+    }
+
+    // native bytes reserved for text and subtask ids
+    long arenaBytes() {
+        return text.byteSize() + subtaskIds.byteSize();
+    }
+
+    // slots handed out so far, freed ones included
+    int slotCount() {
+        return usedSlots;
+    }
+
+    private int slotOf(int id) {
+        int slot = slots.get(id);
+        if (slot < 0) {
+            throw new IllegalArgumentException("No task with id " + id);
+        }
+        return slot;
+    }
+
+    // ---- slots ----
+
+    private int allocateSlot() {
+        if (freeCount > 0) {
+            return freeSlots[--freeCount];
+        }
+        if (usedSlots == capacity) {
+            growSlots(capacity * 2);
+        }
+        return usedSlots++;
+    }
+
+    // all columns move to one new arena, the old one is freed at once
+    private void growSlots(int newCapacity) {
+        Arena arena = Arena.ofShared();
+        types = grow(arena, types, newCapacity);
+        statuses = grow(arena, statuses, newCapacity);
+        ids = grow(arena, ids, (long) newCapacity * Integer.BYTES);
+        starts = grow(arena, starts, (long) newCapacity * Long.BYTES);
+        durations = grow(arena, durations, (long) newCapacity * Long.BYTES);
+        ends = grow(arena, ends, (long) newCapacity * Long.BYTES);
+        links = grow(arena, links, (long) newCapacity * Long.BYTES);
+        names = grow(arena, names, (long) newCapacity * 2 * Integer.BYTES);
+        descriptions = grow(arena, descriptions, (long) newCapacity * 2 * Integer.BYTES);
+        children = grow(arena, children, (long) newCapacity * 2 * Integer.BYTES);
+        if (columnArena != null) {
+            columnArena.close();
+        }
+        columnArena = arena;
+        capacity = newCapacity;
+    }
+
+    // the slot's text and subtask list become garbage, its type count drops
+    private void release(int slot) {
+        sizes[types.get(JAVA_BYTE, slot)]--;
+        deadTextBytes += Math.max(0, names.getAtIndex(JAVA_INT, slot * 2L + 1))
+                + Math.max(0, descriptions.getAtIndex(JAVA_INT, slot * 2L + 1));
+        deadSubtaskIdBytes += (long) children.getAtIndex(JAVA_INT, slot * 2L + 1) * Integer.BYTES;
+    }
+
+    private void write(int slot, Task task) {
+        TaskType type = TaskType.of(task);
+        types.set(JAVA_BYTE, slot, (byte) type.ordinal());
+        statuses.set(JAVA_BYTE, slot, (byte) task.getStatus().ordinal());
+        ids.setAtIndex(JAVA_INT, slot, task.getId());
+        starts.setAtIndex(JAVA_LONG, slot, task.getStartMinute());
+        durations.setAtIndex(JAVA_LONG, slot, task.getDurationMinutes());
+        long end = EpochMinutes.NONE;
+        long link = 0;
+        if (task instanceof Subtask subtask) {
+            link = subtask.getEpicId();
+        } else if (task instanceof Epic) {
+            end = task.getEndMinute();
+        } else if (task instanceof RecurringTask recurring) {
+            end = EpochMinutes.of(recurring.getUntil());
+            link = recurring.getPeriodMinutes();
+        }
+        ends.setAtIndex(JAVA_LONG, slot, end);
+        links.setAtIndex(JAVA_LONG, slot, link);
+        writeText(names, slot, task.getName());
+        writeText(descriptions, slot, task.getRawDescription());
+        writeSubtaskIds(slot, task instanceof Epic epic ? epic.getSubtaskIdSet() : IntTrieSet.empty());
+        sizes[type.ordinal()]++;
+        compactIfWasteful();
+    }
+
+    private Task read(int slot) {
+        int id = ids.getAtIndex(JAVA_INT, slot);
+        TaskStatus status = STATUSES[statuses.get(JAVA_BYTE, slot)];
+        Duration duration = Duration.ofMinutes(durations.getAtIndex(JAVA_LONG, slot));
+        LocalDateTime start = EpochMinutes.toDateTime(starts.getAtIndex(JAVA_LONG, slot));
+        long end = ends.getAtIndex(JAVA_LONG, slot);
+        long link = links.getAtIndex(JAVA_LONG, slot);
+        String name = readText(names, slot);
+        String description = readText(descriptions, slot);
+        return switch (TYPES[types.get(JAVA_BYTE, slot)]) {
+            case TASK -> new Task(id, name, description, status, duration, start);
+            case SUBTASK -> new Subtask(id, (int) link, name, description, status, duration, start);
+            case EPIC -> new Epic(id, name, description, status, readSubtaskIds(slot), duration, start,
+                    EpochMinutes.toDateTime(end));
+            case RECURRING -> new RecurringTask(id, name, description, status, duration, start,
+                    Duration.ofMinutes(link), EpochMinutes.toDateTime(end));
+        };
+    }
+
+    // ---- arenas ----
+
+    private void writeText(MemorySegment column, int slot, CharSequence value) {
+        if (value == null) {
+            column.setAtIndex(JAVA_INT, slot * 2L, 0);
+            column.setAtIndex(JAVA_INT, slot * 2L + 1, NO_TEXT);
+            return;
+        }
+        byte[] bytes = value.toString().getBytes(StandardCharsets.UTF_8);
+        if (textEnd + bytes.length > text.byteSize()) {
+            Arena arena = Arena.ofShared();
+            text = grow(arena, text, arenaCapacity(text.byteSize(), textEnd + bytes.length));
+            textArena.close();
+            textArena = arena;
+        }
+        MemorySegment.copy(bytes, 0, text, JAVA_BYTE, textEnd, bytes.length);
+        column.setAtIndex(JAVA_INT, slot * 2L, (int) textEnd);
+        column.setAtIndex(JAVA_INT, slot * 2L + 1, bytes.length);
+        textEnd += bytes.length;
+    }
+
+    private String readText(MemorySegment column, int slot) {
+        int length = column.getAtIndex(JAVA_INT, slot * 2L + 1);
+        if (length == NO_TEXT) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        MemorySegment.copy(text, JAVA_BYTE, column.getAtIndex(JAVA_INT, slot * 2L), bytes, 0, length);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private void writeSubtaskIds(int slot, IntTrieSet values) {
+        long bytes = (long) values.size() * Integer.BYTES;
+        if (subtaskIdsEnd + bytes > subtaskIds.byteSize()) {
+            Arena arena = Arena.ofShared();
+            subtaskIds = grow(arena, subtaskIds, arenaCapacity(subtaskIds.byteSize(), subtaskIdsEnd + bytes));
+            subtaskIdArena.close();
+            subtaskIdArena = arena;
+        }
+        children.setAtIndex(JAVA_INT, slot * 2L, (int) subtaskIdsEnd);
+        children.setAtIndex(JAVA_INT, slot * 2L + 1, values.size());
+        values.forEach(value -> {
+            subtaskIds.set(JAVA_INT, subtaskIdsEnd, value);
+            subtaskIdsEnd += Integer.BYTES;
+        });
+    }
+
+    // ids were written in ascending order, the builder takes them without sorting
+    private IntTrieSet readSubtaskIds(int slot) {
+        IntTrieSet.Builder builder = new IntTrieSet.Builder();
+        forEachSubtaskIdAt(slot, builder::add);
+        return builder.build();
+    }
+
+    private void forEachSubtaskIdAt(int slot, IntConsumer action) {
+        long offset = children.getAtIndex(JAVA_INT, slot * 2L);
+        int count = children.getAtIndex(JAVA_INT, slot * 2L + 1);
+        for (int i = 0; i < count; i++) {
+            action.accept(subtaskIds.get(JAVA_INT, offset + (long) i * Integer.BYTES));
+        }
+    }
+
+    private void compactIfWasteful() {
+        if (deadTextBytes > Math.max(INITIAL_ARENA_BYTES, textEnd - deadTextBytes)
+                || deadSubtaskIdBytes > Math.max(INITIAL_ARENA_BYTES, subtaskIdsEnd - deadSubtaskIdBytes)) {
+            compact();
+        }
+    }
+
+    private void compact() {
+        Arena newTextArena = Arena.ofShared();
+        Arena newSubtaskIdArena = Arena.ofShared();
+        MemorySegment oldText = text;
+        MemorySegment oldSubtaskIds = subtaskIds;
+        text = newTextArena.allocate(arenaCapacity(INITIAL_ARENA_BYTES, textEnd - deadTextBytes), Long.BYTES);
+        subtaskIds = newSubtaskIdArena.allocate(
+                arenaCapacity(INITIAL_ARENA_BYTES, subtaskIdsEnd - deadSubtaskIdBytes), Long.BYTES);
+        textEnd = 0;
+        subtaskIdsEnd = 0;
+        for (int slot = 0; slot < usedSlots; slot++) {
+            if (types.get(JAVA_BYTE, slot) >= 0) {
+                textEnd = move(oldText, names, slot, 1, text, textEnd);
+                textEnd = move(oldText, descriptions, slot, 1, text, textEnd);
+                subtaskIdsEnd = move(oldSubtaskIds, children, slot, Integer.BYTES, subtaskIds, subtaskIdsEnd);
+            }
+        }
+        textArena.close();
+        subtaskIdArena.close();
+        textArena = newTextArena;
+        subtaskIdArena = newSubtaskIdArena;
+        deadTextBytes = 0;
+        deadSubtaskIdBytes = 0;
+    }
+
+    // copies the slot's range of elements from one arena to the end of another, returns the new end
+    private static long move(MemorySegment from, MemorySegment column, int slot, int elementBytes,
+                             MemorySegment to, long end) {
+        int length = column.getAtIndex(JAVA_INT, slot * 2L + 1);
+        if (length == NO_TEXT) {
+            return end;
+        }
+        long bytes = (long) length * elementBytes;
+        MemorySegment.copy(from, column.getAtIndex(JAVA_INT, slot * 2L), to, end, bytes);
+        column.setAtIndex(JAVA_INT, slot * 2L, (int) end);
+        return end + bytes;
+    }
+
+    // ----
+
+    // offsets are kept as ints in the columns
+    private static long arenaCapacity(long current, long needed) {
+        long capacity = Math.max(current, 16);
+        while (capacity < needed) {
+            capacity *= 2;
+        }
+        if (capacity > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Off-heap arena is full");
+        }
+        return capacity;
+    }
+
+    // zero filled, the old contents copied to the start
+    private static MemorySegment grow(Arena arena, MemorySegment segment, long bytes) {
+        MemorySegment grown = arena.allocate(bytes, Long.BYTES);
+        if (segment != null) {
+            MemorySegment.copy(segment, 0, grown, 0, segment.byteSize());
+        }
+        return grown;
+    }
+}
@@ -0,0 +1,358 @@
+package service.store;
+
+import model.Subtask;
+import model.Task;
+import model.TaskType;
+import service.exception.ManagerLoadException;
+import service.exception.ManagerSaveException;
+import util.AtomicFiles;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+// board split into shard files by epic (subtasks go with their epic) or by id for standalone tasks,
+// the manifest names the shard files of the last complete save
+public class ShardedFileTaskStore extends HeapTaskStore {
+
+    private static final String MANIFEST = "manifest";
+    private static final String SHARD_PREFIX = "shard-";
+    private static final String SHARD_SUFFIX = ".csv";
+    private static final TaskType[] WRITE_ORDER = {TaskType.TASK, TaskType.RECURRING, TaskType.EPIC, TaskType.SUBTASK};
+
+    private final Path directory;
+    private final int shardCount;
+    private final Executor executor;
+    private final StorageOptions options;
+    private final BitSet dirtyShards = new BitSet();
+    // ids stored in each shard, so a save reads only the dirty shards
+    private final List<Set<Integer>> shardMembers;
+    private final List<String> staleFiles = new ArrayList<>();
+    private String[] shardFiles;
+    private long generation = 0;
+
+    private record Manifest(long generation, int shardCount, List<Integer> shards, List<String> files) {
+    }
+
+    // a dependency is kept in the shard of its blocked task, as {blockerId, blockedId}
+    private record Shard(List<Task> tasks, List<int[]> dependencies) {
+    }
+
+    // starts empty; an existing manifest stays the last complete save until the first save replaces it,
+    // its generation is continued so none of its files is overwritten, and they are deleted afterwards
+    public ShardedFileTaskStore(Path directory, int shardCount, Executor executor, StorageOptions options) {
+        this(directory, shardCount, executor, options, false);
+    }
+
+    private ShardedFileTaskStore(
+            Path directory,
+            int shardCount,
+            Executor executor,
+            StorageOptions options,
+            boolean load
+    ) {
+        super(options.getStringPool());
+        if (directory == null) {
+            throw new ManagerLoadException("Directory is null");
+        } else if (shardCount <= 0) {
+            throw new IllegalArgumentException("Shard count must be positive");
+        } else if (options.isLazyDescriptions()) {
+            throw new IllegalArgumentException("Lazy descriptions are not supported by sharded storage");
+        }
+        this.directory = directory;
+        this.shardCount = shardCount;
+        this.executor = executor;
+        this.options = options;
+        this.shardFiles = new String[shardCount];
+        this.shardMembers = new ArrayList<>(shardCount);
+        for (int i = 0; i < shardCount; i++) {
+            shardMembers.add(new HashSet<>());
+        }
+
+        Manifest manifest = readManifest();
+        Set<String> manifestFiles = new HashSet<>();
+        if (manifest != null) {
+            if (load) {
+                loadShards(manifest);
+            } else {
+                generation = manifest.generation();
+                staleFiles.addAll(manifest.files());
+            }
+            manifestFiles.addAll(manifest.files());
+        }
+        removeStrayFiles(manifestFiles);
+    }
+
+    public static ShardedFileTaskStore open(Path directory, int shardCount, Executor executor, StorageOptions options) {
+        ShardedFileTaskStore store = new ShardedFileTaskStore(directory, shardCount, executor, options, true);
+        store.save(); // writes shards again if the shard count has changed
+        return store;
+    }
+
+    @Override
+    public void put(Task task) {
+        leaveShard(get(task.getId()));
+        joinShard(task);
+        super.put(task);
+    }
+
+    @Override
+    public void delete(int id) {
+        leaveShard(get(id));
+        forEachBlocked(id, blockedId -> dirtyShards.set(shardOf(get(blockedId))));
+        super.delete(id);
+    }
+
+    @Override
+    public void putDependency(int blockerId, int blockedId) {
+        dirtyShards.set(shardOf(get(blockedId)));
+        super.putDependency(blockerId, blockedId);
+    }
+
+    @Override
+    public void deleteDependency(int blockerId, int blockedId) {
+        dirtyShards.set(shardOf(get(blockedId)));
+        super.deleteDependency(blockerId, blockedId);
+    }
+
+    @Override
+    protected void putLoaded(Task task) {
+        leaveShard(get(task.getId()));
+        shardMembers.get(shardOf(task)).add(task.getId());
+        super.putLoaded(task);
+    }
+
+    @Override
+    public void snapshot() {
+        dirtyShards.set(0, shardCount);
+        save();
+    }
+
+    @Override
+    protected void commit() {
+        save();
+    }
+
+    // ---- partitioning ----
+
+    private int shardOf(int id) {
+        int hash = id * 0x9E3779B9; // spreads consecutive ids
+        return Math.floorMod(hash ^ (hash >>> 16), shardCount);
+    }
+
+    private int shardOf(Task task) {
+        return task instanceof Subtask subtask ? shardOf(subtask.getEpicId()) : shardOf(task.getId());
+    }
+
+    private void joinShard(Task task) {
+        int shard = shardOf(task);
+        shardMembers.get(shard).add(task.getId());
+        dirtyShards.set(shard);
+    }
+
+    private void leaveShard(Task task) {
+        if (task != null) {
+            int shard = shardOf(task);
+            shardMembers.get(shard).remove(task.getId());
+            dirtyShards.set(shard);
+        }
+    }
+
+    // tasks of one shard, grouped by type in write order, and the dependencies of its tasks
+    private Shard shardContents(int shard) {
+        List<List<Task>> byType = new ArrayList<>(TaskType.values().length);
+        for (int i = 0; i < TaskType.values().length; i++) {
+            byType.add(new ArrayList<>());
+        }
+        for (int id : shardMembers.get(shard)) {
+            Task task = get(id);
+            byType.get(TaskType.of(task).ordinal()).add(task);
+        }
+        List<Task> contents = new ArrayList<>(shardMembers.get(shard).size());
+        for (TaskType type : WRITE_ORDER) {
+            contents.addAll(byType.get(type.ordinal()));
+        }
+        List<int[]> dependencies = new ArrayList<>();
+        for (int id : shardMembers.get(shard)) {
+            forEachBlocker(id, blockerId -> dependencies.add(new int[]{blockerId, id}));
+        }
+        return new Shard(contents, dependencies);
+    }
+
+    // ---- save ----
+
+    private void save() {
+        if (dirtyShards.isEmpty()) {
+            return;
+        }
+
+        long nextGeneration = generation + 1;
+
+        String[] nextFiles = shardFiles.clone();
+        List<Path> written = new ArrayList<>();
+        List<CompletableFuture<Void>> writes = new ArrayList<>();
+        for (int i = dirtyShards.nextSetBit(0); i >= 0; i = dirtyShards.nextSetBit(i + 1)) {
+            nextFiles[i] = SHARD_PREFIX + i + "-" + nextGeneration + SHARD_SUFFIX;
+            Path file = directory.resolve(nextFiles[i]);
+            Shard shard = shardContents(i);
+            written.add(file);
+            writes.add(CompletableFuture.runAsync(() -> writeShard(file, shard), executor));
+        }
+
+        try {
+            CompletableFuture.allOf(writes.toArray(new CompletableFuture<?>[0])).join();
+            writeManifest(nextGeneration, nextFiles);
+        } catch (CompletionException | ManagerSaveException e) {
+            // the manifest still points to the previous generation
+            written.forEach(ShardedFileTaskStore::deleteQuietly);
+            Throwable cause = e instanceof CompletionException ? e.getCause() : e;
+            throw cause instanceof ManagerSaveException mse ? mse : new ManagerSaveException(cause.getMessage(), cause);
+        }
+
+        for (int i = dirtyShards.nextSetBit(0); i >= 0; i = dirtyShards.nextSetBit(i + 1)) {
+            if (shardFiles[i] != null) {
+                deleteQuietly(directory.resolve(shardFiles[i]));
+            }
+        }
+        staleFiles.forEach(name -> deleteQuietly(directory.resolve(name)));
+        staleFiles.clear();
+
+        shardFiles = nextFiles;
+        generation = nextGeneration;
+        dirtyShards.clear();
+    }
+
+    private void writeShard(Path file, Shard shard) {
+        try {
+            Files.createDirectories(directory);
+            try (BufferedWriter out = SnapshotFormat.openWriter(file, options)) {
+                for (Task task : shard.tasks()) {
+                    out.write(SnapshotFormat.taskToString(task));
+                }
+                for (int[] dependency : shard.dependencies()) {
+                    out.write(SnapshotFormat.dependencyToString(dependency[0], dependency[1]));
+                }
+            }
+        } catch (IOException e) {
+            throw new ManagerSaveException(e.getMessage(), e);
+        }
+    }
+
+    private void writeManifest(long generation, String[] files) {
+        try {
+            Path tempFile = AtomicFiles.createTempSibling(directory.resolve(MANIFEST));
+            try (BufferedWriter out = Files.newBufferedWriter(tempFile, SnapshotFormat.CHARSET)) {
+                out.write("generation," + generation + SnapshotFormat.LINE_SEPARATOR);
+                out.write("shards," + files.length + SnapshotFormat.LINE_SEPARATOR);
+                for (int i = 0; i < files.length; i++) {
+                    if (files[i] != null) {
+                        out.write(i + "," + files[i] + SnapshotFormat.LINE_SEPARATOR);
+                    }
+                }
+            }
+            AtomicFiles.replace(tempFile, directory.resolve(MANIFEST));
+        } catch (IOException e) {
+            throw new ManagerSaveException(e.getMessage(), e);
+        }
+    }
+
+    // ---- load ----
+
+    // null when there is none
+    private Manifest readManifest() {
+        Path manifest = directory.resolve(MANIFEST);
+        if (!Files.exists(manifest)) {
+            return null;
+        }
+        List<String> files = new ArrayList<>();
+        List<Integer> shards = new ArrayList<>();
+        try {
+            List<String> lines = Files.readAllLines(manifest, SnapshotFormat.CHARSET);
+            long manifestGeneration = Long.parseLong(lines.get(0).split(",")[1]);
+            int manifestShardCount = Integer.parseInt(lines.get(1).split(",")[1]);
+            for (String line : lines.subList(2, lines.size())) {
+                String[] parts = line.split(",");
+                shards.add(Integer.parseInt(parts[0]));
+                files.add(parts[1]);
+            }
+            return new Manifest(manifestGeneration, manifestShardCount, shards, files);
+        } catch (IOException | RuntimeException e) {
+            throw new ManagerLoadException("Manifest is corrupted: " + e.getMessage(), e);
+        }
+    }
+
+    private void loadShards(Manifest manifest) {
+        generation = manifest.generation();
+        List<String> files = manifest.files();
+        List<Integer> shards = manifest.shards();
+
+        List<CompletableFuture<Shard>> reads = new ArrayList<>();
+        for (String file : files) {
+            reads.add(CompletableFuture.supplyAsync(() -> readShard(directory.resolve(file)), executor));
+        }
+        try {
+            List<Shard> loaded = reads.stream().map(CompletableFuture::join).toList();
+            loaded.forEach(shard -> shard.tasks().forEach(this::putLoaded));
+            loaded.forEach(shard -> shard.dependencies().forEach(dependency ->
+                    putLoadedDependency(dependency[0], dependency[1])));
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof ManagerLoadException mle ? mle : new ManagerLoadException(e.getMessage(), e);
+        }
+        linkSubtasks();
+
+        if (manifest.shardCount() == shardCount) {
+            for (int i = 0; i < shards.size(); i++) {
+                shardFiles[shards.get(i)] = files.get(i);
+            }
+        } else {
+            staleFiles.addAll(files);
+            dirtyShards.set(0, shardCount);
+        }
+    }
+
+    private Shard readShard(Path file) {
+        List<Task> tasks = new ArrayList<>();
+        List<int[]> dependencies = new ArrayList<>();
+        try {
+            SnapshotFormat.readAll(file, options, tasks::add,
+                    (blockerId, blockedId) -> dependencies.add(new int[]{blockerId, blockedId}));
+            return new Shard(tasks, dependencies);
+        } catch (IOException e) {
+            throw new ManagerLoadException(e.getMessage(), e);
+        }
+    }
+
+    // shard files of interrupted saves are not referenced by the manifest
+    private void removeStrayFiles(Set<String> manifestFiles) {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, SHARD_PREFIX + "*")) {
+            for (Path file : files) {
+                if (!manifestFiles.contains(file.getFileName().toString())) {
+                    deleteQuietly(file);
+                }
+            }
+        } catch (IOException e) {
+            throw new ManagerLoadException(e.getMessage(), e);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ignored) {
+            // removed as a stray file on next load
+        }
+    }
+}
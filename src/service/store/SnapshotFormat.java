@@ -0,0 +1,216 @@
+package service.store;
+
+import model.*;
+import service.exception.ManagerLoadException;
+import util.IntTrieSet;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.function.Consumer;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+// CSV line format of snapshot files, plain or deflated
+final class SnapshotFormat {
+
+    static final Charset CHARSET = StandardCharsets.UTF_8;
+    static final String LINE_SEPARATOR = "\n";
+    // compressed snapshots start with it, plain CSV always starts with a digit
+    private static final byte[] COMPRESSED_MAGIC = {'K', 'B', 'Z', '1'};
+    // dependency lines follow the tasks: >blockerId,blockedId
+    static final char DEPENDENCY = '>';
+
+    private SnapshotFormat() {
+    }
+
+    static BufferedWriter openWriter(Path file, StorageOptions options) throws IOException {
+        OutputStream out = Files.newOutputStream(file);
+        if (options.isCompressed()) {
+            out.write(COMPRESSED_MAGIC);
+            Deflater deflater = new Deflater(options.getCompressionLevel());
+            out = new DeflaterOutputStream(out, deflater, options.getCompressionBufferSize()) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        deflater.end();
+                    }
+                }
+            };
+        }
+        return new BufferedWriter(new OutputStreamWriter(out, CHARSET));
+    }
+
+    // compression is detected by the header, not by the options
+    static BufferedReader openReader(Path file, StorageOptions options) throws IOException {
+        InputStream in = new BufferedInputStream(Files.newInputStream(file), options.getCompressionBufferSize());
+        in.mark(COMPRESSED_MAGIC.length);
+        if (Arrays.equals(in.readNBytes(COMPRESSED_MAGIC.length), COMPRESSED_MAGIC)) {
+            Inflater inflater = new Inflater();
+            in = new InflaterInputStream(in, inflater, options.getCompressionBufferSize()) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        inflater.end();
+                    }
+                }
+            };
+        } else {
+            in.reset();
+        }
+        return new BufferedReader(new InputStreamReader(in, CHARSET));
+    }
+
+    static boolean isCompressed(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            return Arrays.equals(in.readNBytes(COMPRESSED_MAGIC.length), COMPRESSED_MAGIC);
+        }
+    }
+
+    static void readAll(Path file, StorageOptions options, Consumer<Task> tasks,
+                        TaskStore.DependencyAction dependencies) throws IOException {
+        try (BufferedReader in = openReader(file, options)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (isDependency(line)) {
+                    readDependency(line, dependencies);
+                } else {
+                    tasks.accept(stringToTask(line));
+                }
+            }
+        }
+    }
+
+    static boolean isDependency(String line) {
+        return !line.isEmpty() && line.charAt(0) == DEPENDENCY;
+    }
+
+    static void readDependency(String line, TaskStore.DependencyAction action) {
+        int comma = line.indexOf(',');
+        try {
+            action.accept(Integer.parseInt(line, 1, comma, 10), Integer.parseInt(line, comma + 1, line.length(), 10));
+        } catch (RuntimeException e) {
+            throw new ManagerLoadException("Dependency parsing error: " + line, e);
+        }
+    }
+
+    static String dependencyToString(int blockerId, int blockedId) {
+        return DEPENDENCY + String.valueOf(blockerId) + "," + blockedId + LINE_SEPARATOR;
+    }
+
+    static Task stringToTask(String string) {
+        String[] parts = string.split(",");
+        return partsToTask(parts, parts.length > 4 ? parts[4] : null);
+    }
+
+    static Task partsToTask(String[] parts, CharSequence desc) {
+        if (parts.length != 9) {
+            throw new ManagerLoadException(
+                    "Line parsing error, expected 9 columns, provided: " + parts.length);
+        }
+
+        int id = Integer.parseInt(parts[0]);
+        TaskType type = TaskType.valueOf(parts[1]);
+        String name = parts[2];
+        TaskStatus status = TaskStatus.valueOf(parts[3]);
+        int epicId = Integer.parseInt(parts[5]);
+        LocalDateTime startTime = parseDate(parts[6]);
+        Duration duration = Duration.ofMinutes(Integer.parseInt(parts[7]));
+        LocalDateTime endTime = parseDate(parts[8]);
+
+        return switch (type) {
+            case TaskType.EPIC -> new Epic(id, name, desc, status, IntTrieSet.empty(), duration, startTime, endTime);
+            case TaskType.SUBTASK -> new Subtask(id, epicId, name, desc, status, duration, startTime);
+            // the epic column holds the period in minutes, the end column the until time
+            case TaskType.RECURRING -> new RecurringTask(id, name, desc, status, duration, startTime,
+                    Duration.ofMinutes(epicId), endTime);
+            default -> new Task(id, name, desc, status, duration, startTime);
+        };
+    }
+
+    // "null" and "0" mark a missing time, without the cost of a failed parse on every line
+    private static LocalDateTime parseDate(String dateString) {
+        if (dateString.equals("null") || dateString.equals("0")) {
+            return null;
+        }
+        try {
+            if (isMinutePrecision(dateString)) {
+                return LocalDateTime.of(
+                        digits(dateString, 0, 4),
+                        digits(dateString, 5, 7),
+                        digits(dateString, 8, 10),
+                        digits(dateString, 11, 13),
+                        digits(dateString, 14, 16));
+            }
+            return LocalDateTime.parse(dateString);
+        } catch (DateTimeException e) {
+            return null;
+        }
+    }
+
+    // yyyy-MM-ddTHH:mm, as LocalDateTime.toString() prints times without seconds
+    private static boolean isMinutePrecision(String s) {
+        if (s.length() != 16 || s.charAt(4) != '-' || s.charAt(7) != '-' || s.charAt(10) != 'T' || s.charAt(13) != ':') {
+            return false;
+        }
+        for (int i = 0; i < 16; i++) {
+            if (i != 4 && i != 7 && i != 10 && i != 13 && (s.charAt(i) < '0' || s.charAt(i) > '9')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int digits(String s, int from, int to) {
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            value = value * 10 + (s.charAt(i) - '0');
+        }
+        return value;
+    }
+
+    static String taskToString(Task t) {
+        return taskToString(t, t.getDescription());
+    }
+
+    // the line with the given description in place of the task's own
+    static String taskToString(Task t, String description) {
+        // id,type,name,status,description,epic,startTime,duration,endTime
+        String commonTemplate = String.format("%s,%s,%s,%s,%s,%s,%s,%s,%s" + LINE_SEPARATOR,
+                t.getId(),
+                "%s", // task type
+                t.getName(),
+                t.getStatus(),
+                description,
+                "%s", // epicId
+                t.getStartTime(),
+                t.getDuration().toMinutes(),
+                "%s" // endTime for epics only
+        );
+        return switch (t) {
+            case Epic e -> String.format(commonTemplate, TaskType.EPIC, "0", e.getEndTime());
+            case Subtask s -> String.format(commonTemplate, TaskType.SUBTASK, s.getEpicId(), "0");
+            case RecurringTask r -> String.format(commonTemplate, TaskType.RECURRING, r.getPeriodMinutes(), r.getUntil());
+            default -> String.format(commonTemplate, TaskType.TASK, "0", "0");
+        };
+    }
+}
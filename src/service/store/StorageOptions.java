@@ -0,0 +1,91 @@
+package service.store;
+
+import util.StringPool;
+
+import java.util.zip.Deflater;
+
+public final class StorageOptions {
+
+    public static final int DEFAULT_COMPRESSION_BUFFER_SIZE = 64 * 1024;
+    public static final StorageOptions DEFAULT = new StorageOptions(0, false, Deflater.DEFAULT_COMPRESSION,
+            DEFAULT_COMPRESSION_BUFFER_SIZE, null);
+
+    // 0 means descriptions are loaded eagerly
+    private final int descriptionCacheSize;
+    private final boolean compressed;
+    private final int compressionLevel;
+    private final int compressionBufferSize;
+    // null means names and descriptions are not pooled
+    private final StringPool stringPool;
+
+    private StorageOptions(int descriptionCacheSize, boolean compressed, int compressionLevel, int compressionBufferSize,
+                           StringPool stringPool) {
+        this.descriptionCacheSize = descriptionCacheSize;
+        this.compressed = compressed;
+        this.compressionLevel = compressionLevel;
+        this.compressionBufferSize = compressionBufferSize;
+        this.stringPool = stringPool;
+    }
+
+    public StorageOptions withLazyDescriptions(int cacheSize) {
+        if (cacheSize <= 0) {
+            throw new IllegalArgumentException("Description cache size must be positive");
+        } else if (compressed) {
+            throw new IllegalArgumentException("Lazy descriptions need an uncompressed snapshot");
+        }
+        return new StorageOptions(cacheSize, compressed, compressionLevel, compressionBufferSize, stringPool);
+    }
+
+    public StorageOptions withEagerDescriptions() {
+        return new StorageOptions(0, compressed, compressionLevel, compressionBufferSize, stringPool);
+    }
+
+    public StorageOptions withCompression(int level, int bufferSize) {
+        if (level != Deflater.DEFAULT_COMPRESSION && (level < Deflater.NO_COMPRESSION || level > Deflater.BEST_COMPRESSION)) {
+            throw new IllegalArgumentException("Compression level must be in 0..9 or -1 for default");
+        } else if (bufferSize <= 0) {
+            throw new IllegalArgumentException("Compression buffer size must be positive");
+        } else if (isLazyDescriptions()) {
+            throw new IllegalArgumentException("Lazy descriptions need an uncompressed snapshot");
+        }
+        return new StorageOptions(descriptionCacheSize, true, level, bufferSize, stringPool);
+    }
+
+    public StorageOptions withCompression() {
+        return withCompression(Deflater.DEFAULT_COMPRESSION, DEFAULT_COMPRESSION_BUFFER_SIZE);
+    }
+
+    public StorageOptions withStringPool(StringPool stringPool) {
+        return new StorageOptions(descriptionCacheSize, compressed, compressionLevel, compressionBufferSize, stringPool);
+    }
+
+    public StorageOptions withoutCompression() {
+        return new StorageOptions(descriptionCacheSize, false, compressionLevel, compressionBufferSize, stringPool);
+    }
+
+    // ----
+
+    public boolean isLazyDescriptions() {
+        return descriptionCacheSize > 0;
+    }
+
+    public int getDescriptionCacheSize() {
+        return descriptionCacheSize;
+    }
+
+    public boolean isCompressed() {
+        return compressed;
+    }
+
+    public int getCompressionLevel() {
+        return compressionLevel;
+    }
+
+    public int getCompressionBufferSize() {
+        return compressionBufferSize;
+    }
+
+    public StringPool getStringPool() {
+        return stringPool;
+    }
+}
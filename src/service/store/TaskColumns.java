@@ -0,0 +1,30 @@
+package service.store;
+
+import model.TaskStatus;
+import model.TaskType;
+
+import java.util.function.IntConsumer;
+
+// fields of stored tasks read in place, for stores that keep them as columns: roll-ups and checks
+// over many tasks need a few numbers each and no task objects; other getters expect a stored id
+public interface TaskColumns {
+
+    // null when no task has the id
+    TaskType getType(int id);
+
+    TaskStatus getStatus(int id);
+
+    // EpochMinutes.NONE without a start time
+    long getStartMinute(int id);
+
+    long getDurationMinutes(int id);
+
+    // EpochMinutes.NONE without a start time, an epic's end is its latest subtask end
+    long getEndMinute(int id);
+
+    // epic of a subtask, 0 for other types
+    int getEpicId(int id);
+
+    // subtask ids of an epic in ascending order, none for other types
+    void forEachSubtaskId(int id, IntConsumer action);
+}
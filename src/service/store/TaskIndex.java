@@ -0,0 +1,22 @@
+package service.store;
+
+// data the task manager derives from store contents, saved next to them to skip rebuilding on load
+public final class TaskIndex {
+
+    private final int maxId;
+    private final int[] startTimeOrder;
+
+    public TaskIndex(int maxId, int[] startTimeOrder) {
+        this.maxId = maxId;
+        this.startTimeOrder = startTimeOrder;
+    }
+
+    public int getMaxId() {
+        return maxId;
+    }
+
+    // ids of tasks and subtasks that have a start time, ordered by it
+    public int[] getStartTimeOrder() {
+        return startTimeOrder;
+    }
+}
@@ -0,0 +1,49 @@
+package service.store;
+
+import model.Task;
+import model.TaskType;
+import util.StringPool;
+
+import java.util.function.Consumer;
+
+// storage of tasks of all types by id, business rules live in the task manager
+public interface TaskStore {
+
+    Task get(int id);
+
+    // inserts or replaces a task with the same id
+    void put(Task task);
+
+    void delete(int id);
+
+    // changes made by mutations are persisted together, once the outermost batch completes
+    void batch(Runnable mutations);
+
+    void scan(TaskType type, Consumer<? super Task> action);
+
+    int size(TaskType type);
+
+    // writes a compact image of the current contents
+    void snapshot();
+
+    // blocker -> blocked edges between stored tasks, an edge goes away with either of its tasks; stores
+    // that do not outlive the process need not keep them, the task manager has its own graph
+    default void putDependency(int blockerId, int blockedId) {
+    }
+
+    default void deleteDependency(int blockerId, int blockedId) {
+    }
+
+    default void scanDependencies(DependencyAction action) {
+    }
+
+    // pool the task manager takes names and descriptions of new tasks from, null for none
+    default StringPool getStringPool() {
+        return null;
+    }
+
+    @FunctionalInterface
+    interface DependencyAction {
+        void accept(int blockerId, int blockedId);
+    }
+}
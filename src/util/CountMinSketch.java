@@ -0,0 +1,61 @@
+package util;
+
+// fixed-memory frequency estimates for int keys in four rows of counters, never under the true count;
+// conservative update only raises the counters that hold the current minimum
+public class CountMinSketch {
+
+    private final int mask;
+    private final int rowSize;
+    private final int[] counters;
+
+    public CountMinSketch(int width) {
+        if (width <= 0) {
+            throw new IllegalArgumentException("Sketch width must be positive");
+        }
+        rowSize = Integer.highestOneBit(width - 1 | 1) << 1;
+        mask = rowSize - 1;
+        counters = new int[4 * rowSize];
+    }
+
+    // counts one occurrence and returns the new estimate
+    public int increment(int key) {
+        int h1 = spread(key);
+        int h2 = spread(h1) | 1;
+        int i0 = h1 & mask;
+        int i1 = rowSize + ((h1 + h2) & mask);
+        int i2 = 2 * rowSize + ((h1 + 2 * h2) & mask);
+        int i3 = 3 * rowSize + ((h1 + 3 * h2) & mask);
+
+        int min = Math.min(Math.min(counters[i0], counters[i1]), Math.min(counters[i2], counters[i3]));
+        if (min == Integer.MAX_VALUE) {
+            return min;
+        }
+        int next = min + 1;
+        // counters above the minimum already reach next and stay as they are
+        counters[i0] = Math.max(counters[i0], next);
+        counters[i1] = Math.max(counters[i1], next);
+        counters[i2] = Math.max(counters[i2], next);
+        counters[i3] = Math.max(counters[i3], next);
+        return next;
+    }
+
+    public int estimate(int key) {
+        int h1 = spread(key);
+        int h2 = spread(h1) | 1;
+        return Math.min(
+                Math.min(counters[h1 & mask], counters[rowSize + ((h1 + h2) & mask)]),
+                Math.min(counters[2 * rowSize + ((h1 + 2 * h2) & mask)], counters[3 * rowSize + ((h1 + 3 * h2) & mask)]));
+    }
+
+    // ages all counts, so old activity fades out window by window
+    public void halve() {
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] >>>= 1;
+        }
+    }
+
+    private static int spread(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
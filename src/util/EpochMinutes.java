@@ -0,0 +1,27 @@
+package util;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+// task times as minutes since 1970-01-01T00:00 of the local time line, sub-minute parts are dropped
+public final class EpochMinutes {
+
+    // no time set
+    public static final long NONE = Long.MIN_VALUE;
+
+    private EpochMinutes() {
+    }
+
+    public static long of(LocalDateTime time) {
+        return time == null ? NONE : Math.floorDiv(time.toEpochSecond(ZoneOffset.UTC), 60);
+    }
+
+    public static LocalDateTime toDateTime(long minute) {
+        return minute == NONE ? null : LocalDateTime.ofEpochSecond(minute * 60, 0, ZoneOffset.UTC);
+    }
+
+    public static long of(Duration duration) {
+        return duration == null ? 0 : duration.toMinutes();
+    }
+}
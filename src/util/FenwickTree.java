@@ -0,0 +1,67 @@
+package util;
+
+// long values at indexes 0..size-1 with adds to ranges and sums over ranges, both O(log size);
+// a range add of x on [from, to) is kept as x at from and -x at to in one tree and as the same
+// deltas times the index in a second one, prefix sums combine the two
+public class FenwickTree {
+
+    private final long[] deltas;
+    private final long[] weightedDeltas;
+
+    public FenwickTree(int size) {
+        deltas = new long[size + 1];
+        weightedDeltas = new long[size + 1];
+    }
+
+    public int size() {
+        return deltas.length - 1;
+    }
+
+    public void add(int index, long value) {
+        add(index, index + 1, value);
+    }
+
+    // adds the value to every index in [from, to)
+    public void add(int from, int to, long value) {
+        checkRange(from, to);
+        update(from, value);
+        update(to, -value);
+    }
+
+    public long get(int index) {
+        return sum(index, index + 1);
+    }
+
+    // sum of the values at [from, to)
+    public long sum(int from, int to) {
+        checkRange(from, to);
+        return prefixSum(to) - prefixSum(from);
+    }
+
+    // ----
+
+    private void checkRange(int from, int to) {
+        if (from < 0 || to > size() || from > to) {
+            throw new IndexOutOfBoundsException("Range [" + from + ", " + to + ") out of size " + size());
+        }
+    }
+
+    private void update(int index, long value) {
+        long weighted = value * index;
+        for (int i = index + 1; i < deltas.length; i += i & -i) {
+            deltas[i] += value;
+            weightedDeltas[i] += weighted;
+        }
+    }
+
+    // sum of the values at [0, end)
+    private long prefixSum(int end) {
+        long sum = 0;
+        long weighted = 0;
+        for (int i = end; i > 0; i -= i & -i) {
+            sum += deltas[i];
+            weighted += weightedDeltas[i];
+        }
+        return sum * end - weighted;
+    }
+}
@@ -8,7 +8,7 @@ public class IdGenerator {
     }
 
     public void actualizeNextId(int id) {
-        if (id > counter) {
+        if (id >= counter) {
             counter = id + 1;
         }
     }
@@ -0,0 +1,111 @@
+package util;
+
+import java.util.Arrays;
+
+// open addressing int -> int map without boxing, for hot paths keyed by task id
+public class IntIntMap {
+
+    private final int missingValue;
+    private int[] keys;
+    private int[] values;
+    private boolean[] filled;
+    private int size = 0;
+
+    public IntIntMap(int expectedSize, int missingValue) {
+        this.missingValue = missingValue;
+        int capacity = Integer.highestOneBit(Math.max(4, expectedSize * 2 - 1)) << 1;
+        keys = new int[capacity];
+        values = new int[capacity];
+        filled = new boolean[capacity];
+    }
+
+    public int get(int key) {
+        int mask = keys.length - 1;
+        for (int i = indexOf(key, mask); filled[i]; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                return values[i];
+            }
+        }
+        return missingValue;
+    }
+
+    public void put(int key, int value) {
+        int mask = keys.length - 1;
+        int i = indexOf(key, mask);
+        for (; filled[i]; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                values[i] = value;
+                return;
+            }
+        }
+        keys[i] = key;
+        values[i] = value;
+        filled[i] = true;
+        if (++size * 2 > keys.length) {
+            resize(keys.length * 2);
+        }
+    }
+
+    public int remove(int key) {
+        int mask = keys.length - 1;
+        int i = indexOf(key, mask);
+        for (; filled[i]; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                int value = values[i];
+                shiftBack(i, mask);
+                size--;
+                return value;
+            }
+        }
+        return missingValue;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        Arrays.fill(filled, false);
+        size = 0;
+    }
+
+    // closes the gap left by a removed key, so probe sequences need no tombstones
+    private void shiftBack(int gap, int mask) {
+        int i = gap;
+        while (true) {
+            i = (i + 1) & mask;
+            if (!filled[i]) {
+                break;
+            }
+            int home = indexOf(keys[i], mask);
+            // the entry may move into the gap unless its home lies cyclically in (gap, i]
+            boolean stays = gap <= i ? gap < home && home <= i : gap < home || home <= i;
+            if (!stays) {
+                keys[gap] = keys[i];
+                values[gap] = values[i];
+                gap = i;
+            }
+        }
+        filled[gap] = false;
+    }
+
+    private void resize(int capacity) {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        boolean[] oldFilled = filled;
+        keys = new int[capacity];
+        values = new int[capacity];
+        filled = new boolean[capacity];
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldFilled[i]) {
+                put(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    private static int indexOf(int key, int mask) {
+        int hash = key * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+}
@@ -0,0 +1,292 @@
+package util;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.function.IntConsumer;
+
+// immutable int set as a 32-way bitmapped trie, ordered as unsigned ints (ascending for task ids);
+// add and remove copy only the path to the changed leaf, so all versions share the rest
+public final class IntTrieSet {
+
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+    private static final int MAX_SHIFT = 30;
+    private static final IntTrieSet EMPTY = new IntTrieSet(null, 0, 0);
+
+    // nodes at shift 0 are leaves, their bitmap holds the lowest 5 bits of the keys
+    private record Node(int bitmap, Node[] children) {
+    }
+
+    private final Node root;
+    private final int shift;
+    private final int size;
+
+    private IntTrieSet(Node root, int shift, int size) {
+        this.root = root;
+        this.shift = shift;
+        this.size = size;
+    }
+
+    public static IntTrieSet empty() {
+        return EMPTY;
+    }
+
+    public static IntTrieSet of(Iterable<Integer> values) {
+        Builder builder = new Builder();
+        for (int value : values) {
+            builder.add(value);
+        }
+        return builder.build();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean contains(int value) {
+        if (root == null || !fits(value, shift)) {
+            return false;
+        }
+        Node node = root;
+        for (int s = shift; s > 0; s -= BITS) {
+            int bit = bit(value, s);
+            if ((node.bitmap & bit) == 0) {
+                return false;
+            }
+            node = node.children[index(node, bit)];
+        }
+        return (node.bitmap & bit(value, 0)) != 0;
+    }
+
+    public IntTrieSet add(int value) {
+        if (contains(value)) {
+            return this;
+        }
+        Node newRoot = root;
+        int newShift = shift;
+        while (!fits(value, newShift)) {
+            // keys under the old root have zero high bits, so it becomes the first child
+            newRoot = newRoot == null ? null : new Node(1, new Node[]{newRoot});
+            newShift += BITS;
+        }
+        return new IntTrieSet(insert(newRoot, newShift, value), newShift, size + 1);
+    }
+
+    public IntTrieSet remove(int value) {
+        if (!contains(value)) {
+            return this;
+        }
+        if (size == 1) {
+            return EMPTY;
+        }
+        Node newRoot = delete(root, shift, value);
+        int newShift = shift;
+        while (newShift > 0 && newRoot.bitmap == 1) {
+            newRoot = newRoot.children[0];
+            newShift -= BITS;
+        }
+        return new IntTrieSet(newRoot, newShift, size - 1);
+    }
+
+    public void forEach(IntConsumer action) {
+        if (root != null) {
+            forEach(root, shift, 0, action);
+        }
+    }
+
+    public int[] toArray() {
+        int[] values = new int[size];
+        int[] position = {0};
+        forEach(value -> values[position[0]++] = value);
+        return values;
+    }
+
+    // unmodifiable list copy in set order
+    public List<Integer> toList() {
+        return new IntArrayList(toArray());
+    }
+
+    @Override
+    public String toString() {
+        return toList().toString();
+    }
+
+    // ----
+
+    private static boolean fits(int value, int shift) {
+        return shift >= MAX_SHIFT || (value >>> (shift + BITS)) == 0;
+    }
+
+    private static int bit(int value, int shift) {
+        return 1 << ((value >>> shift) & MASK);
+    }
+
+    private static int index(Node node, int bit) {
+        return Integer.bitCount(node.bitmap & (bit - 1));
+    }
+
+    private static Node insert(Node node, int shift, int value) {
+        int bit = bit(value, shift);
+        if (shift == 0) {
+            return new Node(node == null ? bit : node.bitmap | bit, null);
+        }
+        if (node == null) {
+            return new Node(bit, new Node[]{insert(null, shift - BITS, value)});
+        }
+        int i = index(node, bit);
+        if ((node.bitmap & bit) != 0) {
+            Node[] children = node.children.clone();
+            children[i] = insert(children[i], shift - BITS, value);
+            return new Node(node.bitmap, children);
+        }
+        Node[] children = new Node[node.children.length + 1];
+        System.arraycopy(node.children, 0, children, 0, i);
+        children[i] = insert(null, shift - BITS, value);
+        System.arraycopy(node.children, i, children, i + 1, node.children.length - i);
+        return new Node(node.bitmap | bit, children);
+    }
+
+    // the value is known to be present, returns null when the node becomes empty
+    private static Node delete(Node node, int shift, int value) {
+        int bit = bit(value, shift);
+        if (shift == 0) {
+            int bitmap = node.bitmap & ~bit;
+            return bitmap == 0 ? null : new Node(bitmap, null);
+        }
+        int i = index(node, bit);
+        Node child = delete(node.children[i], shift - BITS, value);
+        if (child != null) {
+            Node[] children = node.children.clone();
+            children[i] = child;
+            return new Node(node.bitmap, children);
+        }
+        if (node.children.length == 1) {
+            return null;
+        }
+        Node[] children = new Node[node.children.length - 1];
+        System.arraycopy(node.children, 0, children, 0, i);
+        System.arraycopy(node.children, i + 1, children, i, children.length - i);
+        return new Node(node.bitmap & ~bit, children);
+    }
+
+    private static void forEach(Node node, int shift, int prefix, IntConsumer action) {
+        if (shift == 0) {
+            for (int bits = node.bitmap; bits != 0; bits &= bits - 1) {
+                action.accept(prefix | Integer.numberOfTrailingZeros(bits));
+            }
+            return;
+        }
+        int i = 0;
+        for (int bits = node.bitmap; bits != 0; bits &= bits - 1) {
+            forEach(node.children[i++], shift - BITS, prefix | Integer.numberOfTrailingZeros(bits) << shift, action);
+        }
+    }
+
+    // ---- bulk loading ----
+
+    // collects values in any order and builds the trie bottom-up in one pass, without the
+    // path copies of repeated add(); meant for loading epics with many subtasks
+    public static final class Builder {
+
+        private int[] values = new int[16];
+        private int size = 0;
+
+        public Builder add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+            return this;
+        }
+
+        public IntTrieSet build() {
+            if (size == 0) {
+                return EMPTY;
+            }
+            int[] sorted = sortedDistinct(Arrays.copyOf(values, size));
+            int last = sorted[sorted.length - 1];
+            int shift = 0;
+            while (!fits(last, shift)) {
+                shift += BITS;
+            }
+            return new IntTrieSet(build(sorted, 0, sorted.length, shift), shift, sorted.length);
+        }
+
+        // unsigned order, ids usually arrive ascending and skip the sort
+        private static int[] sortedDistinct(int[] values) {
+            boolean sorted = true;
+            for (int i = 1; i < values.length && sorted; i++) {
+                sorted = Integer.compareUnsigned(values[i - 1], values[i]) < 0;
+            }
+            if (sorted) {
+                return values;
+            }
+            for (int i = 0; i < values.length; i++) {
+                values[i] ^= Integer.MIN_VALUE;
+            }
+            Arrays.sort(values);
+            int distinct = 0;
+            for (int i = 0; i < values.length; i++) {
+                if (i == 0 || values[i] != values[distinct - 1]) {
+                    values[distinct++] = values[i];
+                }
+            }
+            for (int i = 0; i < distinct; i++) {
+                values[i] ^= Integer.MIN_VALUE;
+            }
+            return Arrays.copyOf(values, distinct);
+        }
+
+        // values[from, to) share all bits above this level
+        private static Node build(int[] values, int from, int to, int shift) {
+            if (shift == 0) {
+                int bitmap = 0;
+                for (int i = from; i < to; i++) {
+                    bitmap |= bit(values[i], 0);
+                }
+                return new Node(bitmap, null);
+            }
+            int bitmap = 0;
+            for (int i = from; i < to; i++) {
+                bitmap |= bit(values[i], shift);
+            }
+            Node[] children = new Node[Integer.bitCount(bitmap)];
+            int child = 0;
+            for (int start = from; start < to; ) {
+                int slot = (values[start] >>> shift) & MASK;
+                int end = start + 1;
+                while (end < to && ((values[end] >>> shift) & MASK) == slot) {
+                    end++;
+                }
+                children[child++] = build(values, start, end, shift - BITS);
+                start = end;
+            }
+            return new Node(bitmap, children);
+        }
+    }
+
+    private static final class IntArrayList extends AbstractList<Integer> implements RandomAccess {
+
+        private final int[] values;
+
+        IntArrayList(int[] values) {
+            this.values = values;
+        }
+
+        @Override
+        public Integer get(int index) {
+            return values[index];
+        }
+
+        @Override
+        public int size() {
+            return values.length;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package util;
+
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.SortedSet;
+
+// read-only sorted set view of a list that is already in comparator order without duplicates,
+// TreeSet.addAll builds an empty tree from such a set in linear time instead of inserting one by one;
+// lookups and range views are binary searches over the list
+public class PresortedSet<E> extends AbstractSet<E> implements SortedSet<E> {
+
+    private final List<E> elements;
+    private final Comparator<? super E> comparator;
+
+    public PresortedSet(List<E> elements, Comparator<? super E> comparator) {
+        this.elements = elements;
+        this.comparator = comparator;
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return elements.iterator();
+    }
+
+    @Override
+    public int size() {
+        return elements.size();
+    }
+
+    // binary search, like a TreeSet it finds elements the comparator considers equal
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean contains(Object o) {
+        try {
+            return o != null && Collections.binarySearch(elements, (E) o, comparator) >= 0;
+        } catch (ClassCastException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public Comparator<? super E> comparator() {
+        return comparator;
+    }
+
+    @Override
+    public E first() {
+        return elements.getFirst();
+    }
+
+    @Override
+    public E last() {
+        return elements.getLast();
+    }
+
+    // range views share the list, their bounds are found by binary search
+    @Override
+    public SortedSet<E> subSet(E fromElement, E toElement) {
+        if (comparator.compare(fromElement, toElement) > 0) {
+            throw new IllegalArgumentException("fromElement > toElement");
+        }
+        return new PresortedSet<>(elements.subList(lowerBound(fromElement), lowerBound(toElement)), comparator);
+    }
+
+    @Override
+    public SortedSet<E> headSet(E toElement) {
+        return new PresortedSet<>(elements.subList(0, lowerBound(toElement)), comparator);
+    }
+
+    @Override
+    public SortedSet<E> tailSet(E fromElement) {
+        return new PresortedSet<>(elements.subList(lowerBound(fromElement), elements.size()), comparator);
+    }
+
+    // index of the first element not below the given one
+    private int lowerBound(E element) {
+        int index = Collections.binarySearch(elements, element, comparator);
+        return index >= 0 ? index : -index - 1;
+    }
+}
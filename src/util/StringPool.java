@@ -0,0 +1,72 @@
+package util;
+
+import java.lang.ref.WeakReference;
+import java.util.WeakHashMap;
+
+// bounded pool of canonical strings for task names and descriptions; entries are weak, so a string
+// no task refers to any more is dropped, and once the pool is full new strings are passed through
+public class StringPool {
+
+    public static final int DEFAULT_MAX_SIZE = 100_000;
+
+    private final int maxSize;
+    private final WeakHashMap<String, WeakReference<String>> pool = new WeakHashMap<>();
+    private long lookups = 0;
+    private long hits = 0;
+    private long bytesSaved = 0;
+
+    public StringPool() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    public StringPool(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Pool size must be positive");
+        }
+        this.maxSize = maxSize;
+    }
+
+    public synchronized String intern(String string) {
+        if (string == null) {
+            return null;
+        }
+        lookups++;
+        WeakReference<String> ref = pool.get(string);
+        String pooled = ref == null ? null : ref.get();
+        if (pooled != null) {
+            if (pooled != string) {
+                hits++;
+                bytesSaved += sizeOf(string);
+            }
+            return pooled;
+        }
+        if (pool.size() < maxSize) {
+            pool.put(string, new WeakReference<>(string));
+        }
+        return string;
+    }
+
+    // bytes saved counts the duplicates handed in and replaced by a pooled instance
+    public synchronized Report getReport() {
+        return new Report(pool.size(), maxSize, lookups, hits, bytesSaved);
+    }
+
+    public record Report(int size, int maxSize, long lookups, long hits, long bytesSaved) {
+    }
+
+    // compact strings with compressed oops: 24 byte String, 16 byte array header, 1 or 2 bytes a char
+    static long sizeOf(String string) {
+        int bytesPerChar = 1;
+        for (int i = 0; i < string.length(); i++) {
+            if (string.charAt(i) > 0xFF) {
+                bytesPerChar = 2;
+                break;
+            }
+        }
+        return 24 + align(16 + (long) string.length() * bytesPerChar);
+    }
+
+    private static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+}
@@ -0,0 +1,260 @@
+package util;
+
+import java.util.Arrays;
+
+// (start, id) keys in ascending order with an end value each, all primitive: sorted blocks of parallel
+// arrays found by a binary search over the last key of every block and then one inside the block, so
+// lookups allocate nothing; an insert shifts one block and splits it when full. A position is
+// block << 32 | index and stays valid until the next change, NONE lies beyond either end
+public class TimeIndex {
+
+    public static final long NONE = -1;
+    private static final int BLOCK_SIZE = 512;
+
+    private long[][] starts = new long[4][];
+    private int[][] ids = new int[4][];
+    private long[][] ends = new long[4][];
+    private int[] counts = new int[4];
+    private int blocks = 0;
+    private int size = 0;
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    // false when the key is present already
+    public boolean add(long start, int id, long end) {
+        if (blocks == 0) {
+            insertBlock(0);
+        }
+        int block = blockFor(start, id);
+        int index = indexIn(block, start, id);
+        if (index >= 0) {
+            return false;
+        }
+        index = -index - 1;
+        if (counts[block] == BLOCK_SIZE) {
+            split(block);
+            if (index > counts[block]) {
+                index -= counts[block];
+                block++;
+            }
+        }
+        int count = counts[block];
+        System.arraycopy(starts[block], index, starts[block], index + 1, count - index);
+        System.arraycopy(ids[block], index, ids[block], index + 1, count - index);
+        System.arraycopy(ends[block], index, ends[block], index + 1, count - index);
+        starts[block][index] = start;
+        ids[block][index] = id;
+        ends[block][index] = end;
+        counts[block]++;
+        size++;
+        return true;
+    }
+
+    // keys must come in ascending order after every present one, blocks are filled completely
+    public void append(long start, int id, long end) {
+        if (size > 0) {
+            long last = last();
+            if (compare(start, id, startAt(last), idAt(last)) <= 0) {
+                throw new IllegalArgumentException("Appended keys must ascend");
+            }
+        }
+        if (blocks == 0 || counts[blocks - 1] == BLOCK_SIZE) {
+            insertBlock(blocks);
+        }
+        int block = blocks - 1;
+        int index = counts[block]++;
+        starts[block][index] = start;
+        ids[block][index] = id;
+        ends[block][index] = end;
+        size++;
+    }
+
+    public boolean remove(long start, int id) {
+        if (blocks == 0) {
+            return false;
+        }
+        int block = blockFor(start, id);
+        int index = indexIn(block, start, id);
+        if (index < 0) {
+            return false;
+        }
+        int count = --counts[block];
+        System.arraycopy(starts[block], index + 1, starts[block], index, count - index);
+        System.arraycopy(ids[block], index + 1, ids[block], index, count - index);
+        System.arraycopy(ends[block], index + 1, ends[block], index, count - index);
+        if (count == 0) {
+            removeBlock(block);
+        }
+        size--;
+        return true;
+    }
+
+    public boolean contains(long start, int id) {
+        return blocks > 0 && indexIn(blockFor(start, id), start, id) >= 0;
+    }
+
+    public void clear() {
+        Arrays.fill(starts, null);
+        Arrays.fill(ids, null);
+        Arrays.fill(ends, null);
+        Arrays.fill(counts, 0);
+        blocks = 0;
+        size = 0;
+    }
+
+    // ---- positions ----
+
+    public long first() {
+        return size == 0 ? NONE : 0;
+    }
+
+    public long last() {
+        return size == 0 ? NONE : position(blocks - 1, counts[blocks - 1] - 1);
+    }
+
+    // first key not below the given one
+    public long ceiling(long start, int id) {
+        if (blocks == 0) {
+            return NONE;
+        }
+        int block = blockFor(start, id);
+        int index = indexIn(block, start, id);
+        index = index >= 0 ? index : -index - 1;
+        if (index < counts[block]) {
+            return position(block, index);
+        }
+        return block + 1 < blocks ? position(block + 1, 0) : NONE;
+    }
+
+    // last key below the given one
+    public long lower(long start, int id) {
+        long ceiling = ceiling(start, id);
+        return ceiling == NONE ? last() : previous(ceiling);
+    }
+
+    public long next(long position) {
+        int block = (int) (position >>> 32);
+        int index = (int) position + 1;
+        if (index < counts[block]) {
+            return position(block, index);
+        }
+        return block + 1 < blocks ? position(block + 1, 0) : NONE;
+    }
+
+    public long previous(long position) {
+        int block = (int) (position >>> 32);
+        int index = (int) position - 1;
+        if (index >= 0) {
+            return position(block, index);
+        }
+        return block > 0 ? position(block - 1, counts[block - 1] - 1) : NONE;
+    }
+
+    public long startAt(long position) {
+        return starts[(int) (position >>> 32)][(int) position];
+    }
+
+    public int idAt(long position) {
+        return ids[(int) (position >>> 32)][(int) position];
+    }
+
+    public long endAt(long position) {
+        return ends[(int) (position >>> 32)][(int) position];
+    }
+
+    public static int compare(long start, int id, long otherStart, int otherId) {
+        int byStart = Long.compare(start, otherStart);
+        return byStart != 0 ? byStart : Integer.compare(id, otherId);
+    }
+
+    // ----
+
+    private static long position(int block, int index) {
+        return (long) block << 32 | index;
+    }
+
+    // first block whose last key is not below the given one, the last block if there is none
+    private int blockFor(long start, int id) {
+        int low = 0;
+        int high = blocks - 1;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            int last = counts[middle] - 1;
+            if (compare(starts[middle][last], ids[middle][last], start, id) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    // index of the key in the block, or -(insertion point) - 1
+    private int indexIn(int block, long start, int id) {
+        long[] blockStarts = starts[block];
+        int[] blockIds = ids[block];
+        int low = 0;
+        int high = counts[block] - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int cmp = compare(blockStarts[middle], blockIds[middle], start, id);
+            if (cmp < 0) {
+                low = middle + 1;
+            } else if (cmp > 0) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -low - 1;
+    }
+
+    private void insertBlock(int block) {
+        if (blocks == counts.length) {
+            int capacity = blocks * 2;
+            starts = Arrays.copyOf(starts, capacity);
+            ids = Arrays.copyOf(ids, capacity);
+            ends = Arrays.copyOf(ends, capacity);
+            counts = Arrays.copyOf(counts, capacity);
+        }
+        System.arraycopy(starts, block, starts, block + 1, blocks - block);
+        System.arraycopy(ids, block, ids, block + 1, blocks - block);
+        System.arraycopy(ends, block, ends, block + 1, blocks - block);
+        System.arraycopy(counts, block, counts, block + 1, blocks - block);
+        starts[block] = new long[BLOCK_SIZE];
+        ids[block] = new int[BLOCK_SIZE];
+        ends[block] = new long[BLOCK_SIZE];
+        counts[block] = 0;
+        blocks++;
+    }
+
+    private void removeBlock(int block) {
+        System.arraycopy(starts, block + 1, starts, block, blocks - block - 1);
+        System.arraycopy(ids, block + 1, ids, block, blocks - block - 1);
+        System.arraycopy(ends, block + 1, ends, block, blocks - block - 1);
+        System.arraycopy(counts, block + 1, counts, block, blocks - block - 1);
+        blocks--;
+        starts[blocks] = null;
+        ids[blocks] = null;
+        ends[blocks] = null;
+        counts[blocks] = 0;
+    }
+
+    // the upper half moves to a new block right after this one
+    private void split(int block) {
+        insertBlock(block + 1);
+        int keep = counts[block] / 2;
+        int moved = counts[block] - keep;
+        System.arraycopy(starts[block], keep, starts[block + 1], 0, moved);
+        System.arraycopy(ids[block], keep, ids[block + 1], 0, moved);
+        System.arraycopy(ends[block], keep, ends[block + 1], 0, moved);
+        counts[block] = keep;
+        counts[block + 1] = moved;
+    }
+}
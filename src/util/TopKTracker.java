@@ -0,0 +1,127 @@
+package util;
+
+import java.util.Arrays;
+
+// keys with the highest counts seen so far, kept in a min-heap of fixed capacity
+public class TopKTracker {
+
+    private final int[] keys;
+    private final int[] counts;
+    private final IntIntMap positions;
+    private int size = 0;
+
+    public TopKTracker(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        keys = new int[capacity];
+        counts = new int[capacity];
+        positions = new IntIntMap(capacity, -1);
+    }
+
+    // count is the current count of the key, it never drops below the count offered before
+    public void offer(int key, int count) {
+        if (size == keys.length && count < counts[0]) {
+            return; // a key already in the heap would have at least the minimum count
+        }
+        int position = positions.get(key);
+        if (position >= 0) {
+            counts[position] = count;
+            siftDown(position);
+        } else if (size < keys.length) {
+            keys[size] = key;
+            counts[size] = count;
+            positions.put(key, size);
+            siftUp(size++);
+        } else if (count > counts[0]) {
+            positions.remove(keys[0]);
+            keys[0] = key;
+            counts[0] = count;
+            positions.put(key, 0);
+            siftDown(0);
+        }
+    }
+
+    public void remove(int key) {
+        int position = positions.remove(key);
+        if (position < 0) {
+            return;
+        }
+        size--;
+        if (position < size) {
+            move(size, position);
+            siftDown(position);
+            siftUp(position);
+        }
+    }
+
+    // keeps the order of keys, counts follow the halved source counts
+    public void halve() {
+        for (int i = 0; i < size; i++) {
+            counts[i] >>>= 1;
+        }
+    }
+
+    // up to k keys, the highest count first
+    public int[] top(int k) {
+        long[] sorted = new long[size];
+        for (int i = 0; i < size; i++) {
+            sorted[i] = (long) counts[i] << 32 | (keys[i] & 0xFFFFFFFFL);
+        }
+        Arrays.sort(sorted);
+        int[] result = new int[Math.min(k, size)];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = (int) sorted[size - 1 - i];
+        }
+        return result;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void siftUp(int position) {
+        while (position > 0) {
+            int parent = (position - 1) / 2;
+            if (counts[parent] <= counts[position]) {
+                break;
+            }
+            swap(parent, position);
+            position = parent;
+        }
+    }
+
+    private void siftDown(int position) {
+        while (true) {
+            int smallest = position;
+            int left = 2 * position + 1;
+            int right = left + 1;
+            if (left < size && counts[left] < counts[smallest]) {
+                smallest = left;
+            }
+            if (right < size && counts[right] < counts[smallest]) {
+                smallest = right;
+            }
+            if (smallest == position) {
+                return;
+            }
+            swap(smallest, position);
+            position = smallest;
+        }
+    }
+
+    private void swap(int a, int b) {
+        int key = keys[a];
+        int count = counts[a];
+        move(b, a);
+        keys[b] = key;
+        counts[b] = count;
+        positions.put(key, b);
+    }
+
+    private void move(int from, int to) {
+        keys[to] = keys[from];
+        counts[to] = counts[from];
+        positions.put(keys[to], to);
+    }
+}
@@ -5,8 +5,10 @@ import org.junit.jupiter.api.Test;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
 class EpicTest {
 
@@ -37,4 +39,16 @@ class EpicTest {
         assertEquals(epic1, epic2);
     }
 
-}
\ No newline at end of file
+    @Test
+    void subtaskChangesReturnNewEpic() {
+        Epic epic = new Epic(1, "Epic", "desc", TaskStatus.NEW, List.of(2, 3), Duration.ZERO, null, null);
+
+        Epic linked = epic.withSubtaskId(4);
+        Epic unlinked = linked.withoutSubtaskId(2);
+
+        assertEquals(List.of(2, 3), epic.getSubtaskIds());
+        assertEquals(List.of(2, 3, 4), linked.getSubtaskIds());
+        assertEquals(List.of(3, 4), unlinked.getSubtaskIds());
+        assertSame(epic, epic.withSubtaskId(3));
+    }
+}
@@ -0,0 +1,106 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+import util.EpochMinutes;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecurringTaskTest {
+
+    private final LocalDateTime time = LocalDateTime.of(2025, 5, 5, 9, 0);
+
+    @Test
+    public void occurrencesAreExpandedForWindowOnly() {
+        RecurringTask standup = RecurringTask.daily("Standup", "desc", Duration.ofMinutes(15), time).withId(1);
+
+        List<Task> occurrences = standup.getOccurrences(time.plusDays(2).plusMinutes(10), time.plusDays(4));
+
+        assertEquals(2, occurrences.size());
+        assertEquals(time.plusDays(2), occurrences.get(0).getStartTime());
+        assertEquals(time.plusDays(3), occurrences.get(1).getStartTime());
+        assertEquals(1, occurrences.get(0).getId());
+    }
+
+    @Test
+    public void untilBoundsOccurrences() {
+        RecurringTask review = RecurringTask.weekly("Review", "desc", Duration.ofHours(1), time)
+                .withUntil(time.plusWeeks(2));
+
+        assertEquals(3, review.getOccurrences(time, time.plusYears(1)).size());
+        assertFalse(review.hasTimeConflictWith(task(time.plusWeeks(3), 60)));
+        assertTrue(review.hasTimeConflictWith(task(time.plusWeeks(2).plusMinutes(59), 60)));
+    }
+
+    @Test
+    public void conflictsWithTasksMatchEnumeration() {
+        Random random = new Random(3);
+        for (int i = 0; i < 2000; i++) {
+            RecurringTask template = new RecurringTask("R", "desc", Duration.ofMinutes(random.nextInt(60)),
+                    time.plusMinutes(random.nextInt(500)), Duration.ofMinutes(60 + random.nextInt(120)));
+            if (random.nextBoolean()) {
+                template = template.withUntil(time.plusMinutes(random.nextInt(2000)));
+            }
+            Task task = task(time.plusMinutes(random.nextInt(3000)), random.nextInt(200));
+
+            boolean expected = template.getOccurrences(time.minusDays(1), time.plusDays(10)).stream()
+                    .anyMatch(occurrence -> occurrence.hasTimeConflictWith(task));
+            assertEquals(expected, template.hasTimeConflictWith(task));
+            assertEquals(expected, task.hasTimeConflictWith(template));
+        }
+    }
+
+    @Test
+    public void conflictsBetweenRecurringTasksMatchEnumeration() {
+        Random random = new Random(5);
+        for (int i = 0; i < 2000; i++) {
+            RecurringTask first = recurring(random, 1);
+            RecurringTask second = recurring(random, 2);
+
+            // with periods below 3 hours every offset repeats within the lcm, well inside 60 days
+            LocalDateTime to = time.plusDays(60);
+            List<Task> secondOccurrences = second.getOccurrences(time, to);
+            boolean expected = first.getOccurrences(time, to).stream()
+                    .anyMatch(a -> secondOccurrences.stream().anyMatch(a::hasTimeConflictWith));
+            assertEquals(expected, first.hasTimeConflictWith(second));
+            assertEquals(expected, second.hasTimeConflictWith(first));
+        }
+    }
+
+    @Test
+    public void bookedMinutesMatchEnumeration() {
+        Random random = new Random(7);
+        for (int i = 0; i < 2000; i++) {
+            RecurringTask template = recurring(random, 1);
+            long from = EpochMinutes.of(time) + random.nextInt(3000) - 500;
+            long to = from + random.nextInt(3000);
+
+            long expected = 0;
+            for (Task occurrence : template.getOccurrences(time.minusDays(1), time.plusDays(10))) {
+                expected += Math.max(0, Math.min(to, occurrence.getEndMinute())
+                        - Math.max(from, occurrence.getStartMinute()));
+            }
+            assertEquals(expected, template.bookedMinutes(from, to));
+        }
+    }
+
+    @Test
+    public void durationLongerThanPeriodIsRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new RecurringTask("R", "desc", Duration.ofHours(2), time, Duration.ofHours(1)));
+    }
+
+    private RecurringTask recurring(Random random, int id) {
+        RecurringTask template = new RecurringTask("R", "desc", Duration.ofMinutes(random.nextInt(40)),
+                time.plusMinutes(random.nextInt(300)), Duration.ofMinutes(40 + random.nextInt(140))).withId(id);
+        return random.nextInt(3) == 0 ? template.withUntil(time.plusMinutes(random.nextInt(5000))) : template;
+    }
+
+    private static Task task(LocalDateTime start, int minutes) {
+        return new Task(100, "T", "desc", TaskStatus.NEW, Duration.ofMinutes(minutes), start);
+    }
+}
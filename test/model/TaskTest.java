@@ -5,7 +5,7 @@ import org.junit.jupiter.api.Test;
 import java.time.Duration;
 import java.time.LocalDateTime;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.*;
 
 class TaskTest {
     @Test
@@ -17,4 +17,36 @@ class TaskTest {
 
         assertEquals(task1, task2);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void timesRoundTripThroughEpochMinutes() {
+        LocalDateTime time = LocalDateTime.of(1969, 12, 31, 23, 30);
+        Task task = new Task(1, "Task", "desc", TaskStatus.NEW, Duration.ofMinutes(90), time);
+
+        assertEquals(time, task.getStartTime());
+        assertEquals(time.plusMinutes(90), task.getEndTime());
+        assertEquals(Duration.ofMinutes(90), task.getDuration());
+        assertEquals(task.getStartMinute() + 90, task.getEndMinute());
+    }
+
+    @Test
+    public void taskWithoutStartTimeHasNoEndTime() {
+        Task task = new Task(1, "Task", "desc", TaskStatus.NEW, Duration.ofMinutes(5), null);
+
+        assertFalse(task.hasStartTime());
+        assertNull(task.getEndTime());
+        assertFalse(task.hasTimeConflictWith(new Task(2, "Other", "desc", TaskStatus.NEW, Duration.ofMinutes(5), null)));
+    }
+
+    @Test
+    public void adjacentTasksDoNotConflict() {
+        LocalDateTime time = LocalDateTime.of(2025, 5, 1, 9, 0);
+        Task first = new Task(1, "First", "desc", TaskStatus.NEW, Duration.ofHours(1), time);
+        Task next = new Task(2, "Next", "desc", TaskStatus.NEW, Duration.ofHours(1), time.plusHours(1));
+        Task overlapping = new Task(3, "Overlapping", "desc", TaskStatus.NEW, Duration.ofHours(1), time.plusMinutes(59));
+
+        assertFalse(first.hasTimeConflictWith(next));
+        assertTrue(first.hasTimeConflictWith(overlapping));
+        assertTrue(overlapping.hasTimeConflictWith(next));
+    }
+}
@@ -0,0 +1,52 @@
+package service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccessStatsTest {
+
+    long now = 0;
+
+    @Test
+    public void hottestIdsComeFirst() {
+        AccessStats stats = new AccessStats(16 * 1024, 8, Duration.ofMinutes(1), () -> now);
+        for (int id = 1; id <= 1000; id++) {
+            for (int i = 0; i < id % 50; i++) {
+                stats.record(id);
+            }
+        }
+
+        // ids 49, 99, ... 999 are read 49 times each, nothing else as often
+        int[] hot = stats.getHotIds(5);
+        assertEquals(5, hot.length);
+        for (int id : hot) {
+            assertEquals(49, id % 50);
+            assertTrue(stats.getCount(id) >= 49);
+        }
+    }
+
+    @Test
+    public void countsDecayEveryWindow() {
+        AccessStats stats = new AccessStats(1024, 8, Duration.ofMinutes(1), () -> now);
+        for (int i = 0; i < 400; i++) {
+            stats.record(1);
+        }
+        assertEquals(400, stats.getCount(1));
+
+        now += Duration.ofSeconds(61).toNanos();
+        stats.getHotIds(1);
+        assertEquals(200, stats.getCount(1));
+
+        now += Duration.ofMinutes(2).toNanos();
+        stats.getHotIds(1); // two windows passed, views are checked against the clock in batches
+        assertEquals(50, stats.getCount(1));
+        for (int i = 0; i < 60; i++) {
+            stats.record(2);
+        }
+        assertArrayEquals(new int[]{2, 1}, stats.getHotIds(2));
+        assertEquals(50, stats.getCount(1));
+    }
+}
@@ -0,0 +1,45 @@
+package service;
+
+import model.Task;
+import model.TaskStatus;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArrayHistoryManagerTest extends HistoryManagerTest<ArrayHistoryManager> {
+    @Override
+    ArrayHistoryManager createHistoryManager(int maxSize, Consumer<? super Task> evictionListener) {
+        return new ArrayHistoryManager(maxSize, evictionListener);
+    }
+
+    @Override
+    long getEvictionCount(ArrayHistoryManager historyManager) {
+        return historyManager.getEvictionCount();
+    }
+
+    @Test
+    public void freedSlotsAreReused() {
+        List<Task> tasks = new ArrayList<>();
+        for (int id = 1; id <= 1000; id++) {
+            tasks.add(new Task(id, "Task " + id, "desc", TaskStatus.NEW, Duration.ZERO, null));
+        }
+        for (int round = 0; round < 3; round++) {
+            for (Task task : tasks) {
+                hm.add(task);
+                if (task.getId() % 3 == 0) {
+                    hm.remove(task.getId());
+                }
+            }
+        }
+
+        List<Task> history = hm.getHistory();
+        assertEquals(100, history.size());
+        assertEquals(1000, history.getLast().getId());
+        assertEquals(tasks.stream().filter(task -> task.getId() % 3 != 0).skip(567).toList(), history);
+    }
+}
@@ -0,0 +1,177 @@
+package service;
+
+import model.Task;
+import model.TaskStatus;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentHistoryManagerTest extends HistoryManagerTest<ConcurrentHistoryManager> {
+
+    static final int THREADS = 8;
+    static final int TASKS_PER_THREAD = 500;
+    static final int ROUNDS = 20;
+
+    InMemoryHistoryManager wrapped;
+
+    @Override
+    ConcurrentHistoryManager createHistoryManager(int maxSize, Consumer<? super Task> evictionListener) {
+        wrapped = new InMemoryHistoryManager(maxSize, evictionListener);
+        return new ConcurrentHistoryManager(wrapped, 4);
+    }
+
+    @Override
+    long getEvictionCount(ConcurrentHistoryManager historyManager) {
+        historyManager.getHistory(); // views are applied on read
+        return wrapped.getEvictionCount();
+    }
+
+    private static Task makeTask(int id) {
+        return new Task(id, "Task " + id, "desc", TaskStatus.NEW, Duration.ZERO, null);
+    }
+
+    // every thread views its own tasks round after round, while getHistory() is called concurrently
+    private void runConcurrently(ConcurrentHistoryManager hm, Consumer<List<Task>> snapshotCheck) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS + 1);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean writing = new AtomicBoolean(true);
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                int firstId = t * TASKS_PER_THREAD + 1;
+                writers.add(executor.submit(() -> {
+                    start.await();
+                    for (int round = 0; round < ROUNDS; round++) {
+                        for (int id = firstId; id < firstId + TASKS_PER_THREAD; id++) {
+                            hm.add(makeTask(id));
+                        }
+                    }
+                    return null;
+                }));
+            }
+            Future<?> reader = executor.submit(() -> {
+                start.await();
+                while (writing.get()) {
+                    snapshotCheck.accept(hm.getHistory());
+                }
+                return null;
+            });
+
+            start.countDown();
+            for (Future<?> writer : writers) {
+                writer.get(30, TimeUnit.SECONDS);
+            }
+            writing.set(false);
+            reader.get(30, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void concurrentViewsAreAllApplied() throws Exception {
+        hm = createHistoryManager(THREADS * TASKS_PER_THREAD, task -> {
+        });
+        runConcurrently(hm, snapshot -> {
+            Set<Integer> ids = new HashSet<>();
+            snapshot.forEach(task -> assertTrue(ids.add(task.getId())));
+        });
+
+        List<Task> history = hm.getHistory();
+        assertEquals(THREADS * TASKS_PER_THREAD, history.size());
+        // views of one thread keep their program order, its last round went by ascending id
+        for (int t = 0; t < THREADS; t++) {
+            int firstId = t * TASKS_PER_THREAD + 1;
+            List<Integer> ids = history.stream()
+                    .map(Task::getId)
+                    .filter(id -> id >= firstId && id < firstId + TASKS_PER_THREAD)
+                    .toList();
+            assertEquals(ids.stream().sorted().toList(), ids);
+        }
+        assertEquals(0, wrapped.getEvictionCount());
+    }
+
+    @Test
+    public void boundIsKeptUnderContention() throws Exception {
+        int maxSize = 100;
+        hm = createHistoryManager(maxSize, task -> {
+        });
+        runConcurrently(hm, snapshot -> assertTrue(snapshot.size() <= maxSize));
+
+        assertEquals(maxSize, hm.getHistory().size());
+        assertTrue(wrapped.getEvictionCount() >= THREADS * TASKS_PER_THREAD - maxSize);
+    }
+
+    // two threads take turns, each view handed over to the other thread before the next one is made, so
+    // the views are ordered by happens-before and every snapshot must be a prefix of that order
+    @Test
+    public void viewsOrderedAcrossThreadsKeepTheirOrder() throws Exception {
+        int views = 2 * THREADS * TASKS_PER_THREAD;
+        // many stripes make a drain pass long enough for both threads to add behind it
+        hm = new ConcurrentHistoryManager(new InMemoryHistoryManager(views), 256);
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        Semaphore[] turns = {new Semaphore(1), new Semaphore(0)};
+        AtomicBoolean writing = new AtomicBoolean(true);
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int t = 0; t < 2; t++) {
+                int parity = t;
+                writers.add(executor.submit(() -> {
+                    for (int id = parity + 1; id <= views; id += 2) {
+                        turns[parity].acquire();
+                        hm.add(makeTask(id));
+                        turns[1 - parity].release();
+                    }
+                    return null;
+                }));
+            }
+            Future<?> reader = executor.submit(() -> {
+                while (writing.get()) {
+                    List<Task> snapshot = hm.getHistory();
+                    for (int i = 0; i < snapshot.size(); i++) {
+                        assertEquals(i + 1, snapshot.get(i).getId());
+                    }
+                }
+                return null;
+            });
+            for (Future<?> writer : writers) {
+                writer.get(30, TimeUnit.SECONDS);
+            }
+            writing.set(false);
+            reader.get(30, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        List<Task> history = hm.getHistory();
+        assertEquals(views, history.size());
+        for (int i = 0; i < views; i++) {
+            assertEquals(i + 1, history.get(i).getId());
+        }
+    }
+
+    @Test
+    public void removalSeesBufferedViews() {
+        for (int id = 1; id <= 10; id++) {
+            hm.add(makeTask(id));
+        }
+        hm.remove(List.of(2, 4, 6));
+        hm.remove(8);
+
+        assertEquals(List.of(1, 3, 5, 7, 9, 10), hm.getHistory().stream().map(Task::getId).toList());
+    }
+}
@@ -0,0 +1,65 @@
+package service;
+
+import model.Task;
+import model.TaskStatus;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConflictSweepTest {
+
+    private final LocalDateTime time = LocalDateTime.of(2025, 5, 5, 9, 0);
+
+    @Test
+    public void pairsMatchPairwiseComparison() {
+        Random random = new Random(11);
+        List<Task> tasks = new ArrayList<>();
+        for (int id = 1; id <= 20_000; id++) {
+            // a few long tasks run across partition boundaries, zero lengths and equal starts are common
+            int minutes = random.nextInt(100) == 0 ? 5000 : random.nextInt(4) * 20;
+            tasks.add(new Task(id, "T", "desc", TaskStatus.NEW, Duration.ofMinutes(minutes),
+                    time.plusMinutes(random.nextInt(200_000))));
+        }
+        tasks.add(new Task(0, "Untimed", "desc", TaskStatus.NEW, Duration.ofMinutes(10), null));
+
+        List<Task> sorted = new ArrayList<>(tasks.subList(0, tasks.size() - 1));
+        sorted.sort(Comparator.comparingLong(Task::getStartMinute).thenComparingInt(Task::getId));
+        Set<String> expected = new HashSet<>();
+        for (int i = 0; i < sorted.size(); i++) {
+            for (int j = i + 1; j < sorted.size() && sorted.get(j).getStartMinute() < sorted.get(i).getEndMinute(); j++) {
+                if (sorted.get(i).hasTimeConflictWith(sorted.get(j))) {
+                    expected.add(sorted.get(i).getId() + "-" + sorted.get(j).getId());
+                }
+            }
+        }
+
+        List<String> found = new ConflictSweep(tasks).conflicts()
+                .map(conflict -> conflict.first().getId() + "-" + conflict.second().getId())
+                .toList();
+        assertEquals(expected.size(), found.size());
+        assertEquals(expected, found.stream().collect(Collectors.toSet()));
+    }
+
+    @Test
+    public void touchingAndZeroLengthTasksDoNotConflict() {
+        List<Task> tasks = List.of(
+                new Task(1, "A", "desc", TaskStatus.NEW, Duration.ofMinutes(30), time),
+                new Task(2, "B", "desc", TaskStatus.NEW, Duration.ofMinutes(30), time.plusMinutes(30)),
+                new Task(3, "C", "desc", TaskStatus.NEW, Duration.ZERO, time.plusMinutes(30)),
+                new Task(4, "D", "desc", TaskStatus.NEW, Duration.ZERO, time.plusMinutes(45)));
+
+        assertEquals(List.of("2-4"), new ConflictSweep(tasks).conflicts()
+                .map(conflict -> conflict.first().getId() + "-" + conflict.second().getId())
+                .toList());
+    }
+}
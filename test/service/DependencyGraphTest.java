@@ -0,0 +1,154 @@
+package service;
+
+import model.Task;
+import model.TaskStatus;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DependencyGraphTest {
+
+    private static Task task(int id, int minutes, TaskStatus status) {
+        return new Task(id, "Task " + id, "desc", status, Duration.ofMinutes(minutes), null);
+    }
+
+    @Test
+    public void cyclesAreRejected() {
+        DependencyGraph graph = new DependencyGraph();
+        assertTrue(graph.addEdge(task(1, 10, TaskStatus.NEW), task(2, 10, TaskStatus.NEW)));
+        assertTrue(graph.addEdge(task(2, 10, TaskStatus.NEW), task(3, 10, TaskStatus.NEW)));
+
+        assertFalse(graph.addEdge(task(3, 10, TaskStatus.NEW), task(1, 10, TaskStatus.NEW)));
+        assertFalse(graph.addEdge(task(1, 10, TaskStatus.NEW), task(1, 10, TaskStatus.NEW)));
+        assertEquals(List.of(), graph.getBlockerIds(1));
+        assertEquals(20, graph.getEarliestStartMinutes(3));
+    }
+
+    @Test
+    public void readyAndBlockedFollowStatuses() {
+        DependencyGraph graph = new DependencyGraph();
+        graph.addEdge(task(1, 10, TaskStatus.NEW), task(3, 10, TaskStatus.NEW));
+        graph.addEdge(task(2, 10, TaskStatus.NEW), task(3, 10, TaskStatus.NEW));
+
+        assertEquals(Set.of(1, 2), graph.getReadyIds());
+        assertEquals(Set.of(3), graph.getBlockedIds());
+
+        graph.update(task(1, 10, TaskStatus.DONE));
+        assertEquals(Set.of(3), graph.getBlockedIds());
+        graph.update(task(2, 10, TaskStatus.DONE));
+        assertEquals(Set.of(3), graph.getReadyIds());
+        assertTrue(graph.getBlockedIds().isEmpty());
+
+        graph.remove(3);
+        assertFalse(graph.contains(1));
+        assertTrue(graph.getReadyIds().isEmpty());
+    }
+
+    @Test
+    public void matchesFullRecomputation() {
+        Random random = new Random(11);
+        int n = 60;
+        DependencyGraph graph = new DependencyGraph();
+        int[] durations = new int[n];
+        TaskStatus[] statuses = new TaskStatus[n];
+        for (int i = 0; i < n; i++) {
+            durations[i] = random.nextInt(50);
+            statuses[i] = TaskStatus.NEW;
+        }
+        Set<Long> edges = new HashSet<>();
+
+        for (int step = 0; step < 3000; step++) {
+            int a = random.nextInt(n);
+            int b = random.nextInt(n);
+            int action = random.nextInt(10);
+            if (action < 6) {
+                boolean cycle = a == b || reaches(edges, n, b, a);
+                boolean added = graph.addEdge(task(a, durations[a], statuses[a]), task(b, durations[b], statuses[b]));
+                assertEquals(!cycle, added);
+                if (added) {
+                    edges.add(edge(a, b));
+                }
+            } else if (action < 8) {
+                graph.removeEdge(a, b);
+                edges.remove(edge(a, b));
+            } else {
+                durations[a] = random.nextInt(50);
+                statuses[a] = random.nextBoolean() ? TaskStatus.DONE : TaskStatus.NEW;
+                graph.update(task(a, durations[a], statuses[a]));
+            }
+            if (step % 50 == 0) {
+                assertState(graph, edges, n, durations, statuses);
+            }
+        }
+        assertState(graph, edges, n, durations, statuses);
+    }
+
+    private static void assertState(DependencyGraph graph, Set<Long> edges, int n, int[] durations,
+                                     TaskStatus[] statuses) {
+        long[] earliest = new long[n];
+        // n passes of relaxation settle longest paths in a DAG of n nodes
+        for (int pass = 0; pass < n; pass++) {
+            for (long e : edges) {
+                int a = (int) (e >> 32);
+                int b = (int) e;
+                earliest[b] = Math.max(earliest[b], earliest[a] + durations[a]);
+            }
+        }
+        Set<Integer> blocked = new HashSet<>();
+        Set<Integer> ready = new HashSet<>();
+        for (int v = 0; v < n; v++) {
+            boolean linked = false;
+            boolean pending = false;
+            for (long e : edges) {
+                int a = (int) (e >> 32);
+                int b = (int) e;
+                linked |= a == v || b == v;
+                pending |= b == v && statuses[a] != TaskStatus.DONE;
+            }
+            assertEquals(linked, graph.contains(v));
+            assertEquals(earliest[v], graph.getEarliestStartMinutes(v));
+            // the chain follows edges and its durations add up to the earliest start
+            List<Integer> chain = graph.getCriticalChain(v);
+            long sum = 0;
+            for (int i = 0; i + 1 < chain.size(); i++) {
+                assertTrue(edges.contains(edge(chain.get(i), chain.get(i + 1))));
+                sum += durations[chain.get(i)];
+            }
+            assertEquals(linked ? earliest[v] : 0, sum);
+            if (linked && statuses[v] != TaskStatus.DONE) {
+                (pending ? blocked : ready).add(v);
+            }
+        }
+        assertEquals(blocked, graph.getBlockedIds());
+        assertEquals(ready, graph.getReadyIds());
+    }
+
+    private static boolean reaches(Set<Long> edges, int n, int from, int to) {
+        List<Integer> stack = new ArrayList<>(List.of(from));
+        boolean[] seen = new boolean[n];
+        while (!stack.isEmpty()) {
+            int v = stack.removeLast();
+            if (v == to) {
+                return true;
+            }
+            for (long e : edges) {
+                if ((int) (e >> 32) == v && !seen[(int) e]) {
+                    seen[(int) e] = true;
+                    stack.add((int) e);
+                }
+            }
+        }
+        return false;
+    }
+
+    private static long edge(int a, int b) {
+        return (long) a << 32 | b;
+    }
+}
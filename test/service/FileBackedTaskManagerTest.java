@@ -1,18 +1,26 @@
 package service;
 
+import model.Epic;
+import model.RecurringTask;
 import model.Task;
 import model.TaskStatus;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import service.exception.InMemoryTaskManagerCreateException;
 import service.exception.ManagerLoadException;
 import service.exception.ManagerSaveException;
+import service.store.StorageOptions;
+import util.StringPool;
 
 import java.io.BufferedWriter;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -144,4 +152,191 @@ public class FileBackedTaskManagerTest extends TaskManagerTest<FileBackedTaskMan
             tm.createTask(new Task("", "", TaskStatus.NEW, Duration.ZERO, LocalDateTime.now()));
         });
     }
+
+    @Test
+    public void lazyDescriptionsAreReadFromFile() {
+        StorageOptions options = StorageOptions.DEFAULT.withLazyDescriptions(2);
+        TaskManager tm = FileBackedTaskManager.loadFromFile(history, tempFileReadTest, options);
+
+        assertEquals("Task 1 description", tm.getTaskById(1).getDescription());
+        assertEquals("Epic 2 description", tm.getEpicById(4).getDescription());
+        assertEquals("Subtask 1 for epic 1", tm.getSubtaskById(5).getDescription());
+        assertEquals(fileExampleString.length(), tempFileReadTest.toFile().length());
+    }
+
+    @Test
+    public void lazyDescriptionsSurviveFileRewrite() {
+        StorageOptions options = StorageOptions.DEFAULT.withLazyDescriptions(1);
+        TaskManager tm = FileBackedTaskManager.loadFromFile(history, tempFileReadTest, options);
+
+        tm.getTaskById(1);
+        tm.updateTask(new Task(1, "Task #1", "Новое описание", TaskStatus.IN_PROGRESS,
+                Duration.ofMinutes(59), LocalDateTime.of(2025, 5, 1, 9, 0)));
+        tm.deleteTask(2);
+        tm.createTask(makeTestTask(TaskStatus.NEW, durationRef, timeRef));
+
+        assertEquals("Task 1 description", tm.getHistory().getFirst().getDescription());
+        assertEquals("Новое описание", tm.getTaskById(1).getDescription());
+        assertEquals("Epic 1 description", tm.getEpicById(3).getDescription());
+        assertEquals("Subtask 2 for epic 2", tm.getSubtaskById(6).getDescription());
+
+        TaskManager tmLoaded = FileBackedTaskManager.loadFromFile(
+                new InMemoryHistoryManager(), tempFileReadTest, options);
+        assertEquals("Новое описание", tmLoaded.getTaskById(1).getDescription());
+        assertEquals("Subtask 1 for epic 1", tmLoaded.getSubtaskById(5).getDescription());
+    }
+
+    @Test
+    public void historyIsRestoredAfterLoad() {
+        TaskManager tm = FileBackedTaskManager.loadFromFile(new InMemoryHistoryManager(), tempFileReadTest);
+        tm.getTaskById(1);
+        tm.getEpicById(3);
+        tm.getSubtaskById(5);
+        tm.getTaskById(1);
+        tm.deleteSubtask(5);
+
+        TaskManager tmLoaded = FileBackedTaskManager.loadFromFile(new InMemoryHistoryManager(), tempFileReadTest);
+        List<Task> history = tmLoaded.getHistory();
+        assertEquals(2, history.size());
+        assertEquals(3, history.getFirst().getId());
+        assertEquals(1, history.getLast().getId());
+    }
+
+    @Test
+    public void compressedSnapshotIsDetectedOnLoad() throws IOException {
+        TaskManager tmLoaded = FileBackedTaskManager.loadFromFile(history, tempFileReadTest);
+        StorageOptions options = StorageOptions.DEFAULT.withCompression(9, 512);
+        TaskManager tm = new FileBackedTaskManager(history, tempFileWriteTest, options);
+        for (int i = 0; i < 50; i++) {
+            Task task = tmLoaded.getTaskById(1);
+            tm.createTask(new Task(task.getName(), task.getDescription(), task.getStatus(),
+                    task.getDuration(), task.getStartTime().plusHours(i)));
+        }
+
+        assertFalse(Files.readString(tempFileWriteTest, StandardCharsets.ISO_8859_1).contains("description"));
+
+        // compression is detected by the header, not by the options used to load
+        TaskManager tmReloaded = FileBackedTaskManager.loadFromFile(history, tempFileWriteTest);
+        assertEquals(50, tmReloaded.getAllTasks().size());
+        assertEquals("Task 1 description", tmReloaded.getTaskById(1).getDescription());
+
+        TaskManager tmLazy = FileBackedTaskManager.loadFromFile(
+                history, tempFileWriteTest, StorageOptions.DEFAULT.withLazyDescriptions(4));
+        assertEquals("Task 1 description", tmLazy.getTaskById(50).getDescription());
+    }
+
+    @Test
+    public void savedIndexIsUsedOnLoad() {
+        FileBackedTaskManager tm = FileBackedTaskManager.loadFromFile(history, tempFileReadTest);
+        tm.createTask(makeTestTask(TaskStatus.NEW, durationRef, LocalDateTime.of(2025, 4, 1, 9, 0)));
+        Path index = tempFileReadTest.resolveSibling(tempFileReadTest.getFileName() + ".idx");
+        assertFalse(Files.exists(index));
+        tm.snapshot();
+        assertTrue(Files.exists(index));
+
+        TaskManager tmLoaded = FileBackedTaskManager.loadFromFile(new InMemoryHistoryManager(), tempFileReadTest);
+        assertEquals(List.copyOf(tm.getPrioritizedTasks()), List.copyOf(tmLoaded.getPrioritizedTasks()));
+        assertEquals(List.of(5), tmLoaded.getEpicById(3).getSubtaskIds());
+        assertEquals(8, (int) tmLoaded.createEpic(new Epic("Epic #3", "Epic 3 description")));
+    }
+
+    @Test
+    public void staleIndexIsIgnored() throws IOException {
+        TaskManager tm = FileBackedTaskManager.loadFromFile(history, tempFileReadTest);
+        tm.deleteTask(2);
+        Files.writeString(tempFileReadTest,
+                "9,TASK,Task #9,NEW,Task 9 description,0,2025-04-01T09:00,59,0" + FileBackedTaskManager.LINE_SEPARATOR,
+                StandardOpenOption.APPEND);
+
+        TaskManager tmLoaded = FileBackedTaskManager.loadFromFile(new InMemoryHistoryManager(), tempFileReadTest);
+        assertEquals(9, tmLoaded.getPrioritizedTasks().iterator().next().getId());
+        assertEquals(10, (int) tmLoaded.createEpic(new Epic("Epic #3", "Epic 3 description")));
+    }
+
+    @Test
+    public void lazyDescriptionsCanNotBeCompressed() {
+        assertThrows(IllegalArgumentException.class,
+                () -> StorageOptions.DEFAULT.withCompression().withLazyDescriptions(16));
+    }
+
+    @Test
+    public void loadedTasksSharePooledText() throws IOException {
+        Files.writeString(tempFileWriteTest, String.join(FileBackedTaskManager.LINE_SEPARATOR,
+                "1,TASK,Review,NEW,Weekly review,0,null,0,0",
+                "2,TASK,Review,NEW,Weekly review,0,null,0,0",
+                ""));
+        StringPool pool = new StringPool();
+        TaskManager tm = FileBackedTaskManager.loadFromFile(history, tempFileWriteTest,
+                StorageOptions.DEFAULT.withStringPool(pool));
+
+        assertSame(tm.getTaskById(1).getName(), tm.getTaskById(2).getName());
+        assertSame(tm.getTaskById(1).getDescription(), tm.getTaskById(2).getDescription());
+        assertTrue(pool.getReport().bytesSaved() > 0);
+    }
+
+    @Test
+    public void recurringTasksAreLoaded() {
+        TaskManager tm = new FileBackedTaskManager(history, tempFileWriteTest);
+        int id = tm.createRecurringTask(RecurringTask.daily("Standup", "desc", Duration.ofMinutes(15),
+                LocalDateTime.of(2025, 5, 1, 9, 0)));
+
+        TaskManager loaded = FileBackedTaskManager.loadFromFile(history, tempFileWriteTest);
+        assertEquals(List.of(id), loaded.getAllRecurringTasks().stream().map(Task::getId).toList());
+        assertTrue(loaded.createTask(new Task("Task", "desc", TaskStatus.NEW, Duration.ZERO, null)) > id);
+        assertThrows(InMemoryTaskManagerCreateException.class, () -> loaded.createTask(new Task("Task", "desc",
+                TaskStatus.NEW, Duration.ofMinutes(30), LocalDateTime.of(2025, 6, 1, 9, 10))));
+    }
+
+    @Test
+    public void importedConflictsAreReported() throws IOException {
+        Files.writeString(tempFileWriteTest, String.join(FileBackedTaskManager.LINE_SEPARATOR,
+                "1,TASK,Task #1,NEW,desc,0,2025-05-01T09:00,60,0",
+                "2,TASK,Task #2,NEW,desc,0,2025-05-01T09:00,30,0",
+                "3,TASK,Task #3,NEW,desc,0,2025-05-01T09:45,30,0",
+                "4,TASK,Task #4,NEW,desc,0,2025-05-01T11:00,30,0",
+                ""));
+        TaskManager tm = FileBackedTaskManager.loadFromFile(history, tempFileWriteTest);
+
+        assertEquals(List.of("1-2", "1-3"), tm.findAllConflicts()
+                .map(conflict -> conflict.first().getId() + "-" + conflict.second().getId())
+                .sorted()
+                .toList());
+    }
+
+    @Test
+    public void importedConflictsDoNotHideOverlaps() throws IOException {
+        Files.writeString(tempFileWriteTest, String.join(FileBackedTaskManager.LINE_SEPARATOR,
+                "1,TASK,Task #1,NEW,desc,0,2025-05-01T09:00,60,0",
+                "2,TASK,Task #2,NEW,desc,0,2025-05-01T09:00,30,0",
+                "3,TASK,Task #3,NEW,desc,0,2025-05-01T09:45,30,0",
+                ""));
+        TaskManager tm = FileBackedTaskManager.loadFromFile(history, tempFileWriteTest);
+        LocalDateTime nineThirty = LocalDateTime.of(2025, 5, 1, 9, 30);
+
+        // task #2 ends before 9:30, task #1 is still running
+        assertThrows(InMemoryTaskManagerCreateException.class, () ->
+                tm.createTask(new Task("", "", TaskStatus.NEW, Duration.ofMinutes(10), nineThirty)));
+        assertEquals(List.of(1, 3), tm.getPrioritizedTasks(nineThirty, nineThirty.plusMinutes(30)).stream()
+                .map(Task::getId)
+                .toList());
+        int id = tm.scheduleEarliest(new Task("", "", TaskStatus.NEW, Duration.ZERO, nineThirty),
+                nineThirty, Duration.ofMinutes(10));
+        assertEquals(LocalDateTime.of(2025, 5, 1, 10, 15), tm.getTaskById(id).getStartTime());
+
+        tm.deleteTask(3);
+        tm.deleteTask(2);
+        int free = tm.createTask(new Task("", "", TaskStatus.NEW, Duration.ofMinutes(10),
+                LocalDateTime.of(2025, 5, 1, 10, 0)));
+        assertEquals(LocalDateTime.of(2025, 5, 1, 10, 0), tm.getTaskById(free).getStartTime());
+    }
+
+    @Test
+    public void dependenciesSurviveReload() {
+        List<Integer> ids = makeTestDependencies();
+
+        assertTestDependencies(FileBackedTaskManager.loadFromFile(history, tempFileCommon), ids);
+        ((FileBackedTaskManager) tm).snapshot();
+        assertTestDependencies(FileBackedTaskManager.loadFromFile(history, tempFileCommon,
+                StorageOptions.DEFAULT.withLazyDescriptions(4)), ids);
+    }
 }
@@ -0,0 +1,103 @@
+package service;
+
+import model.Task;
+import model.TaskStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public abstract class HistoryManagerTest<T extends HistoryManager> {
+
+    T hm;
+
+    abstract T createHistoryManager(int maxSize, Consumer<? super Task> evictionListener);
+
+    abstract long getEvictionCount(T historyManager);
+
+    @BeforeEach
+    public void prepareHistoryManager() {
+        hm = createHistoryManager(100, task -> {
+        });
+    }
+
+    @Test
+    public void addTask() {
+        LocalDateTime time = LocalDateTime.of(2025, 5, 1, 9, 0);
+        Task task1 = new Task(1, "Task 1", "desc", TaskStatus.NEW, Duration.ofHours(1), time);
+        Task task2 = new Task(2, "Task 3", "desc", TaskStatus.NEW, Duration.ofHours(1), time.plusHours(2));
+        Task task3 = new Task(3, "Task 3", "desc", TaskStatus.NEW, Duration.ofHours(1), time.plusHours(4));
+        hm.add(task1);
+        hm.add(task2);
+        hm.add(task3);
+
+        assertEquals(task1, hm.getHistory().getFirst());
+        assertEquals(task2, hm.getHistory().get(1));
+        assertEquals(task3, hm.getHistory().getLast());
+    }
+
+    @Test
+    public void removeTask() {
+        LocalDateTime time = LocalDateTime.of(2025, 5, 1, 9, 0);
+        Task task1 = new Task(1, "Task 1", "desc", TaskStatus.NEW, Duration.ofHours(1), time);
+        Task task2 = new Task(2, "Task 2", "desc", TaskStatus.NEW, Duration.ofHours(1), time.plusHours(2));
+
+        hm.add(task1);
+        hm.add(task2);
+        hm.remove(task1.getId());
+
+        assertEquals(task2, hm.getHistory().getFirst());
+    }
+
+    @Test
+    public void noDuplicateTasks() {
+        LocalDateTime time = LocalDateTime.of(2025, 5, 1, 9, 0);
+        Task task1 = new Task(1, "Task 1", "desc", TaskStatus.NEW, Duration.ofHours(1), time);
+        Task task2 = new Task(2, "Task 3", "desc", TaskStatus.NEW, Duration.ofHours(1), time.plusHours(2));
+        Task task3 = new Task(3, "Task 3", "desc", TaskStatus.NEW, Duration.ofHours(1), time.plusHours(4));
+
+        hm.add(task1);
+        hm.add(task1);
+
+        assertEquals(task1, hm.getHistory().getLast());
+        assertEquals(1, hm.getHistory().size());
+
+        hm.add(task2);
+        hm.add(task3);
+
+        hm.add(task2);
+
+        assertEquals(task2, hm.getHistory().getLast());
+        assertEquals(3, hm.getHistory().size());
+    }
+
+    @Test
+    public void eldestTaskIsEvictedOverMaxSize() {
+        List<Task> evicted = new ArrayList<>();
+        hm = createHistoryManager(2, evicted::add);
+        LocalDateTime time = LocalDateTime.of(2025, 5, 1, 9, 0);
+        Task task1 = new Task(1, "Task 1", "desc", TaskStatus.NEW, Duration.ofHours(1), time);
+        Task task2 = new Task(2, "Task 2", "desc", TaskStatus.NEW, Duration.ofHours(1), time.plusHours(2));
+        Task task3 = new Task(3, "Task 3", "desc", TaskStatus.NEW, Duration.ofHours(1), time.plusHours(4));
+
+        hm.add(task1);
+        hm.add(task2);
+        hm.add(task1);
+        hm.add(task3);
+
+        assertEquals(List.of(task1, task3), hm.getHistory());
+        assertEquals(List.of(task2), evicted);
+        assertEquals(1, getEvictionCount(hm));
+
+        hm.remove(task1.getId());
+        hm.add(task2);
+        assertEquals(List.of(task3, task2), hm.getHistory());
+        assertEquals(1, getEvictionCount(hm));
+    }
+}
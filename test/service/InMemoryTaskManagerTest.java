@@ -1,8 +1,31 @@
 package service;
 
+import model.Task;
+import model.TaskStatus;
+import org.junit.jupiter.api.Test;
+import service.store.HeapTaskStore;
+import util.StringPool;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
 class InMemoryTaskManagerTest extends TaskManagerTest<InMemoryTaskManager> {
     @Override
     InMemoryTaskManager getTaskManager() {
         return new InMemoryTaskManager(new InMemoryHistoryManager());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void createdTasksSharePooledText() {
+        StringPool pool = new StringPool();
+        InMemoryTaskManager tm = new InMemoryTaskManager(new InMemoryHistoryManager(), new HeapTaskStore(pool));
+
+        int id1 = tm.createTask(new Task(new String("Standup"), new String("Daily"), TaskStatus.NEW, Duration.ZERO, null));
+        int id2 = tm.createTask(new Task(new String("Standup"), new String("Daily"), TaskStatus.NEW, Duration.ZERO, null));
+
+        assertSame(tm.getTaskById(id1).getName(), tm.getTaskById(id2).getName());
+        assertSame(tm.getTaskById(id1).getDescription(), tm.getTaskById(id2).getDescription());
+        assertEquals(2, pool.getReport().hits());
+    }
+}
@@ -0,0 +1,37 @@
+package service;
+
+import org.junit.jupiter.api.Test;
+import service.store.JournalTaskStore;
+import service.store.StorageOptions;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+class JournalStoreTaskManagerTest extends TaskManagerTest<InMemoryTaskManager> {
+
+    Path file;
+
+    @Override
+    InMemoryTaskManager getTaskManager() {
+        try {
+            file = Files.createTempDirectory("journal").resolve("tasks.csv");
+            return new InMemoryTaskManager(new InMemoryHistoryManager(),
+                    JournalTaskStore.open(file, StorageOptions.DEFAULT));
+        } catch (IOException e) {
+            throw new RuntimeException(e.getMessage(), e);
+        }
+    }
+
+    @Test
+    public void dependenciesSurviveReload() {
+        List<Integer> ids = makeTestDependencies();
+
+        JournalTaskStore replayed = JournalTaskStore.open(file, StorageOptions.DEFAULT);
+        assertTestDependencies(new InMemoryTaskManager(new InMemoryHistoryManager(), replayed), ids);
+        replayed.snapshot();
+        assertTestDependencies(new InMemoryTaskManager(new InMemoryHistoryManager(),
+                JournalTaskStore.open(file, StorageOptions.DEFAULT)), ids);
+    }
+}
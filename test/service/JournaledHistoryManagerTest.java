@@ -0,0 +1,80 @@
+package service;
+
+import model.Task;
+import model.TaskStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JournaledHistoryManagerTest {
+
+    Path journal;
+    Map<Integer, Task> tasks;
+
+    @BeforeEach
+    public void prepareJournal() throws IOException {
+        journal = Files.createTempFile("history", ".journal");
+        Files.delete(journal);
+
+        tasks = new HashMap<>();
+        LocalDateTime time = LocalDateTime.of(2025, 5, 1, 9, 0);
+        for (int id = 1; id <= 2000; id++) {
+            tasks.put(id, new Task(id, "Task " + id, "desc", TaskStatus.NEW, Duration.ofMinutes(1), time.plusMinutes(id)));
+        }
+    }
+
+    @Test
+    public void replayKeepsViewOrder() {
+        JournaledHistoryManager hm = new JournaledHistoryManager(new InMemoryHistoryManager(), journal);
+        hm.add(tasks.get(1));
+        hm.add(tasks.get(2));
+        hm.add(tasks.get(3));
+        hm.add(tasks.get(1));
+        hm.remove(List.of(2));
+
+        JournaledHistoryManager restored = new JournaledHistoryManager(new InMemoryHistoryManager(), journal);
+        restored.restore(tasks::get);
+
+        assertEquals(List.of(tasks.get(3), tasks.get(1)), restored.getHistory());
+    }
+
+    @Test
+    public void journalIsCompacted() throws IOException {
+        JournaledHistoryManager hm = new JournaledHistoryManager(new InMemoryHistoryManager(), journal);
+        for (int i = 0; i < 10; i++) {
+            for (int id = 1; id <= 500; id++) {
+                hm.add(tasks.get(id));
+            }
+        }
+
+        assertTrue(Files.size(journal) < 5 * 2000L);
+
+        JournaledHistoryManager restored = new JournaledHistoryManager(new InMemoryHistoryManager(), journal);
+        restored.restore(tasks::get);
+        assertEquals(500, restored.getHistory().size());
+        assertEquals(tasks.get(500), restored.getHistory().getLast());
+    }
+
+    @Test
+    public void incompleteTrailingRecordIsIgnored() throws IOException {
+        JournaledHistoryManager hm = new JournaledHistoryManager(new InMemoryHistoryManager(), journal);
+        hm.add(tasks.get(1));
+        hm.add(tasks.get(2));
+        Files.write(journal, new byte[]{'+', 0, 0}, StandardOpenOption.APPEND);
+
+        JournaledHistoryManager restored = new JournaledHistoryManager(new InMemoryHistoryManager(), journal);
+        restored.restore(tasks::get);
+        assertEquals(2, restored.getHistory().size());
+    }
+}
@@ -0,0 +1,51 @@
+package service;
+
+import model.TaskStatus;
+import org.junit.jupiter.api.Test;
+import service.store.MappedTaskStore;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedStoreTaskManagerTest extends TaskManagerTest<InMemoryTaskManager> {
+
+    Path file;
+
+    @Override
+    InMemoryTaskManager getTaskManager() {
+        try {
+            file = Files.createTempDirectory("mapped").resolve("tasks.dat");
+            return new InMemoryTaskManager(new InMemoryHistoryManager(), MappedTaskStore.open(file));
+        } catch (IOException e) {
+            throw new RuntimeException(e.getMessage(), e);
+        }
+    }
+
+    @Test
+    public void managerIsRebuiltFromStore() {
+        int taskId = tm.createTask(makeTestTask(TaskStatus.NEW, durationRef, timeRef));
+        int epicId = tm.createEpic(makeTestEpic());
+        int subtaskId = tm.createSubtask(makeTestSubtask(epicId, TaskStatus.DONE, durationRef, timeRef.minusHours(2)));
+
+        TaskManager reopened = new InMemoryTaskManager(new InMemoryHistoryManager(), MappedTaskStore.open(file));
+        assertEquals(List.of(subtaskId), reopened.getEpicById(epicId).getSubtaskIds());
+        assertEquals(TaskStatus.DONE, reopened.getEpicById(epicId).getStatus());
+        assertEquals(2, reopened.getPrioritizedTasks().size());
+        assertTrue(reopened.createTask(makeTestTask(TaskStatus.NEW, durationRef, timeRef.plusDays(1))) > taskId);
+        assertTrue(reopened.createEpic(makeTestEpic()) > subtaskId);
+    }
+
+    @Test
+    public void dependenciesSurviveReload() {
+        List<Integer> ids = makeTestDependencies();
+
+        assertTestDependencies(new InMemoryTaskManager(new InMemoryHistoryManager(), MappedTaskStore.open(file)), ids);
+        MappedTaskStore store = MappedTaskStore.open(file);
+        store.snapshot();
+        assertTestDependencies(new InMemoryTaskManager(new InMemoryHistoryManager(), store), ids);
+    }
+}
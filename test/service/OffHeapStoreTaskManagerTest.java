@@ -0,0 +1,38 @@
+package service;
+
+import model.Task;
+import model.TaskStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapStoreTaskManagerTest extends TaskManagerTest<OffHeapTaskManager> {
+
+    @Override
+    OffHeapTaskManager getTaskManager() {
+        return new OffHeapTaskManager(new InMemoryHistoryManager());
+    }
+
+    @AfterEach
+    public void closeTaskManager() {
+        ((OffHeapTaskManager) tm).close();
+    }
+
+    @Test
+    public void closedManagerFreesItsTasks() {
+        OffHeapTaskManager manager = new OffHeapTaskManager(new InMemoryHistoryManager());
+        int id;
+        Task read;
+        try (manager) {
+            id = manager.createTask(makeTestTask(TaskStatus.NEW, durationRef, timeRef));
+            read = manager.getTaskById(id);
+        }
+
+        assertThrows(IllegalStateException.class, () -> manager.getTaskById(id));
+        // copies read before stay usable
+        assertEquals(Duration.ofMinutes(59), read.getDuration());
+    }
+}
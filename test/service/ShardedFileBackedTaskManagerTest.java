@@ -0,0 +1,130 @@
+package service;
+
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import model.TaskStatus;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ShardedFileBackedTaskManagerTest extends TaskManagerTest<ShardedFileBackedTaskManager> {
+
+    static final int SHARDS = 4;
+    Path directory;
+
+    @Override
+    ShardedFileBackedTaskManager getTaskManager() {
+        try {
+            directory = Files.createTempDirectory("shards");
+            return new ShardedFileBackedTaskManager(new InMemoryHistoryManager(), directory, SHARDS);
+        } catch (IOException e) {
+            throw new RuntimeException(e.getMessage(), e);
+        }
+    }
+
+    private Set<String> shardFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.startsWith("shard-"))
+                    .collect(Collectors.toSet());
+        }
+    }
+
+    private ShardedFileBackedTaskManager reload(int shardCount) {
+        return ShardedFileBackedTaskManager.loadFromDirectory(new InMemoryHistoryManager(), directory, shardCount);
+    }
+
+    @Test
+    public void loadFromShards() {
+        for (int i = 0; i < 10; i++) {
+            tm.createTask(makeTestTask(TaskStatus.NEW, durationRef, timeRef.plusHours(i)));
+        }
+        int epicId = tm.createEpic(makeTestEpic());
+        int subtaskId = tm.createSubtask(makeTestSubtask(epicId, TaskStatus.DONE, durationRef, timeRef.minusHours(2)));
+
+        TaskManager tmLoaded = reload(SHARDS);
+        assertEquals(10, tmLoaded.getAllTasks().size());
+        assertEquals(List.of(subtaskId), tmLoaded.getEpicById(epicId).getSubtaskIds());
+        assertEquals(TaskStatus.DONE, tmLoaded.getEpicById(epicId).getStatus());
+        assertEquals(subtaskId, tmLoaded.getPrioritizedTasks().iterator().next().getId());
+    }
+
+    @Test
+    public void onlyDirtyShardIsRewritten() throws IOException {
+        for (int i = 0; i < 20; i++) {
+            tm.createTask(makeTestTask(TaskStatus.NEW, durationRef, timeRef.plusHours(i)));
+        }
+        Set<String> before = shardFiles();
+        assertEquals(SHARDS, before.size());
+
+        Task task = tm.getAllTasks().getFirst();
+        tm.updateTask(task.withStatus(TaskStatus.DONE));
+
+        Set<String> after = shardFiles();
+        assertEquals(SHARDS, after.size());
+        after.retainAll(before);
+        assertEquals(SHARDS - 1, after.size());
+    }
+
+    @Test
+    public void subtasksAreStoredWithTheirEpic() throws IOException {
+        int epicId = tm.createEpic(makeTestEpic());
+        for (int i = 0; i < 10; i++) {
+            tm.createSubtask(makeTestSubtask(epicId, TaskStatus.NEW, durationRef, timeRef.plusHours(i)));
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            long shardsWithData = files.filter(file -> file.getFileName().toString().startsWith("shard-"))
+                    .filter(file -> file.toFile().length() > 0)
+                    .count();
+            assertEquals(1, shardsWithData);
+        }
+    }
+
+    @Test
+    public void unreferencedShardFilesAreIgnoredAndRemoved() throws IOException {
+        tm.createTask(makeTestTask(TaskStatus.NEW, durationRef, timeRef));
+        // left behind by a save that crashed before the manifest was replaced
+        Path stray = directory.resolve("shard-0-99.csv");
+        Files.writeString(stray, "100,TASK,Stray,NEW,desc,0,2025-05-01T09:00,59,0\n");
+
+        TaskManager tmLoaded = reload(SHARDS);
+        assertEquals(1, tmLoaded.getAllTasks().size());
+        assertFalse(Files.exists(stray));
+    }
+
+    @Test
+    public void shardCountCanBeChanged() throws IOException {
+        int epicId = tm.createEpic(makeTestEpic());
+        tm.createSubtask(makeTestSubtask(epicId, TaskStatus.NEW, durationRef, timeRef));
+        for (int i = 1; i < 10; i++) {
+            tm.createTask(makeTestTask(TaskStatus.NEW, durationRef, timeRef.plusHours(i)));
+        }
+
+        reload(2);
+        assertEquals(2, shardFiles().size());
+
+        ShardedFileBackedTaskManager tmLoaded = reload(2);
+        assertEquals(9, tmLoaded.getAllTasks().size());
+        assertEquals(1, tmLoaded.getAllSubtasks().size());
+        Epic epic = tmLoaded.getEpicById(epicId);
+        Subtask subtask = tmLoaded.getAllSubtasks().getFirst();
+        assertEquals(epic.getSubtaskIds(), List.of(subtask.getId()));
+    }
+
+    @Test
+    public void dependenciesSurviveReload() {
+        List<Integer> ids = makeTestDependencies();
+
+        assertTestDependencies(reload(SHARDS), ids);
+        assertTestDependencies(reload(SHARDS + 1), ids);
+    }
+}
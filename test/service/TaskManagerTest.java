@@ -1,6 +1,7 @@
 package service;
 
 import model.Epic;
+import model.RecurringTask;
 import model.Subtask;
 import model.Task;
 import model.TaskStatus;
@@ -9,9 +10,12 @@ import org.junit.jupiter.api.Test;
 import service.exception.InMemoryTaskManagerCreateException;
 
 import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
+import java.util.SortedSet;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -53,6 +57,30 @@ public abstract class TaskManagerTest<T extends TaskManager> {
         return new Epic("Epic #" + createdTasksCounter, "Epic #" + createdTasksCounter + " description");
     }
 
+    // dependencies for persistent managers to reload: design -> build -> release, with an edge removed
+    // and one dropped along with its task; returns design, build, epic and release ids
+    protected List<Integer> makeTestDependencies() {
+        int designId = tm.createTask(makeTestTask(TaskStatus.NEW, Duration.ofMinutes(60), null));
+        int buildId = tm.createTask(makeTestTask(TaskStatus.NEW, Duration.ofMinutes(90), null));
+        int droppedId = tm.createTask(makeTestTask(TaskStatus.NEW, Duration.ofMinutes(500), null));
+        int epicId = tm.createEpic(makeTestEpic());
+        int releaseId = tm.createSubtask(makeTestSubtask(epicId, TaskStatus.NEW, Duration.ofMinutes(30), null));
+        tm.addDependency(designId, buildId);
+        tm.addDependency(buildId, releaseId);
+        tm.addDependency(designId, releaseId);
+        tm.removeDependency(designId, releaseId);
+        tm.addDependency(droppedId, buildId);
+        tm.deleteTask(droppedId);
+        return List.of(designId, buildId, epicId, releaseId);
+    }
+
+    protected void assertTestDependencies(TaskManager loaded, List<Integer> ids) {
+        assertEquals(List.of(ids.get(0)), loaded.getBlockers(ids.get(1)).stream().map(Task::getId).toList());
+        assertEquals(List.of(ids.get(1)), loaded.getBlockers(ids.get(3)).stream().map(Task::getId).toList());
+        assertEquals(List.of(ids.get(0)), loaded.getReadyTasks().stream().map(Task::getId).toList());
+        assertEquals(Duration.ofMinutes(180), loaded.getCriticalPath(ids.get(2)));
+    }
+
     @BeforeEach
     public void prepareTaskManager() {
         createdTasksCounter = 0;
@@ -291,6 +319,48 @@ public abstract class TaskManagerTest<T extends TaskManager> {
         assertEquals(3, tm.getHistory().size());
     }
 
+    @Test
+    public void historyIsKeptPerUser() {
+        int task1id = tm.createTask(makeTestTask(TaskStatus.NEW, durationRef, timeRef));
+        int task2id = tm.createTask(makeTestTask(TaskStatus.NEW, durationRef, timeRef.plusHours(1)));
+        int epic1Id = tm.createEpic(makeTestEpic());
+
+        tm.getTaskById(task1id, "alice");
+        tm.getEpicById(epic1Id, "alice");
+        tm.getTaskById(task2id, "bob");
+        tm.getTaskById(task1id, "bob");
+
+        assertEquals(List.of(task1id, epic1Id), tm.getHistory("alice").stream().map(Task::getId).toList());
+        assertEquals(List.of(task2id, task1id), tm.getHistory("bob").stream().map(Task::getId).toList());
+        assertTrue(tm.getHistory().isEmpty());
+        assertTrue(tm.getHistory("carol").isEmpty());
+
+        tm.deleteTask(task1id);
+        assertEquals(List.of(epic1Id), tm.getHistory("alice").stream().map(Task::getId).toList());
+        assertEquals(List.of(task2id), tm.getHistory("bob").stream().map(Task::getId).toList());
+    }
+
+    @Test
+    public void mostReadTasksAreHot() {
+        int task1id = tm.createTask(makeTestTask(TaskStatus.NEW, durationRef, timeRef));
+        int task2id = tm.createTask(makeTestTask(TaskStatus.NEW, durationRef, timeRef.plusHours(1)));
+        int epic1Id = tm.createEpic(makeTestEpic());
+        for (int i = 0; i < 5; i++) {
+            tm.getEpicById(epic1Id);
+        }
+        for (int i = 0; i < 3; i++) {
+            tm.getTaskById(task2id, "alice");
+        }
+        tm.getTaskById(task1id);
+
+        assertEquals(List.of(epic1Id, task2id), tm.getHotTasks(2).stream().map(Task::getId).toList());
+
+        tm.deleteTask(task2id);
+        assertEquals(List.of(epic1Id, task1id), tm.getHotTasks(3).stream().map(Task::getId).toList());
+        assertTrue(tm.getHotTasks(0).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> tm.getHotTasks(-1));
+    }
+
     @Test
     public void deleteTaskShouldDeleteTaskFromHistory() {
         int task1id = tm.createTask(makeTestTask(TaskStatus.NEW, durationRef, timeRef));
@@ -619,4 +689,299 @@ public abstract class TaskManagerTest<T extends TaskManager> {
         assertEquals(st1.getStartTime(), epic.getStartTime());
         assertEquals(st3.getEndTime(), epic.getEndTime());
     }
+
+    @Test
+    public void scheduleEarliestTakesFirstGapThatFits() {
+        tm.createTask(makeTestTask(TaskStatus.NEW, Duration.ofMinutes(60), timeRef));
+        tm.createTask(makeTestTask(TaskStatus.NEW, Duration.ofMinutes(60), timeRef.plusMinutes(90)));
+        tm.createTask(makeTestTask(TaskStatus.NEW, Duration.ofMinutes(60), timeRef.plusMinutes(180)));
+
+        int shortId = tm.scheduleEarliest(makeTestTask(TaskStatus.NEW, null, null), timeRef.plusMinutes(10),
+                Duration.ofMinutes(30));
+        int longId = tm.scheduleEarliest(makeTestTask(TaskStatus.NEW, null, null), timeRef,
+                Duration.ofMinutes(45));
+
+        assertEquals(timeRef.plusMinutes(60), tm.getTaskById(shortId).getStartTime());
+        assertEquals(Duration.ofMinutes(30), tm.getTaskById(shortId).getDuration());
+        assertEquals(timeRef.plusMinutes(240), tm.getTaskById(longId).getStartTime());
+    }
+
+    @Test
+    public void scheduleEarliestPlacesSubtasks() {
+        int epicId = tm.createEpic(makeTestEpic());
+        tm.createTask(makeTestTask(TaskStatus.NEW, Duration.ofMinutes(60), timeRef));
+
+        int subtaskId = tm.scheduleEarliest(makeTestSubtask(epicId, TaskStatus.NEW, null, null), timeRef,
+                Duration.ofMinutes(15));
+
+        assertEquals(timeRef.plusMinutes(60), tm.getSubtaskById(subtaskId).getStartTime());
+        assertEquals(timeRef.plusMinutes(60), tm.getEpicById(epicId).getStartTime());
+        assertThrows(InMemoryTaskManagerCreateException.class,
+                () -> tm.scheduleEarliest(makeTestEpic(), timeRef, Duration.ofMinutes(15)));
+    }
+
+    @Test
+    public void scheduleAllEarliestPlacesTasksInOrder() {
+        tm.createTask(makeTestTask(TaskStatus.NEW, Duration.ofMinutes(30), timeRef.plusMinutes(40)));
+
+        List<Integer> ids = tm.scheduleAllEarliest(List.of(
+                makeTestTask(TaskStatus.NEW, Duration.ofMinutes(20), null),
+                makeTestTask(TaskStatus.NEW, Duration.ofMinutes(30), null),
+                makeTestTask(TaskStatus.NEW, Duration.ofMinutes(10), null)), timeRef);
+
+        assertEquals(timeRef, tm.getTaskById(ids.get(0)).getStartTime());
+        assertEquals(timeRef.plusMinutes(70), tm.getTaskById(ids.get(1)).getStartTime());
+        assertEquals(timeRef.plusMinutes(100), tm.getTaskById(ids.get(2)).getStartTime());
+        assertEquals(4, tm.getPrioritizedTasks().size());
+    }
+
+    @Test
+    public void scheduleAllEarliestRejectsSubtaskWithoutEpic() {
+        int epicId = tm.createEpic(makeTestEpic());
+
+        assertThrows(InMemoryTaskManagerCreateException.class, () -> tm.scheduleAllEarliest(List.of(
+                makeTestTask(TaskStatus.NEW, Duration.ofMinutes(20), null),
+                makeTestSubtask(epicId + 100, TaskStatus.NEW, Duration.ofMinutes(30), null)), timeRef));
+        assertThrows(InMemoryTaskManagerCreateException.class, () -> tm.scheduleEarliest(
+                makeTestSubtask(epicId + 100, TaskStatus.NEW, null, null), timeRef, Duration.ofMinutes(30)));
+        assertTrue(tm.getAllTasks().isEmpty());
+        assertTrue(tm.getPrioritizedTasks().isEmpty());
+    }
+
+    @Test
+    public void recurringTasksConflictWithoutMaterializedOccurrences() {
+        int standupId = tm.createRecurringTask(RecurringTask.daily("Standup", "desc", Duration.ofMinutes(15), timeRef));
+
+        assertThrows(InMemoryTaskManagerCreateException.class,
+                () -> tm.createTask(makeTestTask(TaskStatus.NEW, durationRef, timeRef.plusDays(30).minusMinutes(30))));
+        assertThrows(InMemoryTaskManagerCreateException.class,
+                () -> tm.createRecurringTask(RecurringTask.weekly("Sync", "desc", Duration.ofMinutes(30),
+                        timeRef.plusDays(3).minusMinutes(10))));
+        tm.createTask(makeTestTask(TaskStatus.NEW, durationRef, timeRef.plusDays(30).plusMinutes(15)));
+
+        assertEquals(1, tm.getAllRecurringTasks().size());
+        assertEquals(1, tm.getPrioritizedTasks().size());
+        assertEquals("Standup", tm.getRecurringTaskById(standupId).getName());
+    }
+
+    @Test
+    public void prioritizedWindowIncludesOccurrences() {
+        tm.createRecurringTask(RecurringTask.daily("Standup", "desc", Duration.ofMinutes(15), timeRef));
+        int taskId = tm.createTask(makeTestTask(TaskStatus.NEW, Duration.ofMinutes(60), timeRef.plusDays(1).minusMinutes(90)));
+
+        List<Task> window = tm.getPrioritizedTasks(timeRef.plusMinutes(5), timeRef.plusDays(2));
+
+        assertEquals(List.of(timeRef, timeRef.plusDays(1).minusMinutes(90), timeRef.plusDays(1)),
+                window.stream().map(Task::getStartTime).toList());
+        assertEquals(taskId, window.get(1).getId());
+    }
+
+    @Test
+    public void scheduleEarliestSkipsOccurrences() {
+        tm.createRecurringTask(RecurringTask.daily("Standup", "desc", Duration.ofMinutes(15), timeRef));
+        tm.createTask(makeTestTask(TaskStatus.NEW, Duration.ofMinutes(30), timeRef.plusMinutes(15)));
+
+        int id = tm.scheduleEarliest(makeTestTask(TaskStatus.NEW, null, null), timeRef.plusDays(1).minusMinutes(10),
+                Duration.ofMinutes(20));
+
+        assertEquals(timeRef.plusDays(1).plusMinutes(15), tm.getTaskById(id).getStartTime());
+    }
+
+    @Test
+    public void recurringTaskConflictsWithLaterOccurrences() {
+        tm.createTask(makeTestTask(TaskStatus.NEW, Duration.ofMinutes(30), timeRef.plusDays(5)));
+
+        assertThrows(InMemoryTaskManagerCreateException.class, () -> tm.createRecurringTask(
+                RecurringTask.daily("Standup", "desc", Duration.ofMinutes(30), timeRef)));
+        RecurringTask bounded = RecurringTask.daily("Standup", "desc", Duration.ofMinutes(30), timeRef)
+                .withUntil(timeRef.plusDays(4));
+        int id = tm.createRecurringTask(bounded);
+
+        assertThrows(InMemoryTaskManagerCreateException.class,
+                () -> tm.updateRecurringTask(tm.getRecurringTaskById(id).withUntil(null)));
+        assertEquals(timeRef.plusDays(4), tm.getRecurringTaskById(id).getUntil());
+    }
+
+    @Test
+    public void deletedRecurringTaskNoLongerConflicts() {
+        int id = tm.createRecurringTask(RecurringTask.daily("Standup", "desc", Duration.ofMinutes(15), timeRef));
+        tm.deleteRecurringTask(id);
+
+        tm.createTask(makeTestTask(TaskStatus.NEW, durationRef, timeRef.plusDays(5)));
+        assertNull(tm.getRecurringTaskById(id));
+        assertTrue(tm.getAllRecurringTasks().isEmpty());
+    }
+
+    @Test
+    public void dependenciesDriveReadyAndBlockedTasks() {
+        int designId = tm.createTask(makeTestTask(TaskStatus.NEW, Duration.ofMinutes(60), null));
+        int buildId = tm.createTask(makeTestTask(TaskStatus.NEW, Duration.ofMinutes(90), null));
+        int epicId = tm.createEpic(makeTestEpic());
+        int releaseId = tm.createSubtask(makeTestSubtask(epicId, TaskStatus.NEW, Duration.ofMinutes(30), null));
+
+        tm.addDependency(designId, buildId);
+        tm.addDependency(buildId, releaseId);
+
+        assertThrows(InMemoryTaskManagerCreateException.class, () -> tm.addDependency(releaseId, designId));
+        assertThrows(InMemoryTaskManagerCreateException.class, () -> tm.addDependency(designId, epicId));
+        assertEquals(List.of(designId), tm.getReadyTasks().stream().map(Task::getId).toList());
+        assertEquals(List.of(buildId, releaseId), tm.getBlockedTasks().stream().map(Task::getId).sorted().toList());
+        assertEquals(Duration.ofMinutes(150), tm.getEarliestStart(releaseId));
+        assertEquals(Duration.ofMinutes(180), tm.getCriticalPath(epicId));
+        assertEquals(List.of(designId, buildId, releaseId),
+                tm.getCriticalChain(epicId).stream().map(Task::getId).toList());
+
+        Task design = tm.getTaskById(designId);
+        tm.updateTask(new Task(designId, design.getName(), design.getDescription(), TaskStatus.DONE,
+                Duration.ofMinutes(10), null));
+        assertEquals(List.of(buildId), tm.getReadyTasks().stream().map(Task::getId).toList());
+        assertEquals(Duration.ofMinutes(130), tm.getCriticalPath(epicId));
+
+        tm.deleteTask(buildId);
+        assertTrue(tm.getBlockers(releaseId).isEmpty());
+        assertEquals(Duration.ZERO, tm.getEarliestStart(releaseId));
+        assertTrue(tm.getBlockedTasks().isEmpty());
+        assertEquals(List.of(releaseId), tm.getCriticalChain(epicId).stream().map(Task::getId).toList());
+    }
+
+    @Test
+    public void bookedTimeFollowsTimelineChanges() {
+        LocalDate day = LocalDate.of(2025, 5, 5);
+        int taskId = tm.createTask(makeTestTask(TaskStatus.NEW, Duration.ofHours(3), day.atTime(22, 0)));
+        int epicId = tm.createEpic(makeTestEpic());
+        int subtaskId = tm.createSubtask(makeTestSubtask(epicId, TaskStatus.NEW, Duration.ofDays(2),
+                day.plusDays(3).atTime(12, 0)));
+        tm.createRecurringTask(RecurringTask.weekly("Review", "desc", Duration.ofHours(1), day.atTime(9, 0)));
+
+        assertEquals(Duration.ofMinutes(120 + 60), tm.getBookedTime(day, day.plusDays(1)));
+        assertEquals(Duration.ofMinutes(60), tm.getBookedTime(day.plusDays(1), day.plusDays(2)));
+        assertEquals(Duration.ofMinutes(24 * 60), tm.getBookedTime(day.plusDays(4), day.plusDays(5)));
+        assertEquals(List.of(Duration.ofMinutes(180 + 48 * 60 + 60), Duration.ofMinutes(60)),
+                tm.getBookedTime(day, 7, 2));
+
+        Task task = tm.getTaskById(taskId);
+        tm.updateTask(new Task(taskId, task.getName(), task.getDescription(), TaskStatus.NEW,
+                Duration.ofHours(1), day.atTime(10, 0)));
+        tm.deleteSubtask(subtaskId);
+
+        assertEquals(Duration.ofMinutes(60 + 60), tm.getBookedTime(day, day.plusDays(1)));
+        assertEquals(Duration.ofMinutes(60 + 60), tm.getBookedTime(day, day.plusDays(7)));
+    }
+
+    @Test
+    public void farApartDatesAreBookedWithoutSpanningTheGap() {
+        LocalDate day = LocalDate.of(2025, 5, 5);
+        LocalDate farDay = LocalDate.of(999_999, 1, 1);
+        tm.createTask(makeTestTask(TaskStatus.NEW, Duration.ofHours(1), day.atTime(9, 0)));
+        int farId = tm.createTask(makeTestTask(TaskStatus.NEW, Duration.ofDays(3), farDay.atTime(12, 0)));
+        tm.createTask(makeTestTask(TaskStatus.NEW, Duration.ofHours(2), LocalDate.of(1, 1, 1).atTime(9, 0)));
+
+        assertEquals(Duration.ofMinutes(60), tm.getBookedTime(day, day.plusDays(1)));
+        assertEquals(Duration.ofDays(2), tm.getBookedTime(farDay.plusDays(1), farDay.plusDays(3)));
+        assertEquals(Duration.ofMinutes(60 + 3 * 24 * 60 + 120),
+                tm.getBookedTime(LocalDate.of(1, 1, 1), farDay.plusDays(10)));
+        assertEquals(3, tm.getPrioritizedTasks().size());
+
+        tm.deleteTask(farId);
+        assertEquals(Duration.ZERO, tm.getBookedTime(farDay, farDay.plusDays(10)));
+        assertEquals(Duration.ofMinutes(60 + 120), tm.getBookedTime(LocalDate.of(1, 1, 1), farDay));
+    }
+
+    @Test
+    public void shiftEpicMovesSubtasksAndEpicTogether() {
+        int epicId = tm.createEpic(makeTestEpic());
+        int firstId = tm.createSubtask(makeTestSubtask(epicId, TaskStatus.NEW, Duration.ofMinutes(30), timeRef));
+        int secondId = tm.createSubtask(makeTestSubtask(epicId, TaskStatus.NEW, Duration.ofMinutes(30),
+                timeRef.plusMinutes(30)));
+        int untimedId = tm.createSubtask(makeTestSubtask(epicId, TaskStatus.NEW, durationRef, null));
+        int otherId = tm.createTask(makeTestTask(TaskStatus.NEW, durationRef, timeRef.plusHours(2)));
+
+        // lands on the second subtask's old slot, which is free once the block moves
+        tm.shiftEpic(epicId, Duration.ofMinutes(30));
+
+        assertEquals(timeRef.plusMinutes(30), tm.getSubtaskById(firstId).getStartTime());
+        assertEquals(timeRef.plusMinutes(60), tm.getSubtaskById(secondId).getStartTime());
+        assertNull(tm.getSubtaskById(untimedId).getStartTime());
+        assertEquals(timeRef.plusMinutes(30), tm.getEpicById(epicId).getStartTime());
+        assertEquals(List.of(firstId, secondId, otherId),
+                tm.getPrioritizedTasks().stream().map(Task::getId).toList());
+
+        assertThrows(InMemoryTaskManagerCreateException.class, () -> tm.shiftEpic(epicId, Duration.ofMinutes(90)));
+        assertEquals(timeRef.plusMinutes(30), tm.getSubtaskById(firstId).getStartTime());
+        assertEquals(List.of(firstId, secondId, otherId),
+                tm.getPrioritizedTasks().stream().map(Task::getId).toList());
+    }
+
+    @Test
+    public void shiftRangeMovesOnlyTasksStartingInside() {
+        int beforeId = tm.createTask(makeTestTask(TaskStatus.NEW, durationRef, timeRef.minusHours(1)));
+        int insideId = tm.createTask(makeTestTask(TaskStatus.NEW, durationRef, timeRef));
+        int epicId = tm.createEpic(makeTestEpic());
+        int subtaskId = tm.createSubtask(makeTestSubtask(epicId, TaskStatus.NEW, durationRef, timeRef.plusHours(1)));
+        int afterId = tm.createTask(makeTestTask(TaskStatus.NEW, durationRef, timeRef.plusDays(1)));
+
+        tm.shiftRange(timeRef, timeRef.plusHours(2), Duration.ofDays(-1).plusHours(5));
+
+        assertEquals(timeRef.minusHours(1), tm.getTaskById(beforeId).getStartTime());
+        assertEquals(timeRef.minusDays(1).plusHours(5), tm.getTaskById(insideId).getStartTime());
+        assertEquals(timeRef.minusDays(1).plusHours(6), tm.getSubtaskById(subtaskId).getStartTime());
+        assertEquals(timeRef.minusDays(1).plusHours(6), tm.getEpicById(epicId).getStartTime());
+        assertEquals(timeRef.plusDays(1), tm.getTaskById(afterId).getStartTime());
+        assertEquals(List.of(insideId, subtaskId, beforeId, afterId),
+                tm.getPrioritizedTasks().stream().map(Task::getId).toList());
+    }
+
+    @Test
+    public void tasksSharingStartTimeAreAllPrioritized() {
+        int longId = tm.createTask(makeTestTask(TaskStatus.NEW, Duration.ofMinutes(60), timeRef));
+        int markerId = tm.createTask(makeTestTask(TaskStatus.NEW, Duration.ZERO, timeRef));
+
+        assertEquals(List.of(longId, markerId), tm.getPrioritizedTasks().stream().map(Task::getId).toList());
+        // the zero length task sorts last at that start, the long one before it still counts
+        assertThrows(InMemoryTaskManagerCreateException.class,
+                () -> tm.createTask(makeTestTask(TaskStatus.NEW, durationRef, timeRef.plusMinutes(30))));
+
+        tm.deleteTask(markerId);
+        assertEquals(List.of(longId), tm.getPrioritizedTasks().stream().map(Task::getId).toList());
+    }
+
+    @Test
+    public void updateRekeysPrioritizedTask() {
+        int id = tm.createTask(makeTestTask(TaskStatus.NEW, durationRef, timeRef));
+        Task task = tm.getTaskById(id);
+
+        tm.updateTask(new Task(id, task.getName(), task.getDescription(), TaskStatus.IN_PROGRESS,
+                durationRef, timeRef.plusHours(2)));
+        tm.updateTask(new Task(id, task.getName(), task.getDescription(), TaskStatus.DONE,
+                durationRef, timeRef.plusHours(2)));
+
+        assertEquals(1, tm.getPrioritizedTasks().size());
+        Task prioritized = tm.getPrioritizedTasks().iterator().next();
+        assertEquals(TaskStatus.DONE, prioritized.getStatus());
+        assertEquals(timeRef.plusHours(2), prioritized.getStartTime());
+        // the old slot is free again
+        assertNotNull(tm.createTask(makeTestTask(TaskStatus.NEW, durationRef, timeRef)));
+    }
+
+    @Test
+    public void prioritizedSnapshotIsCachedUntilTimelineChanges() {
+        int firstId = tm.createTask(makeTestTask(TaskStatus.NEW, durationRef, timeRef));
+        Set<Task> snapshot = tm.getPrioritizedTasks();
+        long version = tm.getPrioritizedVersion();
+
+        tm.createTask(makeTestTask(TaskStatus.NEW, durationRef, null));
+        assertSame(snapshot, tm.getPrioritizedTasks());
+        assertEquals(version, tm.getPrioritizedVersion());
+
+        int secondId = tm.createTask(makeTestTask(TaskStatus.NEW, durationRef, timeRef.minusHours(1)));
+        assertTrue(tm.getPrioritizedVersion() > version);
+        assertEquals(List.of(firstId), snapshot.stream().map(Task::getId).toList());
+        assertEquals(List.of(secondId, firstId), tm.getPrioritizedTasks().stream().map(Task::getId).toList());
+        assertTrue(tm.getPrioritizedTasks().contains(tm.getTaskById(secondId)));
+        assertThrows(UnsupportedOperationException.class, () -> tm.getPrioritizedTasks().clear());
+
+        SortedSet<Task> sorted = (SortedSet<Task>) tm.getPrioritizedTasks();
+        assertEquals(List.of(firstId), sorted.tailSet(tm.getTaskById(firstId)).stream().map(Task::getId).toList());
+        assertEquals(List.of(secondId), sorted.headSet(tm.getTaskById(firstId)).stream().map(Task::getId).toList());
+    }
 }
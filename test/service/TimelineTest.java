@@ -0,0 +1,94 @@
+package service;
+
+import model.Subtask;
+import model.Task;
+import model.TaskStatus;
+import model.TaskType;
+import org.junit.jupiter.api.Test;
+import util.EpochMinutes;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimelineTest {
+
+    private final LocalDateTime time = LocalDateTime.of(2025, 5, 5, 9, 0);
+    private final Map<Integer, Task> tasks = new HashMap<>();
+    private final Timeline timeline = new Timeline(tasks::get);
+
+    @Test
+    public void typesAreMergedInStartOrder() {
+        timeline.put(task(1, 60, 30));
+        timeline.put(subtask(2, 0, 30));
+        timeline.put(subtask(3, 60, 0));
+        timeline.put(task(4, 120, 30));
+        timeline.put(new Task(5, "T", "desc", TaskStatus.NEW, Duration.ZERO, null));
+
+        assertEquals(List.of(2, 1, 3, 4), ids(timeline));
+        assertEquals(List.of(1, 3), ids(timeline.startingBetween(minute(60), minute(120))));
+        assertEquals(List.of(1, 3, 4), ids(timeline.startingFrom(minute(60))));
+        assertTrue(timeline.contains(task(1, 60, 30)));
+        assertEquals(4, timeline.size());
+    }
+
+    @Test
+    public void clearingTypeKeepsOthers() {
+        timeline.put(task(1, 0, 30));
+        timeline.put(subtask(2, 30, 30));
+        timeline.put(task(3, 60, 30));
+
+        timeline.clear(TaskType.TASK);
+
+        assertEquals(List.of(2), ids(timeline));
+        assertThrows(UnsupportedOperationException.class, () -> timeline.iterator().remove());
+    }
+
+    @Test
+    public void runningTaskSkipsZeroLengthAndIgnoredOnes() {
+        timeline.put(task(1, 0, 60));
+        timeline.put(subtask(2, 30, 0));
+        timeline.put(task(3, 60, 30));
+
+        assertEquals(1, timeline.runningAt(minute(45)).getId());
+        assertEquals(minute(90), timeline.runningEnd(minute(60) + 1));
+        assertNull(timeline.runningAt(minute(90)));
+        assertNull(timeline.runningAt(minute(0)));
+        assertEquals(EpochMinutes.NONE, timeline.runningEnd(minute(120)));
+
+        List<Integer> seen = new ArrayList<>();
+        timeline.anyCandidate(minute(70), minute(80), 0, (start, id, end) -> !seen.add(id));
+        assertEquals(List.of(3), seen);
+        seen.clear();
+        timeline.anyCandidate(minute(70), minute(80), 3, (start, id, end) -> !seen.add(id));
+        assertEquals(List.of(1), seen);
+    }
+
+    private long minute(int offset) {
+        return EpochMinutes.of(time.plusMinutes(offset));
+    }
+
+    private Task task(int id, int offset, int minutes) {
+        Task task = new Task(id, "T", "desc", TaskStatus.NEW, Duration.ofMinutes(minutes), time.plusMinutes(offset));
+        tasks.put(id, task);
+        return task;
+    }
+
+    private Subtask subtask(int id, int offset, int minutes) {
+        Subtask subtask = new Subtask(id, 100, "S", "desc", TaskStatus.NEW, Duration.ofMinutes(minutes),
+                time.plusMinutes(offset));
+        tasks.put(id, subtask);
+        return subtask;
+    }
+
+    private static List<Integer> ids(Iterable<Task> tasks) {
+        List<Integer> ids = new ArrayList<>();
+        tasks.forEach(task -> ids.add(task.getId()));
+        return ids;
+    }
+}
@@ -0,0 +1,80 @@
+package service;
+
+import model.Task;
+import model.TaskStatus;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserHistoriesTest {
+
+    long now = 0;
+
+    private static Task makeTask(int id) {
+        return new Task(id, "Task " + id, "desc", TaskStatus.NEW, Duration.ZERO, null);
+    }
+
+    @Test
+    public void idlePartitionsAreEvicted() {
+        UserHistories histories = new UserHistories(ArrayHistoryManager::new, 10, Duration.ofMinutes(5), () -> now);
+        histories.add("alice", makeTask(1));
+        now += Duration.ofMinutes(3).toNanos();
+        histories.add("bob", makeTask(2));
+        now += Duration.ofMinutes(3).toNanos();
+
+        assertTrue(histories.getHistory("alice").isEmpty());
+        assertEquals(List.of(makeTask(2)), histories.getHistory("bob"));
+        assertEquals(1, histories.size());
+    }
+
+    @Test
+    public void leastRecentlyUsedPartitionMakesRoom() {
+        UserHistories histories = new UserHistories(() -> new ArrayHistoryManager(2), 2, Duration.ofHours(1), () -> now);
+        histories.add("alice", makeTask(1));
+        histories.add("bob", makeTask(2));
+        histories.getHistory("alice");
+        histories.add("carol", makeTask(3));
+        histories.add("alice", makeTask(4));
+        histories.add("alice", makeTask(5));
+
+        assertEquals(2, histories.size());
+        assertTrue(histories.getHistory("bob").isEmpty());
+        assertEquals(List.of(makeTask(4), makeTask(5)), histories.getHistory("alice"));
+    }
+
+    @Test
+    public void removalTouchesOnlyPartitionsThatViewedTheTask() {
+        List<Integer> removals = new ArrayList<>();
+        UserHistories histories = new UserHistories(() -> new ArrayHistoryManager(2) {
+            @Override
+            public void remove(int id) {
+                removals.add(id);
+                super.remove(id);
+            }
+        }, 10, Duration.ofHours(1), () -> now);
+        histories.add("alice", makeTask(1));
+        histories.add("bob", makeTask(2));
+        histories.add("carol", makeTask(1));
+        histories.remove(1);
+
+        assertEquals(List.of(1, 1), removals);
+        assertTrue(histories.getHistory("alice").isEmpty());
+        assertEquals(List.of(makeTask(2)), histories.getHistory("bob"));
+
+        // ids the bounded history evicted fall out of the index as more are viewed
+        for (int id = 3; id < 100; id++) {
+            histories.add("bob", makeTask(id));
+        }
+        removals.clear();
+        histories.remove(List.of(2, 3));
+        histories.remove(5);
+        assertEquals(List.of(), removals);
+        histories.remove(List.of(3, 98));
+        assertEquals(List.of(98), removals);
+        assertEquals(List.of(makeTask(99)), histories.getHistory("bob"));
+    }
+}
@@ -0,0 +1,64 @@
+package service.store;
+
+import model.Task;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvFileTaskStoreTest extends TaskStoreTest<CsvFileTaskStore> {
+
+    Path file;
+
+    @Override
+    CsvFileTaskStore openStore() {
+        try {
+            file = Files.createTempFile("tasks", ".csv");
+        } catch (IOException e) {
+            throw new RuntimeException(e.getMessage(), e);
+        }
+        return CsvFileTaskStore.open(file, StorageOptions.DEFAULT);
+    }
+
+    @Override
+    CsvFileTaskStore reopenStore() {
+        return CsvFileTaskStore.open(file, StorageOptions.DEFAULT);
+    }
+
+    private Task describedTask(int id, String description) {
+        Task task = makeTask(id);
+        return new Task(id, task.getName(), description, task.getStatus(), task.getDuration(), task.getStartTime());
+    }
+
+    @Test
+    public void unchangedLazyDescriptionsAreCopiedWithoutReading() {
+        store.batch(() -> {
+            for (int id = 1; id <= 20; id++) {
+                store.put(describedTask(id, "Описание #" + id));
+            }
+        });
+        CsvFileTaskStore lazy = CsvFileTaskStore.open(file, StorageOptions.DEFAULT.withLazyDescriptions(1));
+        DescriptionFile descriptions = ((LazyDescription) lazy.get(1).getRawDescription()).getFile();
+
+        lazy.put(describedTask(3, "edited"));
+        lazy.put(describedTask(4, ""));
+        lazy.put(makeTask(5));
+
+        // only the replaced descriptions were read, older copies of their tasks may still show them
+        assertEquals(3, descriptions.diskReads());
+        assertEquals("Описание #2", lazy.get(2).getDescription());
+        assertEquals(4, descriptions.diskReads());
+        CsvFileTaskStore reopened = reopenStore();
+        assertEquals("Описание #20", reopened.get(20).getDescription());
+        assertEquals("edited", reopened.get(3).getDescription());
+        assertEquals("", reopened.get(4).getDescription());
+        assertEquals("Task #5 description", lazy.get(5).getDescription());
+        for (int id = 6; id <= 20; id++) {
+            Task task = lazy.get(id);
+            assertEquals(reopened.get(id).getDescription(), task.getDescription());
+        }
+    }
+}
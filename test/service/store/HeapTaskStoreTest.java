@@ -0,0 +1,13 @@
+package service.store;
+
+class HeapTaskStoreTest extends TaskStoreTest<HeapTaskStore> {
+    @Override
+    HeapTaskStore openStore() {
+        return new HeapTaskStore();
+    }
+
+    @Override
+    HeapTaskStore reopenStore() {
+        return null;
+    }
+}
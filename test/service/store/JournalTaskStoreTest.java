@@ -0,0 +1,63 @@
+package service.store;
+
+import model.TaskType;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JournalTaskStoreTest extends TaskStoreTest<JournalTaskStore> {
+
+    Path file;
+
+    @Override
+    JournalTaskStore openStore() {
+        try {
+            file = Files.createTempDirectory("journal").resolve("tasks.csv");
+        } catch (IOException e) {
+            throw new RuntimeException(e.getMessage(), e);
+        }
+        return reopenStore();
+    }
+
+    @Override
+    JournalTaskStore reopenStore() {
+        return JournalTaskStore.open(file, StorageOptions.DEFAULT);
+    }
+
+    private Path journal() {
+        return file.resolveSibling(file.getFileName() + ".journal");
+    }
+
+    @Test
+    public void changeAppendsToJournal() throws IOException {
+        store.put(makeTask(1));
+        store.snapshot();
+        assertFalse(Files.exists(journal()));
+
+        String snapshot = Files.readString(file);
+        store.put(makeTask(2));
+        store.delete(1);
+
+        assertEquals(snapshot, Files.readString(file));
+        assertEquals(2, Files.readAllLines(journal()).size());
+        assertNull(reopenStore().get(1));
+        assertNotNull(reopenStore().get(2));
+    }
+
+    @Test
+    public void unfinishedRecordIsIgnored() throws IOException {
+        store.put(makeTask(1));
+        store.put(makeTask(2));
+        Files.writeString(journal(), "+3,TASK,Task #3,NEW", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+        JournalTaskStore reopened = reopenStore();
+        assertEquals(2, reopened.size(TaskType.TASK));
+        assertNull(reopened.get(3));
+    }
+}
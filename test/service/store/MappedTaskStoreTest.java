@@ -0,0 +1,60 @@
+package service.store;
+
+import model.Task;
+import model.TaskStatus;
+import model.TaskType;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedTaskStoreTest extends TaskStoreTest<MappedTaskStore> {
+
+    Path file;
+
+    @Override
+    MappedTaskStore openStore() {
+        try {
+            file = Files.createTempDirectory("mapped").resolve("tasks.dat");
+        } catch (IOException e) {
+            throw new RuntimeException(e.getMessage(), e);
+        }
+        return reopenStore();
+    }
+
+    @Override
+    MappedTaskStore reopenStore() {
+        return MappedTaskStore.open(file);
+    }
+
+    @Test
+    public void mappingGrowsWithRecords() throws IOException {
+        String description = "d".repeat(1000);
+        for (int id = 1; id <= 500; id++) {
+            store.put(new Task(id, "Task #" + id, description, TaskStatus.NEW, Duration.ZERO, null));
+        }
+
+        assertTrue(Files.size(file) > 500 * 1000);
+        MappedTaskStore reopened = reopenStore();
+        assertEquals(500, reopened.size(TaskType.TASK));
+        assertEquals(description, reopened.get(500).getDescription());
+    }
+
+    @Test
+    public void snapshotDropsDeadRecords() throws IOException {
+        for (int i = 0; i < 200; i++) {
+            store.put(makeTask(1).withStatus(TaskStatus.values()[i % 3]));
+        }
+        long written = Files.size(file);
+        store.snapshot();
+
+        assertTrue(Files.size(file) <= written);
+        MappedTaskStore reopened = reopenStore();
+        assertEquals(1, reopened.size(TaskType.TASK));
+        assertEquals(TaskStatus.values()[199 % 3], reopened.get(1).getStatus());
+    }
+}
@@ -0,0 +1,107 @@
+package service.store;
+
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import model.TaskStatus;
+import model.TaskType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import util.EpochMinutes;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapTaskStoreTest extends TaskStoreTest<OffHeapTaskStore> {
+
+    @Override
+    OffHeapTaskStore openStore() {
+        return new OffHeapTaskStore();
+    }
+
+    @Override
+    OffHeapTaskStore reopenStore() {
+        return null;
+    }
+
+    @AfterEach
+    public void closeStore() {
+        store.close();
+    }
+
+    @Test
+    public void replacedTextIsReclaimed() {
+        for (int round = 0; round < 200; round++) {
+            for (int id = 1; id <= 50; id++) {
+                store.put(new Task(id, "Task #" + id + " v" + round, "d".repeat(1000) + round, TaskStatus.NEW,
+                        Duration.ofMinutes(round), null));
+            }
+        }
+        store.delete(7);
+
+        // about 10 MB were written, the arena only ever held a few times the live 50 KB
+        assertTrue(store.arenaBytes() <= 1024 * 1024, "arena bytes: " + store.arenaBytes());
+        long beforeSnapshot = store.arenaBytes();
+        store.snapshot();
+        assertTrue(store.arenaBytes() <= Math.min(beforeSnapshot, 256 * 1024), "arena bytes: " + store.arenaBytes());
+        assertEquals(49, store.size(TaskType.TASK));
+        assertNull(store.get(7));
+        assertEquals("Task #8 v199", store.get(8).getName());
+        assertEquals("d".repeat(1000) + 199, store.get(8).getDescription());
+        assertEquals(Duration.ofMinutes(199), store.get(8).getDuration());
+    }
+
+    @Test
+    public void slotsAndSubtaskListsAreReused() {
+        for (int id = 1; id <= 3000; id++) {
+            store.put(new Epic(id, "Epic #" + id, null, TaskStatus.NEW, List.of(id + 10_000, id + 20_000),
+                    Duration.ZERO, null, null));
+        }
+        for (int id = 1; id <= 3000; id += 2) {
+            store.delete(id);
+        }
+        store.put(new Epic(5, "Epic #5", "again", TaskStatus.DONE, List.of(3, 1, 2), Duration.ZERO, null, null));
+        for (int id = 5001; id < 6500; id++) {
+            store.put(new Epic(id, "Epic #" + id, null, TaskStatus.NEW, List.of(), Duration.ZERO, null, null));
+        }
+        for (int id = 5001; id < 6500; id++) {
+            store.delete(id);
+        }
+        store.snapshot();
+
+        assertEquals(3000, store.slotCount());
+
+        assertEquals(1501, store.size(TaskType.EPIC));
+        assertEquals(List.of(1, 2, 3), ((Epic) store.get(5)).getSubtaskIds());
+        assertEquals(List.of(10_002, 20_002), ((Epic) store.get(2)).getSubtaskIds());
+        assertNull(store.get(2).getDescription());
+    }
+
+    @Test
+    public void columnsAreReadInPlace() {
+        LocalDateTime start = LocalDateTime.of(2025, 4, 1, 9, 0);
+        store.put(new Epic(1, "Epic", null, TaskStatus.IN_PROGRESS, List.of(3, 2), Duration.ofMinutes(90), start,
+                start.plusHours(2)));
+        store.put(new Subtask(2, 1, "Subtask", "desc", TaskStatus.DONE, Duration.ofMinutes(30), start));
+        store.put(new Task(4, "Task", "desc", TaskStatus.NEW, Duration.ofMinutes(15), null));
+
+        assertEquals(TaskType.SUBTASK, store.getType(2));
+        assertNull(store.getType(3));
+        assertEquals(TaskStatus.DONE, store.getStatus(2));
+        assertEquals(1, store.getEpicId(2));
+        assertEquals(0, store.getEpicId(4));
+        assertEquals(EpochMinutes.of(start) + 30, store.getEndMinute(2));
+        assertEquals(EpochMinutes.of(start.plusHours(2)), store.getEndMinute(1));
+        assertEquals(EpochMinutes.NONE, store.getStartMinute(4));
+        assertEquals(EpochMinutes.NONE, store.getEndMinute(4));
+        assertEquals(15, store.getDurationMinutes(4));
+        List<Integer> subtaskIds = new ArrayList<>();
+        store.forEachSubtaskId(1, subtaskIds::add);
+        assertEquals(List.of(2, 3), subtaskIds);
+        assertThrows(IllegalArgumentException.class, () -> store.getStatus(3));
+    }
+}
@@ -0,0 +1,104 @@
+package service.store;
+
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import model.TaskStatus;
+import model.TaskType;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardedFileTaskStoreTest extends TaskStoreTest<ShardedFileTaskStore> {
+
+    Path directory;
+
+    @Override
+    ShardedFileTaskStore openStore() {
+        try {
+            directory = Files.createTempDirectory("shards");
+        } catch (IOException e) {
+            throw new RuntimeException(e.getMessage(), e);
+        }
+        return reopenStore();
+    }
+
+    @Override
+    ShardedFileTaskStore reopenStore() {
+        return ShardedFileTaskStore.open(directory, 3, ForkJoinPool.commonPool(), StorageOptions.DEFAULT);
+    }
+
+    @Test
+    public void editRewritesOnlyItsShard() throws IOException {
+        store.batch(() -> {
+            for (int id = 1; id <= 30; id++) {
+                store.put(makeTask(id));
+            }
+        });
+        store.put(makeTask(7).withStatus(TaskStatus.DONE));
+
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(1, files.filter(file -> file.getFileName().toString().endsWith("-2.csv")).count());
+        }
+        assertEquals(TaskStatus.DONE, reopenStore().get(7).getStatus());
+    }
+
+    @Test
+    public void subtaskFollowsItsEpicBetweenShards() {
+        store.put(new Epic(1, "Epic #1", "desc", TaskStatus.NEW, List.of(), Duration.ZERO, null, null));
+        store.put(new Epic(2, "Epic #2", "desc", TaskStatus.NEW, List.of(), Duration.ZERO, null, null));
+        store.put(new Subtask(3, 1, "Subtask #3", "desc", TaskStatus.NEW, Duration.ZERO, null));
+        store.put(new Subtask(3, 2, "Subtask #3", "desc", TaskStatus.NEW, Duration.ZERO, null));
+
+        ShardedFileTaskStore reopened = reopenStore();
+        assertEquals(1, reopened.size(TaskType.SUBTASK));
+        assertEquals(2, ((Subtask) reopened.get(3)).getEpicId());
+        Task epic = reopened.get(2);
+        assertEquals(List.of(3), ((Epic) epic).getSubtaskIds());
+    }
+
+    @Test
+    public void newStoreKeepsTheLastCompleteSaveUntilItSaves() throws IOException {
+        store.batch(() -> {
+            for (int id = 1; id <= 30; id++) {
+                store.put(makeTask(id));
+            }
+        });
+
+        // the process dies after writing the first shard of its first save
+        int[] writes = {0};
+        Executor crashing = command -> {
+            if (writes[0]++ > 0) {
+                throw new RejectedExecutionException("crashed");
+            }
+            command.run();
+        };
+        ShardedFileTaskStore crashed = new ShardedFileTaskStore(directory, 3, crashing, StorageOptions.DEFAULT);
+        assertThrows(RejectedExecutionException.class, () -> crashed.batch(() -> {
+            for (int id = 101; id <= 130; id++) {
+                crashed.put(makeTask(id));
+            }
+        }));
+        assertEquals(30, reopenStore().size(TaskType.TASK));
+
+        ShardedFileTaskStore replacing = new ShardedFileTaskStore(directory, 3, ForkJoinPool.commonPool(),
+                StorageOptions.DEFAULT);
+        replacing.put(makeTask(200));
+        ShardedFileTaskStore reopened = reopenStore();
+        assertEquals(1, reopened.size(TaskType.TASK));
+        assertNotNull(reopened.get(200));
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(1, files.filter(file -> file.getFileName().toString().startsWith("shard-")).count());
+        }
+    }
+}
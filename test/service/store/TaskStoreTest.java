@@ -0,0 +1,181 @@
+package service.store;
+
+import model.Epic;
+import model.RecurringTask;
+import model.Subtask;
+import model.Task;
+import model.TaskStatus;
+import model.TaskType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public abstract class TaskStoreTest<T extends TaskStore> {
+
+    T store;
+
+    // 15.05.2025 09:00
+    protected final LocalDateTime timeRef = LocalDateTime.of(2025, 5, 15, 9, 0);
+    protected final Duration durationRef = Duration.ofMinutes(59);
+
+    abstract T openStore();
+
+    // the same storage opened again, or null if contents do not outlive the store
+    abstract T reopenStore();
+
+    @BeforeEach
+    public void prepareStore() {
+        store = openStore();
+    }
+
+    protected Task makeTask(int id) {
+        return new Task(id, "Task #" + id, "Task #" + id + " description", TaskStatus.NEW, durationRef,
+                timeRef.plusHours(id));
+    }
+
+    protected Epic makeEpic(int id, List<Integer> subtaskIds) {
+        return new Epic(id, "Epic #" + id, "Epic #" + id + " description", TaskStatus.IN_PROGRESS, subtaskIds,
+                Duration.ofMinutes(30), timeRef, timeRef.plusMinutes(30));
+    }
+
+    protected Subtask makeSubtask(int id, int epicId) {
+        return new Subtask(id, epicId, "Subtask #" + id, "Subtask #" + id + " description", TaskStatus.DONE,
+                Duration.ofMinutes(30), timeRef);
+    }
+
+    private List<Task> scan(TaskStore store, TaskType type) {
+        List<Task> result = new ArrayList<>();
+        store.scan(type, result::add);
+        return result;
+    }
+
+    private void assertSameContents(TaskStore loaded) {
+        for (TaskType type : TaskType.values()) {
+            assertEquals(store.size(type), loaded.size(type));
+            for (Task task : scan(store, type)) {
+                Task loadedTask = loaded.get(task.getId());
+                assertEquals(task, loadedTask);
+                assertEquals(task.getName(), loadedTask.getName());
+                assertEquals(task.getDescription(), loadedTask.getDescription());
+                assertEquals(task.getStatus(), loadedTask.getStatus());
+                assertEquals(task.getStartTime(), loadedTask.getStartTime());
+                assertEquals(task.getDuration(), loadedTask.getDuration());
+            }
+        }
+    }
+
+    private void fill() {
+        store.put(makeTask(1));
+        store.put(makeTask(2));
+        store.put(makeEpic(3, List.of(4, 5)));
+        store.put(makeSubtask(4, 3));
+        store.put(makeSubtask(5, 3));
+    }
+
+    @Test
+    public void putAndGet() {
+        fill();
+
+        assertEquals("Task #2", store.get(2).getName());
+        assertInstanceOf(Epic.class, store.get(3));
+        assertEquals(3, ((Subtask) store.get(5)).getEpicId());
+        assertNull(store.get(6));
+    }
+
+    @Test
+    public void putReplacesTaskWithSameId() {
+        fill();
+        store.put(makeTask(2).withStatus(TaskStatus.DONE));
+        store.put(makeSubtask(1, 3));
+
+        assertEquals(TaskStatus.DONE, store.get(2).getStatus());
+        assertInstanceOf(Subtask.class, store.get(1));
+        assertEquals(1, store.size(TaskType.TASK));
+        assertEquals(3, store.size(TaskType.SUBTASK));
+    }
+
+    @Test
+    public void deleteRemovesTask() {
+        fill();
+        store.delete(4);
+        store.delete(42);
+
+        assertNull(store.get(4));
+        assertEquals(1, store.size(TaskType.SUBTASK));
+    }
+
+    @Test
+    public void scanVisitsTasksOfType() {
+        fill();
+
+        assertEquals(List.of(1, 2), scan(store, TaskType.TASK).stream().map(Task::getId).sorted().toList());
+        assertEquals(List.of(3), scan(store, TaskType.EPIC).stream().map(Task::getId).toList());
+        assertEquals(2, store.size(TaskType.SUBTASK));
+    }
+
+    @Test
+    public void epicKeepsSubtaskIds() {
+        fill();
+        assertEquals(List.of(4, 5), ((Epic) store.get(3)).getSubtaskIds());
+
+        T reopened = reopenStore();
+        if (reopened != null) {
+            assertEquals(List.of(4, 5), ((Epic) reopened.get(3)).getSubtaskIds());
+        }
+    }
+
+    @Test
+    public void recurringTaskKeepsRule() {
+        RecurringTask weekly = new RecurringTask(7, "Review", "Weekly review", TaskStatus.NEW, durationRef, timeRef,
+                Duration.ofDays(7), timeRef.plusWeeks(4));
+        store.put(weekly);
+        store.snapshot();
+
+        T reopened = reopenStore();
+        for (TaskStore loaded : reopened == null ? List.of(store) : List.of(store, reopened)) {
+            RecurringTask stored = (RecurringTask) loaded.get(7);
+            assertEquals(Duration.ofDays(7), stored.getPeriod());
+            assertEquals(timeRef.plusWeeks(4), stored.getUntil());
+            assertEquals(timeRef, stored.getStartTime());
+            assertEquals(1, loaded.size(TaskType.RECURRING));
+        }
+    }
+
+    @Test
+    public void batchedChangesArePersisted() {
+        store.batch(() -> {
+            fill();
+            store.batch(() -> store.delete(1));
+            store.put(makeTask(2).withStatus(TaskStatus.IN_PROGRESS));
+        });
+
+        assertNull(store.get(1));
+        T reopened = reopenStore();
+        if (reopened != null) {
+            assertSameContents(reopened);
+        }
+    }
+
+    @Test
+    public void snapshotKeepsContents() {
+        fill();
+        for (int i = 0; i < 10; i++) {
+            store.put(makeTask(2).withStatus(i % 2 == 0 ? TaskStatus.DONE : TaskStatus.NEW));
+        }
+        store.delete(1);
+        store.snapshot();
+        store.put(makeTask(6));
+
+        T reopened = reopenStore();
+        if (reopened != null) {
+            assertSameContents(reopened);
+            assertEquals(TaskStatus.NEW, reopened.get(2).getStatus());
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FenwickTreeTest {
+
+    @Test
+    public void rangeAddsAndSumsMatchArray() {
+        FenwickTree tree = new FenwickTree(100);
+        long[] expected = new long[100];
+        Random random = new Random(42);
+
+        for (int i = 0; i < 10_000; i++) {
+            int from = random.nextInt(101);
+            int to = from + random.nextInt(101 - from);
+            if (random.nextBoolean()) {
+                long value = random.nextInt(2000) - 1000;
+                tree.add(from, to, value);
+                for (int j = from; j < to; j++) {
+                    expected[j] += value;
+                }
+            } else {
+                long sum = 0;
+                for (int j = from; j < to; j++) {
+                    sum += expected[j];
+                }
+                assertEquals(sum, tree.sum(from, to));
+            }
+        }
+        for (int j = 0; j < expected.length; j++) {
+            assertEquals(expected[j], tree.get(j));
+        }
+    }
+
+    @Test
+    public void rangesOutsideTreeAreRejected() {
+        FenwickTree tree = new FenwickTree(10);
+
+        assertThrows(IndexOutOfBoundsException.class, () -> tree.add(-1, 3, 1));
+        assertThrows(IndexOutOfBoundsException.class, () -> tree.sum(5, 11));
+        assertThrows(IndexOutOfBoundsException.class, () -> tree.sum(6, 5));
+    }
+}
@@ -0,0 +1,88 @@
+package util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntTrieSetTest {
+
+    @Test
+    public void behavesLikeTreeSet() {
+        IntTrieSet set = IntTrieSet.empty();
+        TreeSet<Integer> expected = new TreeSet<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 50_000; i++) {
+            int value = random.nextInt(1 << 20);
+            if (random.nextInt(3) == 0 && !expected.isEmpty()) {
+                value = expected.ceiling(value) != null ? expected.ceiling(value) : expected.first();
+                set = set.remove(value);
+                expected.remove(value);
+            } else {
+                set = set.add(value);
+                expected.add(value);
+            }
+            assertEquals(expected.size(), set.size());
+        }
+        assertEquals(new ArrayList<>(expected), set.toList());
+        for (int value : expected) {
+            assertTrue(set.contains(value));
+        }
+    }
+
+    @Test
+    public void versionsAreUnchangedByLaterOnes() {
+        IntTrieSet v1 = IntTrieSet.of(List.of(3, 1, 40_000));
+        IntTrieSet v2 = v1.add(2).remove(40_000);
+        IntTrieSet v3 = v2.remove(1).remove(2).remove(3);
+
+        assertEquals(List.of(1, 3, 40_000), v1.toList());
+        assertEquals(List.of(1, 2, 3), v2.toList());
+        assertTrue(v3.isEmpty());
+        assertFalse(v3.contains(3));
+        assertSame(v1, v1.add(3));
+        assertSame(v1, v1.remove(2));
+    }
+
+    @Test
+    public void keepsExtremeValues() {
+        IntTrieSet set = IntTrieSet.of(List.of(Integer.MAX_VALUE, 0, 7));
+
+        assertEquals(List.of(0, 7, Integer.MAX_VALUE), set.toList());
+        assertTrue(set.contains(Integer.MAX_VALUE));
+        assertEquals(List.of(7), set.remove(0).remove(Integer.MAX_VALUE).toList());
+    }
+
+    @Test
+    public void builderMatchesRepeatedAdd() {
+        Random random = new Random(7);
+        for (int round = 0; round < 200; round++) {
+            IntTrieSet.Builder builder = new IntTrieSet.Builder();
+            IntTrieSet expected = IntTrieSet.empty();
+            int count = random.nextInt(300);
+            for (int i = 0; i < count; i++) {
+                int value = round % 2 == 0 ? random.nextInt(5000) : i * 3;
+                builder.add(value);
+                expected = expected.add(value);
+            }
+            IntTrieSet built = builder.build();
+
+            assertEquals(expected.toList(), built.toList());
+            assertEquals(expected.size(), built.size());
+            assertEquals(expected.remove(3).toList(), built.remove(3).toList());
+        }
+    }
+
+    @Test
+    public void builderDropsDuplicates() {
+        IntTrieSet set = new IntTrieSet.Builder().add(70).add(5).add(70).add(Integer.MAX_VALUE).add(5).build();
+
+        assertEquals(List.of(5, 70, Integer.MAX_VALUE), set.toList());
+        assertEquals(3, set.size());
+    }
+}
@@ -0,0 +1,45 @@
+package util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PresortedSetTest {
+
+    private static final List<Integer> VALUES = List.of(1, 3, 5, 7, 9, 11);
+
+    @Test
+    public void rangeViewsMatchTreeSet() {
+        PresortedSet<Integer> set = new PresortedSet<>(VALUES, Comparator.naturalOrder());
+        NavigableSet<Integer> tree = new TreeSet<>(VALUES);
+
+        for (int from = 0; from <= 12; from++) {
+            assertEquals(List.copyOf(tree.headSet(from)), List.copyOf(set.headSet(from)));
+            assertEquals(List.copyOf(tree.tailSet(from)), List.copyOf(set.tailSet(from)));
+            for (int to = from; to <= 12; to++) {
+                assertEquals(List.copyOf(tree.subSet(from, to)), List.copyOf(set.subSet(from, to)));
+            }
+        }
+        SortedSet<Integer> middle = set.subSet(3, 10);
+        assertEquals(List.of(5, 7), List.copyOf(middle.subSet(4, 9)));
+        assertTrue(middle.contains(9));
+        assertFalse(middle.contains(11));
+        assertEquals(9, (int) middle.last());
+    }
+
+    @Test
+    public void invalidRangesAndEmptyViewsBehaveLikeSortedSet() {
+        PresortedSet<Integer> set = new PresortedSet<>(VALUES, Comparator.naturalOrder());
+
+        assertThrows(IllegalArgumentException.class, () -> set.subSet(5, 3));
+        assertThrows(NoSuchElementException.class, () -> set.subSet(4, 5).first());
+        assertThrows(UnsupportedOperationException.class, () -> set.headSet(5).clear());
+    }
+}
@@ -0,0 +1,42 @@
+package util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StringPoolTest {
+
+    @Test
+    public void equalStringsShareOneInstance() {
+        StringPool pool = new StringPool();
+        String first = pool.intern(new String("Backlog grooming"));
+        String second = pool.intern(new String("Backlog grooming"));
+
+        assertSame(first, second);
+        assertNull(pool.intern(null));
+
+        StringPool.Report report = pool.getReport();
+        assertEquals(1, report.size());
+        assertEquals(2, report.lookups());
+        assertEquals(1, report.hits());
+        assertEquals(StringPool.sizeOf(first), report.bytesSaved());
+    }
+
+    @Test
+    public void fullPoolPassesNewStringsThrough() {
+        StringPool pool = new StringPool(1);
+        pool.intern("kept");
+        String other = new String("other");
+
+        assertSame(other, pool.intern(other));
+        assertNotSame(other, pool.intern(new String("other")));
+        assertEquals(1, pool.getReport().size());
+    }
+
+    @Test
+    public void estimatesCompactStringSize() {
+        assertEquals(24 + 16 + 8, StringPool.sizeOf("abc"));
+        assertEquals(24 + 16 + 8, StringPool.sizeOf("жжж"));
+        assertEquals(24 + 32, StringPool.sizeOf("123456789"));
+    }
+}
@@ -0,0 +1,88 @@
+package util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimeIndexTest {
+
+    private static final Comparator<long[]> KEY_ORDER =
+            Comparator.<long[]>comparingLong(key -> key[0]).thenComparingLong(key -> key[1]);
+
+    @Test
+    public void matchesTreeSetAcrossBlockSplitsAndRemovals() {
+        Random random = new Random(5);
+        TimeIndex index = new TimeIndex();
+        NavigableSet<long[]> expected = new TreeSet<>(KEY_ORDER);
+
+        for (int step = 0; step < 20_000; step++) {
+            long start = random.nextInt(3000);
+            int id = random.nextInt(20) + 1;
+            if (random.nextInt(3) > 0) {
+                assertEquals(expected.add(new long[]{start, id, start + id}), index.add(start, id, start + id));
+            } else {
+                assertEquals(expected.remove(new long[]{start, id}), index.remove(start, id));
+            }
+            if (step % 1000 == 0) {
+                assertSameKeys(expected, index);
+            }
+        }
+        assertSameKeys(expected, index);
+
+        for (int i = 0; i < 200; i++) {
+            long start = random.nextInt(3100) - 50;
+            long[] ceiling = expected.ceiling(new long[]{start, Integer.MIN_VALUE});
+            long position = index.ceiling(start, Integer.MIN_VALUE);
+            assertEquals(ceiling == null, position == TimeIndex.NONE);
+            if (ceiling != null) {
+                assertEquals(ceiling[0], index.startAt(position));
+                assertEquals(ceiling[1], index.idAt(position));
+            }
+            long[] lower = expected.lower(new long[]{start, Integer.MIN_VALUE});
+            position = index.lower(start, Integer.MIN_VALUE);
+            assertEquals(lower == null, position == TimeIndex.NONE);
+            if (lower != null) {
+                assertEquals(lower[1], index.idAt(position));
+                assertEquals(lower[2], index.endAt(position));
+            }
+        }
+    }
+
+    @Test
+    public void appendFillsBlocksInOrder() {
+        TimeIndex index = new TimeIndex();
+        for (int i = 0; i < 2000; i++) {
+            index.append(i / 2, i, i);
+        }
+        index.add(500, -1, 0);
+
+        assertEquals(2001, index.size());
+        assertTrue(index.contains(500, -1));
+        assertEquals(999, index.idAt(index.lower(500, -1)));
+        assertThrows(IllegalArgumentException.class, () -> index.append(0, 0, 0));
+        long last = index.last();
+        assertEquals(1999, index.idAt(last));
+        assertEquals(TimeIndex.NONE, index.next(last));
+    }
+
+    private static void assertSameKeys(NavigableSet<long[]> expected, TimeIndex index) {
+        assertEquals(expected.size(), index.size());
+        List<Long> keys = new ArrayList<>();
+        for (long p = index.first(); p != TimeIndex.NONE; p = index.next(p)) {
+            keys.add(index.startAt(p) * 100 + index.idAt(p));
+        }
+        List<Long> backwards = new ArrayList<>();
+        for (long p = index.last(); p != TimeIndex.NONE; p = index.previous(p)) {
+            backwards.add(0, index.startAt(p) * 100 + index.idAt(p));
+        }
+        assertEquals(expected.stream().map(key -> key[0] * 100 + key[1]).toList(), keys);
+        assertEquals(keys, backwards);
+    }
+}